@@ -1,5 +1,6 @@
 package com.astenensino.login.client;
 
+import com.astenensino.login.deadline.RequestDeadline;
 import com.astenensino.login.security.SecurityUtils;
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
@@ -14,5 +15,9 @@ public class UserFeignClientInterceptor implements RequestInterceptor {
     @Override
     public void apply(RequestTemplate template) {
         SecurityUtils.getCurrentUserJWT().ifPresent(s -> template.header(AUTHORIZATION_HEADER, String.format("%s %s", BEARER, s)));
+        // The downstream service gets what is left of the deadline of the request it is called for
+        RequestDeadline
+            .current()
+            .ifPresent(deadline -> template.header(RequestDeadline.HEADER, Long.toString(deadline.remainingMillis())));
     }
 }
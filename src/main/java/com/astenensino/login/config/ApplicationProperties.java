@@ -1,5 +1,8 @@
 package com.astenensino.login.config;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -10,7 +13,528 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final PasswordHashing passwordHashing = new PasswordHashing();
+
+    private final Jwt jwt = new Jwt();
+
+    private final LoginThrottling loginThrottling = new LoginThrottling();
+
+    private final ApiQuota apiQuota = new ApiQuota();
+
+    private final ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+
+    private final Sse sse = new Sse();
+
     // jhipster-needle-application-properties-property
+
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+
+    public Jwt getJwt() {
+        return jwt;
+    }
+
+    public LoginThrottling getLoginThrottling() {
+        return loginThrottling;
+    }
+
+    public ApiQuota getApiQuota() {
+        return apiQuota;
+    }
+
+    public ConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public Sse getSse() {
+        return sse;
+    }
+
     // jhipster-needle-application-properties-property-getter
+
+    /**
+     * The executor passwords are hashed and verified on, isolated from the request threads.
+     */
+    public static class PasswordHashing {
+
+        /**
+         * Number of threads, each hashing one password at a time.
+         */
+        private int poolSize = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        /**
+         * Number of hashings that can wait for a thread, beyond which logins are rejected right away.
+         */
+        private int queueCapacity = 64;
+
+        /**
+         * Log rounds of bcrypt, the hashes of another strength being upgraded on login.
+         */
+        private int bcryptStrength = 10;
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBcryptStrength() {
+            return bcryptStrength;
+        }
+
+        public void setBcryptStrength(int bcryptStrength) {
+            this.bcryptStrength = bcryptStrength;
+        }
+    }
+    /**
+     * The keys of the JWT, beside the {@code jhipster.security.authentication.jwt} secret which signs the tokens when
+     * none is configured and verifies the tokens without key id.
+     * <p>
+     * A key is rotated by adding the new one, then signing with it once all the instances know it, then removing the
+     * previous one once the tokens it signed have expired.
+     */
+    public static class Jwt {
+
+        /**
+         * Id of the key among {@link #keys} the tokens are signed with, or empty to sign them with the JHipster secret.
+         */
+        private String signingKeyId;
+
+        /**
+         * Keys the tokens are verified with, by id.
+         */
+        private Map<String, Key> keys = new LinkedHashMap<>();
+
+        public String getSigningKeyId() {
+            return signingKeyId;
+        }
+
+        public void setSigningKeyId(String signingKeyId) {
+            this.signingKeyId = signingKeyId;
+        }
+
+        public Map<String, Key> getKeys() {
+            return keys;
+        }
+
+        public void setKeys(Map<String, Key> keys) {
+            this.keys = keys;
+        }
+
+        public static class Key {
+
+            /**
+             * JWS algorithm of the key, such as {@code HS256}, {@code HS512} or {@code ES256}.
+             */
+            private String algorithm = "HS512";
+
+            /**
+             * Base64-encoded secret of an HMAC key.
+             */
+            private String secret;
+
+            /**
+             * Base64-encoded PKCS#8 private key of an asymmetric key, PEM armor allowed, only needed to sign.
+             */
+            private String privateKey;
+
+            /**
+             * Base64-encoded X.509 public key of an asymmetric key, PEM armor allowed.
+             */
+            private String publicKey;
+
+            public String getAlgorithm() {
+                return algorithm;
+            }
+
+            public void setAlgorithm(String algorithm) {
+                this.algorithm = algorithm;
+            }
+
+            public String getSecret() {
+                return secret;
+            }
+
+            public void setSecret(String secret) {
+                this.secret = secret;
+            }
+
+            public String getPrivateKey() {
+                return privateKey;
+            }
+
+            public void setPrivateKey(String privateKey) {
+                this.privateKey = privateKey;
+            }
+
+            public String getPublicKey() {
+                return publicKey;
+            }
+
+            public void setPublicKey(String publicKey) {
+                this.publicKey = publicKey;
+            }
+        }
+    }
     // jhipster-needle-application-properties-property-class
+
+    /**
+     * The token buckets limiting the login attempts per email and per client address, each attempt taking a token
+     * from both.
+     */
+    public static class LoginThrottling {
+
+        private final Limit email = new Limit(5, Duration.ofMinutes(1));
+
+        private final Limit clientAddress = new Limit(20, Duration.ofSeconds(6));
+
+        /**
+         * Number of buckets kept in memory, the least recently used being forgotten beyond.
+         */
+        private int maxLocalBuckets = 100_000;
+
+        /**
+         * Addresses of the proxies, such as the gateway, trusted to tell the client address in {@code X-Forwarded-For},
+         * as a regular expression. Defaults to the loopback and private network addresses, as Tomcat's
+         * {@code RemoteIpValve} does.
+         */
+        private String trustedProxies =
+            "10\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}|192\\.168\\.\\d{1,3}\\.\\d{1,3}|169\\.254\\.\\d{1,3}\\.\\d{1,3}|" +
+            "127\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}|172\\.(1[6-9]|2[0-9]|3[0-1])\\.\\d{1,3}\\.\\d{1,3}|0:0:0:0:0:0:0:1|::1";
+
+        public Limit getEmail() {
+            return email;
+        }
+
+        public Limit getClientAddress() {
+            return clientAddress;
+        }
+
+        public int getMaxLocalBuckets() {
+            return maxLocalBuckets;
+        }
+
+        public void setMaxLocalBuckets(int maxLocalBuckets) {
+            this.maxLocalBuckets = maxLocalBuckets;
+        }
+
+        public String getTrustedProxies() {
+            return trustedProxies;
+        }
+
+        public void setTrustedProxies(String trustedProxies) {
+            this.trustedProxies = trustedProxies;
+        }
+
+        public static class Limit {
+
+            /**
+             * Number of attempts that can be made in a burst.
+             */
+            private int capacity;
+
+            /**
+             * Time after which one more attempt can be made.
+             */
+            private Duration refillPeriod;
+
+            Limit(int capacity, Duration refillPeriod) {
+                this.capacity = capacity;
+                this.refillPeriod = refillPeriod;
+            }
+
+            public int getCapacity() {
+                return capacity;
+            }
+
+            public void setCapacity(int capacity) {
+                this.capacity = capacity;
+            }
+
+            public Duration getRefillPeriod() {
+                return refillPeriod;
+            }
+
+            public void setRefillPeriod(Duration refillPeriod) {
+                this.refillPeriod = refillPeriod;
+            }
+        }
+    }
+
+    /**
+     * The request rates allowed to each authenticated principal on {@code /api/**}, across all the instances.
+     * <p>
+     * A principal is allowed the limit configured for its name if any, or else the highest limit configured for its
+     * authorities, or else the default limit.
+     */
+    public static class ApiQuota {
+
+        private boolean enabled = true;
+
+        private final Limit defaultLimit = new Limit(20, 40);
+
+        /**
+         * Limits by authority, such as {@code ROLE_ADMIN}.
+         */
+        private Map<String, Limit> authorities = new LinkedHashMap<>();
+
+        /**
+         * Limits by principal name, overriding the ones of their authorities.
+         */
+        private Map<String, Limit> principals = new LinkedHashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Limit getDefaultLimit() {
+            return defaultLimit;
+        }
+
+        public Map<String, Limit> getAuthorities() {
+            return authorities;
+        }
+
+        public void setAuthorities(Map<String, Limit> authorities) {
+            this.authorities = authorities;
+        }
+
+        public Map<String, Limit> getPrincipals() {
+            return principals;
+        }
+
+        public void setPrincipals(Map<String, Limit> principals) {
+            this.principals = principals;
+        }
+
+        public static class Limit {
+
+            /**
+             * Sustained number of requests per second.
+             */
+            private double requestsPerSecond;
+
+            /**
+             * Number of requests that can be made at once after being idle.
+             */
+            private int burst;
+
+            public Limit() {}
+
+            Limit(double requestsPerSecond, int burst) {
+                this.requestsPerSecond = requestsPerSecond;
+                this.burst = burst;
+            }
+
+            public double getRequestsPerSecond() {
+                return requestsPerSecond;
+            }
+
+            public void setRequestsPerSecond(double requestsPerSecond) {
+                this.requestsPerSecond = requestsPerSecond;
+            }
+
+            public int getBurst() {
+                return burst;
+            }
+
+            public void setBurst(int burst) {
+                this.burst = burst;
+            }
+        }
+    }
+
+    /**
+     * The number of {@code /api/**} requests processed at once, adapted between its bounds to their latency. The
+     * requests beyond it are rejected right away.
+     */
+    public static class ConcurrencyLimit {
+
+        private boolean enabled = true;
+
+        private int initialLimit = 20;
+
+        private int minLimit = 4;
+
+        private int maxLimit = 200;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+    }
+
+    /**
+     * The server-sent event streams the Kafka events are pushed to.
+     */
+    public static class Sse {
+
+        /**
+         * Time after which a stream is closed, for its client to reconnect.
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        /**
+         * Number of streams a principal can have open at once, beyond which its oldest one is closed.
+         */
+        private int maxConnectionsPerPrincipal = 8;
+
+        /**
+         * Number of events waiting to be sent to a stream, beyond which its client is too slow and it is closed.
+         */
+        private int maxQueuedEvents = 256;
+
+        /**
+         * Number of threads sending the events, each to one stream at a time.
+         */
+        private int poolSize = 2;
+
+        /**
+         * Number of events and stream openings waiting for the dispatching thread, beyond which the consumption of the
+         * events waits for room, and streams cannot be opened.
+         */
+        private int maxPendingDispatches = 10_000;
+
+        /**
+         * Time the consumption of an event waits for room to dispatch it, beyond which the event is dropped.
+         */
+        private Duration dispatchTimeout = Duration.ofSeconds(10);
+
+        private final Replay replay = new Replay();
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getMaxConnectionsPerPrincipal() {
+            return maxConnectionsPerPrincipal;
+        }
+
+        public void setMaxConnectionsPerPrincipal(int maxConnectionsPerPrincipal) {
+            this.maxConnectionsPerPrincipal = maxConnectionsPerPrincipal;
+        }
+
+        public int getMaxQueuedEvents() {
+            return maxQueuedEvents;
+        }
+
+        public void setMaxQueuedEvents(int maxQueuedEvents) {
+            this.maxQueuedEvents = maxQueuedEvents;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getMaxPendingDispatches() {
+            return maxPendingDispatches;
+        }
+
+        public void setMaxPendingDispatches(int maxPendingDispatches) {
+            this.maxPendingDispatches = maxPendingDispatches;
+        }
+
+        public Duration getDispatchTimeout() {
+            return dispatchTimeout;
+        }
+
+        public void setDispatchTimeout(Duration dispatchTimeout) {
+            this.dispatchTimeout = dispatchTimeout;
+        }
+
+        public Replay getReplay() {
+            return replay;
+        }
+
+        /**
+         * The latest events kept for the streams reopened with a {@code Last-Event-ID}, in a ring per channel, per
+         * user, and one for the events for every stream.
+         */
+        public static class Replay {
+
+            private int maxEvents = 100;
+
+            private Duration maxAge = Duration.ofMinutes(5);
+
+            /**
+             * Number of rings, beyond which the least recently used ones are forgotten.
+             */
+            private int maxRings = 10000;
+
+            public int getMaxEvents() {
+                return maxEvents;
+            }
+
+            public void setMaxEvents(int maxEvents) {
+                this.maxEvents = maxEvents;
+            }
+
+            public Duration getMaxAge() {
+                return maxAge;
+            }
+
+            public void setMaxAge(Duration maxAge) {
+                this.maxAge = maxAge;
+            }
+
+            public int getMaxRings() {
+                return maxRings;
+            }
+
+            public void setMaxRings(int maxRings) {
+                this.maxRings = maxRings;
+            }
+        }
+    }
 }
@@ -5,17 +5,23 @@ import java.util.concurrent.TimeUnit;
 import javax.cache.configuration.MutableConfiguration;
 import javax.cache.expiry.CreatedExpiryPolicy;
 import javax.cache.expiry.Duration;
+import org.hibernate.cfg.AvailableSettings;
 import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
 import org.redisson.config.ClusterServersConfig;
 import org.redisson.config.Config;
 import org.redisson.config.SingleServerConfig;
+import org.redisson.hibernate.RedissonRegionFactory;
 import org.redisson.jcache.configuration.RedissonConfiguration;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.jcache.JCacheCacheManager;
 import org.springframework.cloud.client.ServiceInstance;
 import org.springframework.cloud.client.discovery.DiscoveryClient;
 import org.springframework.cloud.client.serviceregistry.Registration;
@@ -32,10 +38,11 @@ public class CacheConfiguration {
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
 
-    @Bean
-    public javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(JHipsterProperties jHipsterProperties) {
-        MutableConfiguration<Object, Object> jcacheConfig = new MutableConfiguration<>();
-
+    /**
+     * The Redisson client shared by the JCache caches, the Hibernate second-level cache and the other Redis users.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public RedissonClient redissonClient(JHipsterProperties jHipsterProperties) {
         URI redisUri = URI.create(jHipsterProperties.getCache().getRedis().getServer()[0]);
 
         Config config = new Config();
@@ -62,20 +69,59 @@ public class CacheConfiguration {
                 singleServerConfig.setPassword(redisUri.getUserInfo().substring(redisUri.getUserInfo().indexOf(':') + 1));
             }
         }
+        return Redisson.create(config);
+    }
+
+    @Bean
+    public javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(
+        JHipsterProperties jHipsterProperties,
+        RedissonClient redissonClient
+    ) {
+        MutableConfiguration<Object, Object> jcacheConfig = new MutableConfiguration<>();
         jcacheConfig.setStatisticsEnabled(true);
         jcacheConfig.setExpiryPolicyFactory(
             CreatedExpiryPolicy.factoryOf(new Duration(TimeUnit.SECONDS, jHipsterProperties.getCache().getRedis().getExpiration()))
         );
-        return RedissonConfiguration.fromInstance(Redisson.create(config), jcacheConfig);
+        return RedissonConfiguration.fromInstance(redissonClient, jcacheConfig);
+    }
+
+    /**
+     * Backs the Hibernate second-level cache with the shared Redisson client. Only the entities annotated with
+     * {@link org.hibernate.annotations.Cache} are cached, and only when {@code hibernate.cache.use_second_level_cache}
+     * is enabled by the {@code second-level-cache} profile.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernateSecondLevelCacheCustomizer(
+        JHipsterProperties jHipsterProperties,
+        RedissonClient redissonClient
+    ) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, new SharedRedissonRegionFactory(redissonClient));
+            hibernateProperties.put(
+                RedissonRegionFactory.CONFIG_PREFIX + RedissonRegionFactory.ENTITY_DEF + RedissonRegionFactory.TTL_SUFFIX,
+                String.valueOf(TimeUnit.SECONDS.toMillis(jHipsterProperties.getCache().getRedis().getExpiration()))
+            );
+        };
     }
 
     @Bean
     public JCacheManagerCustomizer cacheManagerCustomizer(javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration) {
         return cm -> {
+            createCache(cm, com.astenensino.login.repository.UsuariosRepository.USUARIOS_BY_ID_CACHE, jcacheConfiguration);
+            createCache(cm, com.astenensino.login.repository.UsuariosRepository.USUARIOS_BY_EMAIL_CACHE, jcacheConfiguration);
             // jhipster-needle-redis-add-entry
         };
     }
 
+    /**
+     * Defers the puts and evictions made inside a transaction until after it commits, so that a concurrent read cannot
+     * cache back a row that is being changed, and a rolled back change does not evict anything.
+     */
+    @Bean
+    public CacheManagerCustomizer<JCacheCacheManager> transactionAwareCacheManagerCustomizer() {
+        return cacheManager -> cacheManager.setTransactionAware(true);
+    }
+
     private void createCache(
         javax.cache.CacheManager cm,
         String cacheName,
@@ -1,8 +1,10 @@
 package com.astenensino.login.config;
 
 import java.sql.SQLException;
+import javax.sql.DataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -27,6 +29,22 @@ public class DatabaseConfiguration {
         this.env = env;
     }
 
+    /**
+     * Bounds the statements executed for a request by its deadline, see {@link DeadlineAwareDataSource}.
+     */
+    @Bean
+    public static BeanPostProcessor deadlineAwareDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof DeadlineAwareDataSource)) {
+                    return new DeadlineAwareDataSource((DataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+
     /**
      * Open the TCP port for the H2 database, so it is available remotely.
      *
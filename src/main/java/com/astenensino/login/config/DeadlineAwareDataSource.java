@@ -0,0 +1,166 @@
+package com.astenensino.login.config;
+
+import com.astenensino.login.deadline.RequestDeadline;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * A data source whose statements, when prepared for a request with a {@link RequestDeadline deadline}, time out at
+ * that deadline, and are cancelled with it until they are closed. A statement cannot be prepared anymore once the
+ * deadline is exceeded.
+ * <p>
+ * The connections taken outside of any request are the ones of the target data source, untouched.
+ */
+class DeadlineAwareDataSource extends DelegatingDataSource {
+
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement", "prepareStatement", "prepareCall");
+
+    DeadlineAwareDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return withDeadline(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return withDeadline(super.getConnection(username, password));
+    }
+
+    private static Connection withDeadline(Connection connection) {
+        Optional<RequestDeadline> deadline = RequestDeadline.current();
+        if (deadline.isEmpty()) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(
+            DeadlineAwareDataSource.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            new DeadlineAwareConnection(connection, deadline.get())
+        );
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * A connection whose statements time out at the deadline, and are cancelled with it until they are closed.
+     */
+    private static final class DeadlineAwareConnection implements InvocationHandler {
+
+        private final Connection target;
+
+        private final RequestDeadline deadline;
+
+        /**
+         * The cancellations of the statements not closed yet, which closing the connection closes as well. Only used by
+         * the thread the connection is used by.
+         */
+        private final Set<RequestDeadline.Registration> openStatements = new LinkedHashSet<>();
+
+        private DeadlineAwareConnection(Connection target, RequestDeadline deadline) {
+            this.target = target;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("equals".equals(method.getName())) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(method.getName())) {
+                return System.identityHashCode(proxy);
+            }
+            if ("close".equals(method.getName())) {
+                openStatements.forEach(RequestDeadline.Registration::remove);
+                openStatements.clear();
+            }
+            Object result = invokeTarget(target, method, args);
+            if (STATEMENT_FACTORIES.contains(method.getName())) {
+                return withDeadline((Statement) result, method.getReturnType());
+            }
+            return result;
+        }
+
+        private Object withDeadline(Statement statement, Class<?> statementType) throws SQLException {
+            long remainingMillis = deadline.remainingMillis();
+            if (remainingMillis <= 0) {
+                statement.close();
+                throw new SQLTimeoutException("The deadline of the request is exceeded");
+            }
+            // In whole seconds, rounded up so that a statement never times out before its request
+            statement.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, (remainingMillis + 999) / 1000));
+            RequestDeadline.Registration cancellation = deadline.onCancel(() -> cancel(statement));
+            openStatements.add(cancellation);
+            return Proxy.newProxyInstance(
+                DeadlineAwareDataSource.class.getClassLoader(),
+                new Class<?>[] { statementType },
+                new DeadlineAwareStatement(statement, cancellation, openStatements)
+            );
+        }
+
+        private static void cancel(Statement statement) {
+            try {
+                if (!statement.isClosed()) {
+                    statement.cancel();
+                }
+            } catch (SQLException e) {
+                // Closed meanwhile, nothing left to cancel
+            }
+        }
+    }
+
+    /**
+     * A statement whose cancellation is removed from its deadline once it is closed.
+     */
+    private static final class DeadlineAwareStatement implements InvocationHandler {
+
+        private final Statement target;
+
+        private final RequestDeadline.Registration cancellation;
+
+        private final Set<RequestDeadline.Registration> openStatements;
+
+        private DeadlineAwareStatement(
+            Statement target,
+            RequestDeadline.Registration cancellation,
+            Set<RequestDeadline.Registration> openStatements
+        ) {
+            this.target = target;
+            this.cancellation = cancellation;
+            this.openStatements = openStatements;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("equals".equals(method.getName())) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(method.getName())) {
+                return System.identityHashCode(proxy);
+            }
+            if ("close".equals(method.getName())) {
+                cancellation.remove();
+                openStatements.remove(cancellation);
+            }
+            return invokeTarget(target, method, args);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.astenensino.login.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.stream.binder.kafka.config.ClientFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.MicrometerProducerListener;
+import org.springframework.kafka.core.ProducerFactory;
+
+@Configuration
+public class KafkaConfiguration {
+
+    /**
+     * Exposes the metrics of the producers of the bindings, such as {@code kafka.producer.request.latency.avg},
+     * {@code kafka.producer.batch.size.avg} and {@code kafka.producer.record.error.total}.
+     */
+    @Bean
+    public ClientFactoryCustomizer kafkaProducerMetricsCustomizer(MeterRegistry meterRegistry) {
+        return new ClientFactoryCustomizer() {
+            @Override
+            public void configure(ProducerFactory<?, ?> producerFactory) {
+                addMetrics(producerFactory, meterRegistry);
+            }
+        };
+    }
+
+    private static <K, V> void addMetrics(ProducerFactory<K, V> producerFactory, MeterRegistry meterRegistry) {
+        producerFactory.addListener(new MicrometerProducerListener<>(meterRegistry));
+    }
+}
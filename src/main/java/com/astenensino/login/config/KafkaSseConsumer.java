@@ -3,6 +3,10 @@ package com.astenensino.login.config;
 import org.springframework.cloud.stream.annotation.Input;
 import org.springframework.messaging.MessageChannel;
 
+/**
+ * The events pushed to the event streams. Each instance consumes all of them, in an anonymous consumer group, as the
+ * streams are spread over all the instances.
+ */
 public interface KafkaSseConsumer {
     String CHANNELNAME = "binding-in-sse";
 
@@ -0,0 +1,67 @@
+package com.astenensino.login.config;
+
+import com.astenensino.login.security.PasswordHashingExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Configuration
+public class PasswordHashingConfiguration {
+
+    private static final String BCRYPT = "bcrypt";
+
+    /**
+     * Hashes passwords with bcrypt, each hash being prefixed with {@code {bcrypt}} so that the algorithm can be changed
+     * later on. The passwords stored before hashing was introduced have no prefix and are compared as plain text, until
+     * they are upgraded on login.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(ApplicationProperties applicationProperties) {
+        int strength = applicationProperties.getPasswordHashing().getBcryptStrength();
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(
+            BCRYPT,
+            Map.of(BCRYPT, new BCryptPasswordEncoder(strength))
+        );
+        passwordEncoder.setDefaultPasswordEncoderForMatches(new PlainTextPasswordMatcher());
+        return passwordEncoder;
+    }
+
+    @Bean
+    public PasswordHashingExecutor passwordHashingExecutor(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.PasswordHashing properties = applicationProperties.getPasswordHashing();
+        return new PasswordHashingExecutor(properties.getPoolSize(), properties.getQueueCapacity(), meterRegistry);
+    }
+
+    /**
+     * Matches the passwords stored as plain text, in constant time. It never encodes.
+     */
+    static class PlainTextPasswordMatcher implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            throw new UnsupportedOperationException("Passwords are never stored as plain text");
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String storedPassword) {
+            if (rawPassword == null || storedPassword == null) {
+                return false;
+            }
+            return MessageDigest.isEqual(
+                rawPassword.toString().getBytes(StandardCharsets.UTF_8),
+                storedPassword.getBytes(StandardCharsets.UTF_8)
+            );
+        }
+
+        @Override
+        public boolean upgradeEncoding(String storedPassword) {
+            return true;
+        }
+    }
+}
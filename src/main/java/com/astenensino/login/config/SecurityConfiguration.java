@@ -1,16 +1,28 @@
 package com.astenensino.login.config;
 
+import com.astenensino.login.management.SecurityMetersService;
 import com.astenensino.login.security.*;
 import com.astenensino.login.security.jwt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.NegatedRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestHeaderRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.zalando.problem.spring.web.advice.security.SecurityProblemSupport;
 import tech.jhipster.config.JHipsterProperties;
 
@@ -19,23 +31,78 @@ import tech.jhipster.config.JHipsterProperties;
 @Import(SecurityProblemSupport.class)
 public class SecurityConfiguration {
 
+    private static final String[] PUBLIC_MANAGEMENT_PATHS = {
+        "/management/health",
+        "/management/health/**",
+        "/management/info",
+        "/management/prometheus",
+    };
+
+    /**
+     * Paths served by the server rather than by the client application.
+     */
+    private static final List<String> SERVER_PATHS = List.of(
+        "/api/**",
+        "/management/**",
+        "/h2-console/**",
+        "/services/**",
+        "/swagger-ui/**",
+        "/v3/api-docs/**"
+    );
+
     private final JHipsterProperties jHipsterProperties;
 
     private final TokenProvider tokenProvider;
+    private final SecurityMetersService securityMetersService;
+    private final ApiQuotas apiQuotas;
+    private final ApplicationProperties applicationProperties;
     private final SecurityProblemSupport problemSupport;
 
     public SecurityConfiguration(
         TokenProvider tokenProvider,
+        SecurityMetersService securityMetersService,
+        ApiQuotas apiQuotas,
+        ApplicationProperties applicationProperties,
         JHipsterProperties jHipsterProperties,
         SecurityProblemSupport problemSupport
     ) {
         this.tokenProvider = tokenProvider;
+        this.securityMetersService = securityMetersService;
+        this.apiQuotas = apiQuotas;
+        this.applicationProperties = applicationProperties;
         this.problemSupport = problemSupport;
         this.jHipsterProperties = jHipsterProperties;
     }
 
+    /**
+     * The public routes requested without token, such as the health probes, the Prometheus scrapes and the client
+     * application, only go through this chain: it writes the security headers, but neither looks for a token nor
+     * allocates a security context. With a token they go through the main chain, so that an admin still gets the
+     * health details.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain publicFilterChain(HttpSecurity http) throws Exception {
+        // @formatter:off
+        http
+            .requestMatcher(publicRequestsWithoutToken())
+            .csrf().disable()
+            .sessionManagement().disable()
+            .securityContext().disable()
+            .requestCache().disable()
+            .anonymous().disable()
+            .servletApi().disable()
+            .logout().disable()
+            .exceptionHandling().disable();
+        configureHeaders(http);
+        return http.build();
+        // @formatter:on
+    }
+
     @Bean
+    @Order(2)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+        configureHeaders(http);
         // @formatter:off
         http
             .csrf()
@@ -44,15 +111,6 @@ public class SecurityConfiguration {
             .exceptionHandling()
                 .authenticationEntryPoint(problemSupport)
                 .accessDeniedHandler(problemSupport)
-        .and()
-            .headers()
-                .contentSecurityPolicy(jHipsterProperties.getSecurity().getContentSecurityPolicy())
-            .and()
-                .referrerPolicy(ReferrerPolicyHeaderWriter.ReferrerPolicy.STRICT_ORIGIN_WHEN_CROSS_ORIGIN)
-            .and()
-                .permissionsPolicy().policy("camera=(), fullscreen=(self), geolocation=(), gyroscope=(), magnetometer=(), microphone=(), midi=(), payment=(), sync-xhr=()")
-            .and()
-                .frameOptions().sameOrigin()
         .and()
             .sessionManagement()
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
@@ -69,11 +127,57 @@ public class SecurityConfiguration {
             .antMatchers("/management/**").hasAuthority(AuthoritiesConstants.ADMIN)
         .and()
             .apply(securityConfigurerAdapter());
+        if (applicationProperties.getApiQuota().isEnabled()) {
+            // After the JWTFilter, which is added just before
+            http.addFilterAfter(new ApiQuotaFilter(apiQuotas), UsernamePasswordAuthenticationFilter.class);
+        }
         return http.build();
         // @formatter:on
     }
 
+    private void configureHeaders(HttpSecurity http) throws Exception {
+        // @formatter:off
+        http
+            .headers()
+                .contentSecurityPolicy(jHipsterProperties.getSecurity().getContentSecurityPolicy())
+            .and()
+                .referrerPolicy(ReferrerPolicyHeaderWriter.ReferrerPolicy.STRICT_ORIGIN_WHEN_CROSS_ORIGIN)
+            .and()
+                .permissionsPolicy().policy("camera=(), fullscreen=(self), geolocation=(), gyroscope=(), magnetometer=(), microphone=(), midi=(), payment=(), sync-xhr=()")
+            .and()
+                .frameOptions().sameOrigin();
+        // @formatter:on
+    }
+
+    /**
+     * The routes permitted to all, which the main chain would only authenticate to grant the same access.
+     */
+    static RequestMatcher publicRequestsWithoutToken() {
+        List<RequestMatcher> publicRoutes = new ArrayList<>();
+        for (String path : PUBLIC_MANAGEMENT_PATHS) {
+            publicRoutes.add(new AntPathRequestMatcher(path));
+        }
+        for (String path : StaticResourcesWebConfiguration.RESOURCE_PATHS) {
+            publicRoutes.add(new AntPathRequestMatcher(path, HttpMethod.GET.name()));
+        }
+        publicRoutes.add(new AntPathRequestMatcher("/", HttpMethod.GET.name()));
+        publicRoutes.add(new AntPathRequestMatcher("/index.html", HttpMethod.GET.name()));
+        // The routes of the client application, forwarded to its index.html by ClientForwardController
+        publicRoutes.add(
+            new AndRequestMatcher(
+                new AntPathRequestMatcher("/**/{path:[^\\.]*}", HttpMethod.GET.name()),
+                new NegatedRequestMatcher(
+                    new OrRequestMatcher(SERVER_PATHS.stream().map(AntPathRequestMatcher::new).collect(Collectors.toList()))
+                )
+            )
+        );
+        return new AndRequestMatcher(
+            new NegatedRequestMatcher(new RequestHeaderRequestMatcher(JWTFilter.AUTHORIZATION_HEADER)),
+            new OrRequestMatcher(publicRoutes)
+        );
+    }
+
     private JWTConfigurer securityConfigurerAdapter() {
-        return new JWTConfigurer(tokenProvider);
+        return new JWTConfigurer(tokenProvider, securityMetersService);
     }
 }
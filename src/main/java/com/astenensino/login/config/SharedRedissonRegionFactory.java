@@ -0,0 +1,33 @@
+package com.astenensino.login.config;
+
+import java.util.Map;
+import org.redisson.api.RedissonClient;
+import org.redisson.hibernate.RedissonRegionFactory;
+
+/**
+ * Redisson region factory for the Hibernate second-level cache using the Redisson client of the application, instead
+ * of creating its own from a separate configuration file.
+ * <p>
+ * The client lifecycle belongs to the Spring context, so it is not shut down with the session factory.
+ */
+public class SharedRedissonRegionFactory extends RedissonRegionFactory {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient RedissonClient redissonClient;
+
+    public SharedRedissonRegionFactory(RedissonClient redissonClient) {
+        this.redissonClient = redissonClient;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    protected RedissonClient createRedissonClient(Map properties) {
+        return redissonClient;
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        // The client is shut down by the Spring context
+    }
+}
@@ -0,0 +1,161 @@
+package com.astenensino.login.deadline;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The time by which the request being processed must be answered, after which its caller has given up on it.
+ * <p>
+ * A deadline is bound to the thread processing its request, from which the work waiting on other systems reads how
+ * long it may still wait, and passes it on. It can also be cancelled before it passes, when its caller is known to
+ * have gone, which runs the cancellations registered by that work.
+ */
+public final class RequestDeadline {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestDeadline.class);
+
+    /**
+     * The header of the time left to answer a request, in milliseconds. A time rather than an instant, so that it does
+     * not depend on the clocks of the caller and of the callee being in sync.
+     */
+    public static final String HEADER = "X-Request-Timeout";
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The deadline, in {@link System#nanoTime()}.
+     */
+    private final long deadline;
+
+    private volatile boolean cancelled;
+
+    /**
+     * Guarded by this, and {@code null} once cancelled.
+     */
+    private Set<Registration> cancellations = new LinkedHashSet<>();
+
+    public RequestDeadline(Duration timeout) {
+        this.deadline = System.nanoTime() + timeout.toNanos();
+    }
+
+    /**
+     * @return the deadline of the request processed by the current thread, if it has one.
+     */
+    public static Optional<RequestDeadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Binds this deadline to the current thread until the returned scope is closed.
+     */
+    public Scope bind() {
+        RequestDeadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * @return the time left before the deadline, in milliseconds, 0 once it has passed or was cancelled.
+     */
+    public long remainingMillis() {
+        if (cancelled) {
+            return 0;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    /**
+     * @return whether the deadline has passed or was cancelled, so that any further work is wasted.
+     */
+    public boolean isExceeded() {
+        return cancelled || deadline - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Runs the given cancellation if this deadline is cancelled, right away if it already is.
+     *
+     * @return the registration of the cancellation, to remove once the work it cancels is over, so that it is neither
+     * kept nor run anymore.
+     */
+    public Registration onCancel(Runnable cancellation) {
+        Registration registration = new Registration(cancellation);
+        synchronized (this) {
+            if (cancellations != null) {
+                cancellations.add(registration);
+                return registration;
+            }
+        }
+        runQuietly(cancellation);
+        return registration;
+    }
+
+    /**
+     * Cancels this deadline, running its cancellations once.
+     */
+    public void cancel() {
+        List<Registration> toRun;
+        synchronized (this) {
+            if (cancellations == null) {
+                return;
+            }
+            cancelled = true;
+            toRun = new ArrayList<>(cancellations);
+            cancellations = null;
+        }
+        toRun.forEach(registration -> runQuietly(registration.cancellation));
+    }
+
+    private synchronized void remove(Registration registration) {
+        if (cancellations != null) {
+            cancellations.remove(registration);
+        }
+    }
+
+    private static void runQuietly(Runnable cancellation) {
+        try {
+            cancellation.run();
+        } catch (RuntimeException e) {
+            log.debug("Could not cancel the work of a request: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A cancellation registered with a deadline.
+     */
+    public final class Registration {
+
+        private final Runnable cancellation;
+
+        private Registration(Runnable cancellation) {
+            this.cancellation = cancellation;
+        }
+
+        /**
+         * Removes the cancellation from its deadline, doing nothing if it was run already.
+         */
+        public void remove() {
+            RequestDeadline.this.remove(this);
+        }
+    }
+
+    /**
+     * The binding of a deadline to a thread.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
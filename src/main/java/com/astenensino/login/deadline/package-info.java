@@ -0,0 +1,4 @@
+/**
+ * The deadline of the request being processed, shared by the layers which wait on other systems.
+ */
+package com.astenensino.login.deadline;
@@ -1,14 +1,18 @@
 package com.astenensino.login.domain;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.io.Serializable;
 import javax.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A Usuarios.
  */
 @Entity
 @Table(name = "usuarios")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Usuarios implements Serializable {
 
@@ -27,9 +31,17 @@ public class Usuarios implements Serializable {
     @Column(name = "email")
     private String email;
 
+    /**
+     * The password, hashed. It is written by the clients but never returned to them.
+     */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(name = "password")
     private String password;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -71,6 +83,19 @@ public class Usuarios implements Serializable {
         this.password = password;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Usuarios version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -96,7 +121,7 @@ public class Usuarios implements Serializable {
         return "Usuarios{" +
             "id=" + getId() +
             ", email='" + getEmail() + "'" +
-            ", password='" + getPassword() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
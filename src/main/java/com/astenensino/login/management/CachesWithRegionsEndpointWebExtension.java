@@ -0,0 +1,120 @@
+package com.astenensino.login.management;
+
+import java.util.Map;
+import java.util.TreeMap;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.cache.CachesEndpoint;
+import org.springframework.boot.actuate.cache.CachesEndpointWebExtension;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.annotation.EndpointWebExtension;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the statistics of the Hibernate second-level cache regions to the {@code caches} management endpoint, next to
+ * the Spring caches.
+ */
+@Component
+@EndpointWebExtension(endpoint = CachesEndpoint.class)
+public class CachesWithRegionsEndpointWebExtension extends CachesEndpointWebExtension {
+
+    private final CachesEndpoint delegate;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CachesWithRegionsEndpointWebExtension(CachesEndpoint delegate, EntityManagerFactory entityManagerFactory) {
+        super(delegate);
+        this.delegate = delegate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @ReadOperation
+    public CachesWithRegionsReport caches() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, RegionDescriptor> regions = new TreeMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(regionName);
+            if (regionStatistics != null) {
+                regions.put(regionName, new RegionDescriptor(regionStatistics));
+            }
+        }
+        return new CachesWithRegionsReport(delegate.caches().getCacheManagers(), regions, statistics.isStatisticsEnabled());
+    }
+
+    /**
+     * The Spring caches by cache manager, and the Hibernate second-level cache regions by name.
+     */
+    public static final class CachesWithRegionsReport {
+
+        private final Map<String, CachesEndpoint.CacheManagerDescriptor> cacheManagers;
+
+        private final Map<String, RegionDescriptor> regions;
+
+        private final boolean regionStatisticsEnabled;
+
+        CachesWithRegionsReport(
+            Map<String, CachesEndpoint.CacheManagerDescriptor> cacheManagers,
+            Map<String, RegionDescriptor> regions,
+            boolean regionStatisticsEnabled
+        ) {
+            this.cacheManagers = cacheManagers;
+            this.regions = regions;
+            this.regionStatisticsEnabled = regionStatisticsEnabled;
+        }
+
+        public Map<String, CachesEndpoint.CacheManagerDescriptor> getCacheManagers() {
+            return cacheManagers;
+        }
+
+        public Map<String, RegionDescriptor> getRegions() {
+            return regions;
+        }
+
+        /**
+         * @return whether the region counters are maintained, see {@code hibernate.generate_statistics}.
+         */
+        public boolean isRegionStatisticsEnabled() {
+            return regionStatisticsEnabled;
+        }
+    }
+
+    /**
+     * The counters of a second-level cache region since the application started.
+     */
+    public static final class RegionDescriptor {
+
+        private final long hitCount;
+
+        private final long missCount;
+
+        private final long putCount;
+
+        RegionDescriptor(CacheRegionStatistics statistics) {
+            this.hitCount = statistics.getHitCount();
+            this.missCount = statistics.getMissCount();
+            this.putCount = statistics.getPutCount();
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public long getPutCount() {
+            return putCount;
+        }
+
+        /**
+         * @return the ratio of the lookups that were hits, or 0 if there was no lookup.
+         */
+        public double getHitRatio() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 0 : (double) hitCount / requests;
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.astenensino.login.management;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -13,16 +17,156 @@ public class SecurityMetersService {
     public static final String INVALID_TOKENS_METER_BASE_UNIT = "errors";
     public static final String INVALID_TOKENS_METER_CAUSE_DIMENSION = "cause";
 
+    public static final String REVOKED_TOKENS_METER_NAME = "security.authentication.revoked-tokens";
+    public static final String REVOKED_TOKENS_METER_DESCRIPTION = "Indicates the count of the revoked tokens presented by the clients.";
+    public static final String REVOKED_TOKENS_METER_BASE_UNIT = "errors";
+
+    public static final String TOKEN_CACHE_METER_NAME = "security.authentication.token-cache";
+    public static final String TOKEN_CACHE_METER_DESCRIPTION = "Indicates the count of the tokens found or not among the already verified ones.";
+    public static final String TOKEN_CACHE_METER_BASE_UNIT = "lookups";
+    public static final String TOKEN_CACHE_METER_RESULT_DIMENSION = "result";
+
+    public static final String TOKEN_VERIFICATION_METER_NAME = "security.authentication.token-verification";
+    public static final String TOKEN_VERIFICATION_METER_DESCRIPTION = "Time spent parsing the tokens and verifying their signature.";
+
+    public static final String AUTHENTICATION_LATENCY_METER_NAME = "security.authentication.latency";
+    public static final String AUTHENTICATION_LATENCY_METER_DESCRIPTION = "Time spent in each stage of the authentication of the requests.";
+    public static final String AUTHENTICATION_LATENCY_METER_STAGE_DIMENSION = "stage";
+
+    public static final String AUTHENTICATED_REQUESTS_METER_NAME = "security.authentication.requests";
+    public static final String AUTHENTICATED_REQUESTS_METER_DESCRIPTION =
+        "Indicates the count of the requests authenticated by a token, without token, or with a token which is not valid.";
+    public static final String AUTHENTICATED_REQUESTS_METER_BASE_UNIT = "requests";
+    public static final String AUTHENTICATED_REQUESTS_METER_OUTCOME_DIMENSION = "outcome";
+
+    public static final String TOKEN_TIME_TO_EXPIRY_METER_NAME = "security.authentication.token-time-to-expiry";
+    public static final String TOKEN_TIME_TO_EXPIRY_METER_DESCRIPTION = "Time left before the valid tokens presented by the clients expire.";
+    public static final String TOKEN_TIME_TO_EXPIRY_METER_BASE_UNIT = "seconds";
+
+    public static final String LOGIN_THROTTLED_METER_NAME = "security.authentication.login-throttled";
+    public static final String LOGIN_THROTTLED_METER_DESCRIPTION = "Indicates the count of the login attempts rejected for exceeding a limit.";
+    public static final String LOGIN_THROTTLED_METER_BASE_UNIT = "attempts";
+    public static final String LOGIN_THROTTLED_METER_LIMIT_DIMENSION = "limit";
+
+    public static final String API_QUOTA_EXCEEDED_METER_NAME = "security.api-quota.exceeded";
+    public static final String API_QUOTA_EXCEEDED_METER_DESCRIPTION = "Indicates the count of the requests rejected for exceeding the quota of their principal, by the limit that applied.";
+    public static final String API_QUOTA_EXCEEDED_METER_BASE_UNIT = "requests";
+    public static final String API_QUOTA_EXCEEDED_METER_TIER_DIMENSION = "tier";
+
+    /**
+     * Bounds of the latency histograms: a cached token is resolved in microseconds, and a stage taking a second is
+     * already an incident.
+     */
+    private static final Duration LATENCY_MINIMUM_EXPECTED_VALUE = Duration.ofNanos(1_000);
+    private static final Duration LATENCY_MAXIMUM_EXPECTED_VALUE = Duration.ofSeconds(1);
+
+    /**
+     * Upper bound of the time to expiry histogram, longer than the remember-me tokens are valid.
+     */
+    private static final double TIME_TO_EXPIRY_MAXIMUM_EXPECTED_SECONDS = Duration.ofDays(31).toSeconds();
+
+    private final MeterRegistry registry;
+
     private final Counter tokenInvalidSignatureCounter;
     private final Counter tokenExpiredCounter;
     private final Counter tokenUnsupportedCounter;
     private final Counter tokenMalformedCounter;
 
+    private final Counter tokenRevokedCounter;
+
+    private final Counter tokenCacheHitCounter;
+    private final Counter tokenCacheMissCounter;
+
+    private final Timer tokenVerificationTimer;
+
+    private final Timer filterTimer;
+    private final Timer tokenValidationTimer;
+    private final Timer tokenAuthenticationTimer;
+    private final Timer tokenCreationTimer;
+
+    private final Counter authenticatedRequestsCounter;
+    private final Counter anonymousRequestsCounter;
+    private final Counter rejectedRequestsCounter;
+
+    private final DistributionSummary tokenTimeToExpirySummary;
+
+    private final Counter loginThrottledByEmailCounter;
+    private final Counter loginThrottledByClientAddressCounter;
+
+    private final Counter apiQuotaExceededByPrincipalLimitCounter;
+    private final Counter apiQuotaExceededByAuthorityLimitCounter;
+    private final Counter apiQuotaExceededByDefaultLimitCounter;
+
     public SecurityMetersService(MeterRegistry registry) {
+        this.registry = registry;
+
         this.tokenInvalidSignatureCounter = invalidTokensCounterForCauseBuilder("invalid-signature").register(registry);
         this.tokenExpiredCounter = invalidTokensCounterForCauseBuilder("expired").register(registry);
         this.tokenUnsupportedCounter = invalidTokensCounterForCauseBuilder("unsupported").register(registry);
         this.tokenMalformedCounter = invalidTokensCounterForCauseBuilder("malformed").register(registry);
+
+        this.tokenRevokedCounter =
+            Counter
+                .builder(REVOKED_TOKENS_METER_NAME)
+                .baseUnit(REVOKED_TOKENS_METER_BASE_UNIT)
+                .description(REVOKED_TOKENS_METER_DESCRIPTION)
+                .register(registry);
+
+        this.tokenCacheHitCounter = tokenCacheCounterForResultBuilder("hit").register(registry);
+        this.tokenCacheMissCounter = tokenCacheCounterForResultBuilder("miss").register(registry);
+
+        this.tokenVerificationTimer =
+            boundedHistogram(Timer.builder(TOKEN_VERIFICATION_METER_NAME).description(TOKEN_VERIFICATION_METER_DESCRIPTION)).register(registry);
+
+        this.filterTimer = authenticationLatencyTimerForStageBuilder("filter").register(registry);
+        this.tokenValidationTimer = authenticationLatencyTimerForStageBuilder("validation").register(registry);
+        this.tokenAuthenticationTimer = authenticationLatencyTimerForStageBuilder("authentication").register(registry);
+        this.tokenCreationTimer = authenticationLatencyTimerForStageBuilder("creation").register(registry);
+
+        this.authenticatedRequestsCounter = authenticatedRequestsCounterForOutcomeBuilder("authenticated").register(registry);
+        this.anonymousRequestsCounter = authenticatedRequestsCounterForOutcomeBuilder("anonymous").register(registry);
+        this.rejectedRequestsCounter = authenticatedRequestsCounterForOutcomeBuilder("rejected").register(registry);
+
+        this.tokenTimeToExpirySummary =
+            DistributionSummary
+                .builder(TOKEN_TIME_TO_EXPIRY_METER_NAME)
+                .baseUnit(TOKEN_TIME_TO_EXPIRY_METER_BASE_UNIT)
+                .description(TOKEN_TIME_TO_EXPIRY_METER_DESCRIPTION)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(TIME_TO_EXPIRY_MAXIMUM_EXPECTED_SECONDS)
+                .register(registry);
+
+        this.loginThrottledByEmailCounter = loginThrottledCounterForLimitBuilder("email").register(registry);
+        this.loginThrottledByClientAddressCounter = loginThrottledCounterForLimitBuilder("client-address").register(registry);
+
+        this.apiQuotaExceededByPrincipalLimitCounter = apiQuotaExceededCounterForTierBuilder("principal").register(registry);
+        this.apiQuotaExceededByAuthorityLimitCounter = apiQuotaExceededCounterForTierBuilder("authority").register(registry);
+        this.apiQuotaExceededByDefaultLimitCounter = apiQuotaExceededCounterForTierBuilder("default").register(registry);
+    }
+
+    private static Timer.Builder boundedHistogram(Timer.Builder builder) {
+        return builder
+            .publishPercentileHistogram()
+            .minimumExpectedValue(LATENCY_MINIMUM_EXPECTED_VALUE)
+            .maximumExpectedValue(LATENCY_MAXIMUM_EXPECTED_VALUE);
+    }
+
+    private Timer.Builder authenticationLatencyTimerForStageBuilder(String stage) {
+        return boundedHistogram(
+            Timer
+                .builder(AUTHENTICATION_LATENCY_METER_NAME)
+                .description(AUTHENTICATION_LATENCY_METER_DESCRIPTION)
+                .tag(AUTHENTICATION_LATENCY_METER_STAGE_DIMENSION, stage)
+        );
+    }
+
+    private Counter.Builder authenticatedRequestsCounterForOutcomeBuilder(String outcome) {
+        return Counter
+            .builder(AUTHENTICATED_REQUESTS_METER_NAME)
+            .baseUnit(AUTHENTICATED_REQUESTS_METER_BASE_UNIT)
+            .description(AUTHENTICATED_REQUESTS_METER_DESCRIPTION)
+            .tag(AUTHENTICATED_REQUESTS_METER_OUTCOME_DIMENSION, outcome);
     }
 
     private Counter.Builder invalidTokensCounterForCauseBuilder(String cause) {
@@ -33,6 +177,33 @@ public class SecurityMetersService {
             .tag(INVALID_TOKENS_METER_CAUSE_DIMENSION, cause);
     }
 
+    private Counter.Builder tokenCacheCounterForResultBuilder(String result) {
+        return Counter
+            .builder(TOKEN_CACHE_METER_NAME)
+            .baseUnit(TOKEN_CACHE_METER_BASE_UNIT)
+            .description(TOKEN_CACHE_METER_DESCRIPTION)
+            .tag(TOKEN_CACHE_METER_RESULT_DIMENSION, result);
+    }
+
+    private Counter.Builder loginThrottledCounterForLimitBuilder(String limit) {
+        return Counter
+            .builder(LOGIN_THROTTLED_METER_NAME)
+            .baseUnit(LOGIN_THROTTLED_METER_BASE_UNIT)
+            .description(LOGIN_THROTTLED_METER_DESCRIPTION)
+            .tag(LOGIN_THROTTLED_METER_LIMIT_DIMENSION, limit);
+    }
+
+    /**
+     * The principals are not a dimension: there would be one counter per principal ever rejected.
+     */
+    private Counter.Builder apiQuotaExceededCounterForTierBuilder(String tier) {
+        return Counter
+            .builder(API_QUOTA_EXCEEDED_METER_NAME)
+            .baseUnit(API_QUOTA_EXCEEDED_METER_BASE_UNIT)
+            .description(API_QUOTA_EXCEEDED_METER_DESCRIPTION)
+            .tag(API_QUOTA_EXCEEDED_METER_TIER_DIMENSION, tier);
+    }
+
     public void trackTokenInvalidSignature() {
         this.tokenInvalidSignatureCounter.increment();
     }
@@ -48,4 +219,75 @@ public class SecurityMetersService {
     public void trackTokenMalformed() {
         this.tokenMalformedCounter.increment();
     }
+
+    public void trackTokenRevoked() {
+        this.tokenRevokedCounter.increment();
+    }
+
+    public void trackTokenCacheHit() {
+        this.tokenCacheHitCounter.increment();
+    }
+
+    public void trackTokenCacheMiss() {
+        this.tokenCacheMissCounter.increment();
+    }
+
+    public void recordTokenVerification(long durationNanos) {
+        this.tokenVerificationTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the time the JWT filter spent authenticating a request, the rest of the filter chain excluded.
+     */
+    public void recordFilter(long durationNanos) {
+        this.filterTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordTokenValidation(long durationNanos) {
+        this.tokenValidationTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordTokenAuthentication(long durationNanos) {
+        this.tokenAuthenticationTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordTokenCreation(long durationNanos) {
+        this.tokenCreationTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void trackRequestAuthenticated() {
+        this.authenticatedRequestsCounter.increment();
+    }
+
+    public void trackRequestAnonymous() {
+        this.anonymousRequestsCounter.increment();
+    }
+
+    public void trackRequestRejected() {
+        this.rejectedRequestsCounter.increment();
+    }
+
+    public void recordTokenTimeToExpiry(long timeToExpiryMillis) {
+        this.tokenTimeToExpirySummary.record(timeToExpiryMillis / 1000.0);
+    }
+
+    public void trackLoginThrottledByEmail() {
+        this.loginThrottledByEmailCounter.increment();
+    }
+
+    public void trackLoginThrottledByClientAddress() {
+        this.loginThrottledByClientAddressCounter.increment();
+    }
+
+    public void trackApiQuotaExceededByPrincipalLimit() {
+        this.apiQuotaExceededByPrincipalLimitCounter.increment();
+    }
+
+    public void trackApiQuotaExceededByAuthorityLimit() {
+        this.apiQuotaExceededByAuthorityLimitCounter.increment();
+    }
+
+    public void trackApiQuotaExceededByDefaultLimit() {
+        this.apiQuotaExceededByDefaultLimitCounter.increment();
+    }
 }
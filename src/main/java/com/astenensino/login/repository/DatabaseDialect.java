@@ -0,0 +1,40 @@
+package com.astenensino.login.repository;
+
+import java.sql.DatabaseMetaData;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+/**
+ * The database the repositories run on, for the native queries written for each supported one.
+ * <p>
+ * The database is read once from the data source, when the application starts.
+ */
+@Component
+public class DatabaseDialect {
+
+    static final String POSTGRESQL = "PostgreSQL";
+
+    static final String H2 = "H2";
+
+    private final String databaseProductName;
+
+    @Autowired
+    public DatabaseDialect(DataSource dataSource) throws MetaDataAccessException {
+        this(JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+    }
+
+    DatabaseDialect(String databaseProductName) {
+        this.databaseProductName = databaseProductName;
+    }
+
+    public boolean isPostgreSQL() {
+        return POSTGRESQL.equals(databaseProductName);
+    }
+
+    public boolean isH2() {
+        return H2.equals(databaseProductName);
+    }
+}
@@ -0,0 +1,97 @@
+package com.astenensino.login.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Position of a row inside a keyset (seek) ordered result, over a sort property and the {@code id} tie-breaker.
+ * <p>
+ * Cursors are exchanged with clients as opaque, URL-safe tokens, see {@link #encode()} and {@link #decode(String)}.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private final String property;
+
+    private final Long id;
+
+    private final String value;
+
+    public KeysetCursor(String property, Long id, String value) {
+        this.property = Objects.requireNonNull(property, "property");
+        this.id = Objects.requireNonNull(id, "id");
+        this.value = value;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return the value of the sort property of the row, or {@code null} when sorting on {@code id} only or when the row
+     * has no value.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    public String encode() {
+        // A missing value has no separator, so that it is not taken for an empty one
+        String raw = property + SEPARATOR + id + (value == null ? "" : SEPARATOR + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @param token the opaque token.
+     * @return the cursor.
+     * @throws IllegalArgumentException if the token is not a valid cursor.
+     */
+    public static KeysetCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        // The value is last so that it may itself contain the separator
+        String[] parts = raw.split(SEPARATOR, 3);
+        if (parts.length < 2 || parts[0].isEmpty()) {
+            throw new IllegalArgumentException("Malformed keyset cursor");
+        }
+        try {
+            return new KeysetCursor(parts[0], Long.valueOf(parts[1]), parts.length == 3 ? parts[2] : null);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed keyset cursor", e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof KeysetCursor)) {
+            return false;
+        }
+        KeysetCursor that = (KeysetCursor) o;
+        return property.equals(that.property) && id.equals(that.id) && Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(property, id, value);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "KeysetCursor{" +
+            "property='" + property + "'" +
+            ", id=" + id +
+            ", value='" + value + "'" +
+            "}";
+    }
+}
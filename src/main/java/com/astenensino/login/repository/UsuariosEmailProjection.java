@@ -0,0 +1,58 @@
+package com.astenensino.login.repository;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * The id and email of a {@link com.astenensino.login.domain.Usuarios}, both covered by the index on the email.
+ * <p>
+ * It is a class rather than an interface projection so that it can be stored in the
+ * {@link UsuariosRepository#USUARIOS_BY_EMAIL_CACHE} cache.
+ */
+public final class UsuariosEmailProjection implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    private final String email;
+
+    public UsuariosEmailProjection(Long id, String email) {
+        this.id = id;
+        this.email = email;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UsuariosEmailProjection)) {
+            return false;
+        }
+        UsuariosEmailProjection that = (UsuariosEmailProjection) o;
+        return Objects.equals(id, that.id) && Objects.equals(email, that.email);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, email);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UsuariosEmailProjection{" +
+            "id=" + id +
+            ", email='" + email + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,127 @@
+package com.astenensino.login.repository;
+
+import com.astenensino.login.domain.Usuarios;
+import com.fasterxml.jackson.annotation.JsonValue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+
+/**
+ * The requested fields of a {@link Usuarios}, read from the columns of these fields only.
+ * <p>
+ * It serializes as a JSON object holding only the requested fields, in the requested order. The row may hold more
+ * columns than requested, such as the keys a cursor is built on, which are not serialized.
+ */
+public final class UsuariosFieldset {
+
+    /**
+     * Fields a sparse fieldset can be made of. The password is never exposed through a fieldset.
+     */
+    public static final List<String> FIELDS = List.of("id", "email", "version");
+
+    private final Map<String, Object> row;
+
+    private final Map<String, Object> values;
+
+    UsuariosFieldset(Map<String, Object> row, Collection<String> fields) {
+        this.row = row;
+        Map<String, Object> requested = new LinkedHashMap<>();
+        fields.forEach(field -> requested.put(field, row.get(field)));
+        this.values = Collections.unmodifiableMap(requested);
+    }
+
+    /**
+     * Parses a comma-separated list of fields, such as {@code id,email}.
+     *
+     * @return the fields, without duplicates and in the given order.
+     * @throws IllegalArgumentException if the list is empty or holds a field not in {@link #FIELDS}.
+     */
+    public static List<String> parseFields(String fields) {
+        Set<String> parsed = new LinkedHashSet<>();
+        for (String field : fields.split(",", -1)) {
+            String trimmed = field.trim();
+            if (!FIELDS.contains(trimmed)) {
+                throw new IllegalArgumentException("Fields must be a comma-separated list of " + FIELDS);
+            }
+            parsed.add(trimmed);
+        }
+        return List.copyOf(parsed);
+    }
+
+    /**
+     * Selects the columns of the given fields, aliased with the field names.
+     */
+    static List<Selection<?>> selections(Root<Usuarios> root, Collection<String> fields) {
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        fields.forEach(field -> selections.add(root.get(field).alias(field)));
+        return selections;
+    }
+
+    /**
+     * Builds the fieldset from a row read with {@link #selections(Root, Collection)}.
+     */
+    static UsuariosFieldset of(Tuple tuple, Collection<String> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        tuple.getElements().forEach(element -> row.put(element.getAlias(), tuple.get(element)));
+        return new UsuariosFieldset(row, fields);
+    }
+
+    /**
+     * @return the requested fields by name.
+     */
+    @JsonValue
+    public Map<String, Object> getValues() {
+        return values;
+    }
+
+    /**
+     * @return the id of the row, if it was read.
+     */
+    public Long getId() {
+        return (Long) row.get("id");
+    }
+
+    /**
+     * @return the email of the row, if it was read.
+     */
+    public String getEmail() {
+        return (String) row.get("email");
+    }
+
+    /**
+     * @return the version of the row, if it was read.
+     */
+    public Long getVersion() {
+        return (Long) row.get("version");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UsuariosFieldset)) {
+            return false;
+        }
+        return Objects.equals(values, ((UsuariosFieldset) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return values.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "UsuariosFieldset" + values;
+    }
+}
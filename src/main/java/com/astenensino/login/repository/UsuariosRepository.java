@@ -1,12 +1,110 @@
 package com.astenensino.login.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 import com.astenensino.login.domain.Usuarios;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Spring Data JPA repository for the Usuarios entity.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface UsuariosRepository extends JpaRepository<Usuarios, Long> {}
+public interface UsuariosRepository
+    extends
+        UsuariosRepositoryWithKeysetPagination,
+        UsuariosRepositoryWithBulkUpsert,
+        UsuariosRepositoryWithSingleStatementWrites,
+        UsuariosRepositoryWithSparseFieldsets,
+        JpaRepository<Usuarios, Long> {
+    String USUARIOS_BY_ID_CACHE = "usuariosById";
+
+    String USUARIOS_BY_EMAIL_CACHE = "usuariosByEmail";
+
+    /**
+     * Number of rows the JDBC driver fetches per round trip when streaming.
+     */
+    String STREAM_FETCH_SIZE = "500";
+
+    /**
+     * Streams all the usuarios through a server-side cursor. It must be consumed inside a transaction and closed.
+     */
+    @QueryHints(
+        {
+            @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false"),
+        }
+    )
+    @Query("select usuarios from Usuarios usuarios order by usuarios.id")
+    Stream<Usuarios> streamAllByOrderById();
+
+    /**
+     * Finds the usuarios with the given id in the database, without going through the second-level cache: the lookups
+     * by id are cached by {@link #USUARIOS_BY_ID_CACHE}, so that a usuarios is not cached twice.
+     */
+    @QueryHints(@QueryHint(name = HINT_CACHE_MODE, value = "IGNORE"))
+    @Query("select usuarios from Usuarios usuarios where usuarios.id = :id")
+    Optional<Usuarios> findOneById(@Param("id") Long id);
+
+    /**
+     * Finds the usuarios whose email is one of the given ones, ignoring case.
+     *
+     * @param lowerCaseEmails the emails, in lower case.
+     */
+    @Query("select usuarios from Usuarios usuarios where lower(usuarios.email) in :emails")
+    List<Usuarios> findAllByLowerCaseEmailIn(@Param("emails") Collection<String> lowerCaseEmails);
+
+    /**
+     * Finds the usuarios with the given email, ignoring case, through the unique index on {@code lower(email)}.
+     */
+    @Query("select usuarios from Usuarios usuarios where lower(usuarios.email) = lower(:email)")
+    Optional<Usuarios> findByEmail(@Param("email") String email);
+
+    /**
+     * Finds the id and email of the usuarios with the given email, ignoring case. Only the columns covered by the unique
+     * index on {@code lower(email)} are read, so that PostgreSQL answers with an index-only scan.
+     */
+    @Query(
+        "select new com.astenensino.login.repository.UsuariosEmailProjection(usuarios.id, usuarios.email) from Usuarios usuarios where lower(usuarios.email) = lower(:email)"
+    )
+    Optional<UsuariosEmailProjection> findProjectionByEmail(@Param("email") String email);
+
+    /**
+     * Tells whether a usuarios with the given email exists, ignoring case.
+     */
+    @Query(
+        "select case when count(usuarios) > 0 then true else false end from Usuarios usuarios where lower(usuarios.email) = lower(:email)"
+    )
+    boolean existsByEmail(@Param("email") String email);
+
+    /**
+     * Finds the version of the usuarios with the given id, without loading the entity, through the primary key index.
+     */
+    @Query("select usuarios.version from Usuarios usuarios where usuarios.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Replaces the password of the usuarios with the given id, unless it was changed since it was read. The version is
+     * incremented, and the usuarios is evicted from the second-level cache.
+     *
+     * @return the number of usuarios updated, 0 or 1.
+     */
+    @Transactional
+    @Modifying
+    @Query(
+        "update versioned Usuarios usuarios set usuarios.password = :newPassword where usuarios.id = :id and usuarios.password = :oldPassword"
+    )
+    int updatePassword(@Param("id") Long id, @Param("oldPassword") String oldPassword, @Param("newPassword") String newPassword);
+}
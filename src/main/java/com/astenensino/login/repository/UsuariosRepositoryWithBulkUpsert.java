@@ -0,0 +1,24 @@
+package com.astenensino.login.repository;
+
+import com.astenensino.login.domain.Usuarios;
+import java.util.List;
+
+/**
+ * Set-based upsert of Usuarios on their email, for the databases that support it natively.
+ */
+public interface UsuariosRepositoryWithBulkUpsert {
+    /**
+     * @return whether {@link #upsertAllByEmail(List)} can be used with the current database.
+     */
+    boolean supportsBulkUpsert();
+
+    /**
+     * Inserts the given usuarios, or updates the password of the existing ones with the same email ignoring case, in a single
+     * multi-row statement. The ids are allocated from the pooled {@code sequence_generator} and set on the given entities,
+     * which are not attached to the persistence context.
+     *
+     * @param usuarios the usuarios, with non-null emails distinct ignoring case.
+     * @return for each given usuarios, in order, {@code true} if it was inserted and {@code false} if it was updated.
+     */
+    List<Boolean> upsertAllByEmail(List<Usuarios> usuarios);
+}
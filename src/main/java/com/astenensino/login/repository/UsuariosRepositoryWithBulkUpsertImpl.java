@@ -0,0 +1,110 @@
+package com.astenensino.login.repository;
+
+import com.astenensino.login.domain.Usuarios;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+public class UsuariosRepositoryWithBulkUpsertImpl implements UsuariosRepositoryWithBulkUpsert {
+
+    /**
+     * Increment of {@code sequence_generator}, each value reserving the ids of the block it ends, as the pooled
+     * optimizer used by Hibernate does.
+     */
+    private static final int SEQUENCE_INCREMENT = 50;
+
+    private static final String ALLOCATE_IDS_QUERY = "select nextval('sequence_generator') from generate_series(1, ?)";
+
+    private static final String UPSERT_QUERY_PREFIX = "insert into usuarios (id, email, password) values ";
+
+    /**
+     * The conflict target is the expression of the unique index {@code ux_usuarios__lower_email}.
+     */
+    private static final String UPSERT_QUERY_SUFFIX =
+        " on conflict ((lower(email))) do update set password = excluded.password, version = usuarios.version + 1" +
+        " returning id, email, (xmax = 0) as inserted";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final DatabaseDialect databaseDialect;
+
+    public UsuariosRepositoryWithBulkUpsertImpl(DatabaseDialect databaseDialect) {
+        this.databaseDialect = databaseDialect;
+    }
+
+    @Override
+    public boolean supportsBulkUpsert() {
+        return databaseDialect.isPostgreSQL();
+    }
+
+    @Override
+    public List<Boolean> upsertAllByEmail(List<Usuarios> usuarios) {
+        if (usuarios.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return entityManager
+            .unwrap(Session.class)
+            .doReturningWork(connection -> {
+                Deque<Long> ids = new ArrayDeque<>(usuarios.size());
+                try (PreparedStatement statement = connection.prepareStatement(ALLOCATE_IDS_QUERY)) {
+                    statement.setInt(1, (usuarios.size() + SEQUENCE_INCREMENT - 1) / SEQUENCE_INCREMENT);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            long last = resultSet.getLong(1);
+                            for (long id = last - SEQUENCE_INCREMENT + 1; id <= last; id++) {
+                                ids.add(id);
+                            }
+                        }
+                    }
+                }
+
+                StringBuilder sql = new StringBuilder(UPSERT_QUERY_PREFIX);
+                for (int i = 0; i < usuarios.size(); i++) {
+                    sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+                }
+                sql.append(UPSERT_QUERY_SUFFIX);
+
+                Map<String, Boolean> insertedByEmail = new HashMap<>();
+                Map<String, Long> idByEmail = new HashMap<>();
+                try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+                    int parameter = 1;
+                    for (Usuarios item : usuarios) {
+                        statement.setLong(parameter++, ids.poll());
+                        statement.setString(parameter++, item.getEmail());
+                        if (item.getPassword() == null) {
+                            statement.setNull(parameter++, Types.VARCHAR);
+                        } else {
+                            statement.setString(parameter++, item.getPassword());
+                        }
+                    }
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            // An updated row keeps its email, which may differ in case from the given one
+                            String email = resultSet.getString(2).toLowerCase(Locale.ROOT);
+                            idByEmail.put(email, resultSet.getLong(1));
+                            insertedByEmail.put(email, resultSet.getBoolean(3));
+                        }
+                    }
+                }
+
+                List<Boolean> inserted = new ArrayList<>(usuarios.size());
+                for (Usuarios item : usuarios) {
+                    String email = item.getEmail().toLowerCase(Locale.ROOT);
+                    item.setId(idByEmail.get(email));
+                    inserted.add(insertedByEmail.get(email));
+                }
+                return inserted;
+            });
+    }
+}
@@ -0,0 +1,72 @@
+package com.astenensino.login.repository;
+
+import com.astenensino.login.domain.Usuarios;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Keyset (seek) pagination over the Usuarios entity: pages are located from the last seen row instead of an OFFSET,
+ * and no COUNT query is ever issued.
+ */
+public interface UsuariosRepositoryWithKeysetPagination {
+    /**
+     * Properties a keyset page can be sorted on. The emails are compared ignoring case, and the usuarios without email
+     * come last in ascending order, ordered by {@code id}.
+     */
+    Set<String> KEYSET_SORT_PROPERTIES = Set.of("id", "email");
+
+    /**
+     * Fetches the rows following (or preceding) the given cursor.
+     *
+     * @param cursor the position to seek from, or {@code null} to start from the first row.
+     * @param backward {@code true} to fetch the rows preceding the cursor, the content being still in {@code sort} order.
+     * @param sort the order, on at most one property of {@link #KEYSET_SORT_PROPERTIES}.
+     * @param size the maximum number of rows to return.
+     * @return the rows, where {@link Slice#hasNext()} tells whether more rows exist in the direction of the seek.
+     */
+    Slice<Usuarios> findAllByKeyset(KeysetCursor cursor, boolean backward, Sort sort, int size);
+
+    /**
+     * Same as {@link #findAllByKeyset(KeysetCursor, boolean, Sort, int)}, reading only the given fields and the keys of
+     * the cursors.
+     *
+     * @param fields the fields to read, among {@link UsuariosFieldset#FIELDS}.
+     */
+    Slice<UsuariosFieldset> findFieldsetsByKeyset(List<String> fields, KeysetCursor cursor, boolean backward, Sort sort, int size);
+
+    /**
+     * Builds the cursor positioned on the given row, for the given order.
+     */
+    KeysetCursor cursorOf(Usuarios usuarios, Sort sort);
+
+    /**
+     * Builds the cursor positioned on the given row, read by {@link #findFieldsetsByKeyset}, for the given order.
+     */
+    KeysetCursor cursorOf(UsuariosFieldset fieldset, Sort sort);
+
+    /**
+     * Gives the approximate number of rows from the database statistics, without scanning the table.
+     *
+     * @return the estimate, or empty if the database does not provide one.
+     */
+    Optional<Long> estimateCount();
+
+    /**
+     * Resolves the order a keyset page is sorted on, defaulting to {@code id} ascending.
+     *
+     * @throws IllegalArgumentException if the sort is not supported by keyset pagination.
+     */
+    static Sort.Order keysetOrder(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.isEmpty()) {
+            return Sort.Order.asc("id");
+        }
+        if (orders.size() > 1 || !KEYSET_SORT_PROPERTIES.contains(orders.get(0).getProperty())) {
+            throw new IllegalArgumentException("Keyset pagination supports a single sort on " + KEYSET_SORT_PROPERTIES);
+        }
+        return orders.get(0);
+    }
+}
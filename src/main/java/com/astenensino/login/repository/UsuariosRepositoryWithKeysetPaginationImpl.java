@@ -0,0 +1,170 @@
+package com.astenensino.login.repository;
+
+import com.astenensino.login.domain.Usuarios;
+import com.astenensino.login.domain.Usuarios_;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+public class UsuariosRepositoryWithKeysetPaginationImpl implements UsuariosRepositoryWithKeysetPagination {
+
+    private static final String POSTGRESQL_ESTIMATE_QUERY =
+        "select cast(reltuples as bigint) from pg_class where oid = to_regclass('usuarios')";
+
+    private static final String H2_ESTIMATE_QUERY =
+        "select row_count_estimate from information_schema.tables where lower(table_name) = 'usuarios'";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final DatabaseDialect databaseDialect;
+
+    public UsuariosRepositoryWithKeysetPaginationImpl(DatabaseDialect databaseDialect) {
+        this.databaseDialect = databaseDialect;
+    }
+
+    @Override
+    public Slice<Usuarios> findAllByKeyset(KeysetCursor cursor, boolean backward, Sort sort, int size) {
+        CriteriaQuery<Usuarios> query = entityManager.getCriteriaBuilder().createQuery(Usuarios.class);
+        Root<Usuarios> root = query.from(Usuarios.class);
+        query.select(root);
+        return seek(query, root, cursor, backward, sort, size);
+    }
+
+    @Override
+    public Slice<UsuariosFieldset> findFieldsetsByKeyset(List<String> fields, KeysetCursor cursor, boolean backward, Sort sort, int size) {
+        Sort.Order order = UsuariosRepositoryWithKeysetPagination.keysetOrder(sort);
+        // The keys of the cursors are read along with the requested fields
+        Set<String> columns = new LinkedHashSet<>(fields);
+        columns.add("id");
+        columns.add(order.getProperty());
+
+        CriteriaQuery<Tuple> query = entityManager.getCriteriaBuilder().createTupleQuery();
+        Root<Usuarios> root = query.from(Usuarios.class);
+        query.multiselect(UsuariosFieldset.selections(root, columns));
+        return seek(query, root, cursor, backward, sort, size).map(tuple -> UsuariosFieldset.of(tuple, fields));
+    }
+
+    private <T> Slice<T> seek(CriteriaQuery<T> query, Root<Usuarios> root, KeysetCursor cursor, boolean backward, Sort sort, int size) {
+        Sort.Order order = UsuariosRepositoryWithKeysetPagination.keysetOrder(sort);
+        boolean ascending = order.isAscending() != backward;
+        if (cursor != null && !order.getProperty().equals(cursor.getProperty())) {
+            throw new IllegalArgumentException("The cursor does not match the requested sort");
+        }
+
+        // One extra row tells whether there is a following slice, without counting
+        List<T> content = "email".equals(order.getProperty())
+            ? seekByEmail(query, root, cursor, ascending, size + 1)
+            : seekById(query, root, cursor == null ? null : cursor.getId(), ascending, size + 1);
+        boolean hasMore = content.size() > size;
+        if (hasMore) {
+            content = content.subList(0, size);
+        }
+        if (backward) {
+            Collections.reverse(content);
+        }
+        return new SliceImpl<>(content, PageRequest.of(0, size, Sort.by(order)), hasMore);
+    }
+
+    private <T> List<T> seekById(CriteriaQuery<T> query, Root<Usuarios> root, Long afterId, boolean ascending, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        Path<Long> id = root.get(Usuarios_.id);
+        query.where(afterId == null ? cb.conjunction() : after(cb, id, afterId, ascending));
+        query.orderBy(ascending ? cb.asc(id) : cb.desc(id));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Seeks on {@code lower(email)}, the expression of the unique index on the email, so that a page is a range scan
+     * of that index. The emails being unique ignoring case, {@code lower(email)} alone orders the usuarios having one.
+     * The usuarios without email come after them in ascending order, as in the index, and are ordered by id: each of
+     * the two groups is sought by its own query.
+     */
+    private <T> List<T> seekByEmail(CriteriaQuery<T> query, Root<Usuarios> root, KeysetCursor cursor, boolean ascending, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        Expression<String> key = cb.lower(root.get(Usuarios_.email));
+        boolean withoutEmail = cursor != null && cursor.getValue() == null;
+        Predicate withEmailAfter = cursor == null || withoutEmail
+            ? cb.isNotNull(key)
+            : after(cb, key, cb.lower(cb.literal(cursor.getValue())), ascending);
+        List<T> content = new ArrayList<>(limit);
+        if (ascending && !withoutEmail) {
+            query.where(withEmailAfter);
+            query.orderBy(cb.asc(key));
+            content.addAll(entityManager.createQuery(query).setMaxResults(limit).getResultList());
+        }
+        if (content.size() < limit && (ascending || cursor == null || withoutEmail)) {
+            Path<Long> id = root.get(Usuarios_.id);
+            query.where(cb.isNull(key), withoutEmail ? after(cb, id, cursor.getId(), ascending) : cb.conjunction());
+            query.orderBy(ascending ? cb.asc(id) : cb.desc(id));
+            content.addAll(entityManager.createQuery(query).setMaxResults(limit - content.size()).getResultList());
+        }
+        if (content.size() < limit && !ascending) {
+            query.where(withEmailAfter);
+            query.orderBy(cb.desc(key));
+            content.addAll(entityManager.createQuery(query).setMaxResults(limit - content.size()).getResultList());
+        }
+        return content;
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate after(
+        CriteriaBuilder cb,
+        Expression<? extends Y> key,
+        Expression<? extends Y> value,
+        boolean ascending
+    ) {
+        return ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate after(
+        CriteriaBuilder cb,
+        Expression<? extends Y> key,
+        Y value,
+        boolean ascending
+    ) {
+        return ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+    }
+
+    @Override
+    public KeysetCursor cursorOf(Usuarios usuarios, Sort sort) {
+        Sort.Order order = UsuariosRepositoryWithKeysetPagination.keysetOrder(sort);
+        return new KeysetCursor(order.getProperty(), usuarios.getId(), "email".equals(order.getProperty()) ? usuarios.getEmail() : null);
+    }
+
+    @Override
+    public KeysetCursor cursorOf(UsuariosFieldset fieldset, Sort sort) {
+        Sort.Order order = UsuariosRepositoryWithKeysetPagination.keysetOrder(sort);
+        return new KeysetCursor(order.getProperty(), fieldset.getId(), "email".equals(order.getProperty()) ? fieldset.getEmail() : null);
+    }
+
+    @Override
+    public Optional<Long> estimateCount() {
+        String sql;
+        if (databaseDialect.isPostgreSQL()) {
+            sql = POSTGRESQL_ESTIMATE_QUERY;
+        } else if (databaseDialect.isH2()) {
+            sql = H2_ESTIMATE_QUERY;
+        } else {
+            return Optional.empty();
+        }
+        List<?> result = entityManager.createNativeQuery(sql).getResultList();
+        // PostgreSQL reports -1 for a table that has never been vacuumed or analyzed
+        return result.stream().findFirst().map(value -> ((Number) value).longValue()).filter(estimate -> estimate >= 0);
+    }
+}
@@ -0,0 +1,45 @@
+package com.astenensino.login.repository;
+
+import com.astenensino.login.domain.Usuarios;
+import java.util.Collection;
+import java.util.Optional;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes of a single usuarios each issued as one SQL statement, without loading the row first.
+ * <p>
+ * The statements return the row as it was before the write, which tells whether it was written and gives the previous
+ * email to evict from the caches. They bypass the persistence context: a managed copy of the row is detached, and the
+ * row is evicted from the second-level cache. Updates increment the version of the row.
+ * <p>
+ * Each write joins the transaction of its caller, or runs in one of its own.
+ */
+@Transactional
+public interface UsuariosRepositoryWithSingleStatementWrites {
+    /**
+     * Replaces all the fields of the usuarios with the given one's id, but the password when the given one has none.
+     *
+     * @param usuarios the new state of the usuarios.
+     * @param expectedVersions the versions the usuarios must have to be updated, or {@code null} to update it whatever
+     * its version.
+     * @return the usuarios before the update, or empty if there is no usuarios with this id and one of these versions.
+     */
+    Optional<Usuarios> updateById(Usuarios usuarios, Collection<Long> expectedVersions);
+
+    /**
+     * Sets the non-null fields of the given usuarios on the usuarios with its id, leaving the other fields unchanged.
+     *
+     * @param usuarios the fields to set, and the id of the usuarios.
+     * @param expectedVersions the versions the usuarios must have to be updated, or {@code null} to update it whatever
+     * its version.
+     * @return the usuarios before the update, or empty if there is no usuarios with this id and one of these versions.
+     */
+    Optional<Usuarios> partialUpdateById(Usuarios usuarios, Collection<Long> expectedVersions);
+
+    /**
+     * Deletes the usuarios with the given id.
+     *
+     * @return the deleted usuarios, or empty if there is no usuarios with this id.
+     */
+    Optional<Usuarios> deleteByIdReturning(Long id);
+}
@@ -0,0 +1,147 @@
+package com.astenensino.login.repository;
+
+import com.astenensino.login.domain.Usuarios;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StringType;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class UsuariosRepositoryWithSingleStatementWritesImpl implements UsuariosRepositoryWithSingleStatementWrites {
+
+    /**
+     * The locked subquery reads the row as it is before the update, and is joined to the updated row.
+     */
+    private static final String POSTGRESQL_UPDATE_QUERY =
+        "update usuarios set %s from (select id, email, password, version from usuarios where id = :id for update) previous" +
+        " where usuarios.id = previous.id%s returning previous.id, previous.email, previous.password, previous.version";
+
+    private static final String POSTGRESQL_VERSION_CONDITION = " and previous.version in (:versions)";
+
+    private static final String POSTGRESQL_DELETE_QUERY = "delete from usuarios where id = :id returning id, email, password, version";
+
+    /**
+     * H2, the other supported database, returns the previous row through a data change delta table.
+     */
+    private static final String H2_UPDATE_QUERY =
+        "select id, email, password, version from old table (update usuarios set %s where id = :id%s)";
+
+    private static final String H2_VERSION_CONDITION = " and version in (:versions)";
+
+    private static final String H2_DELETE_QUERY = "select id, email, password, version from old table (delete from usuarios where id = :id)";
+
+    private static final String VERSION_ASSIGNMENT = "version = usuarios.version + 1";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final DatabaseDialect databaseDialect;
+
+    public UsuariosRepositoryWithSingleStatementWritesImpl(DatabaseDialect databaseDialect) {
+        this.databaseDialect = databaseDialect;
+    }
+
+    @Override
+    public Optional<Usuarios> updateById(Usuarios usuarios, Collection<Long> expectedVersions) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("email", usuarios.getEmail());
+        // The password is never read back by the clients, so they cannot be expected to send it again
+        if (usuarios.getPassword() != null) {
+            columns.put("password", usuarios.getPassword());
+        }
+        return update(usuarios.getId(), columns, expectedVersions);
+    }
+
+    @Override
+    public Optional<Usuarios> partialUpdateById(Usuarios usuarios, Collection<Long> expectedVersions) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        if (usuarios.getEmail() != null) {
+            columns.put("email", usuarios.getEmail());
+        }
+        if (usuarios.getPassword() != null) {
+            columns.put("password", usuarios.getPassword());
+        }
+        // Even without any field to set, the version is incremented
+        return update(usuarios.getId(), columns, expectedVersions);
+    }
+
+    @Override
+    public Optional<Usuarios> deleteByIdReturning(Long id) {
+        return execute(id, databaseDialect.isPostgreSQL() ? POSTGRESQL_DELETE_QUERY : H2_DELETE_QUERY, Map.of(), null);
+    }
+
+    private Optional<Usuarios> update(Long id, Map<String, String> columns, Collection<Long> expectedVersions) {
+        if (expectedVersions != null && expectedVersions.isEmpty()) {
+            return Optional.empty();
+        }
+        List<String> assignments = new ArrayList<>(columns.size() + 1);
+        columns.keySet().forEach(column -> assignments.add(column + " = :" + column));
+        assignments.add(VERSION_ASSIGNMENT);
+        String sql;
+        if (databaseDialect.isPostgreSQL()) {
+            String condition = expectedVersions == null ? "" : POSTGRESQL_VERSION_CONDITION;
+            sql = String.format(POSTGRESQL_UPDATE_QUERY, String.join(", ", assignments), condition);
+        } else {
+            String condition = expectedVersions == null ? "" : H2_VERSION_CONDITION;
+            sql = String.format(H2_UPDATE_QUERY, String.join(", ", assignments), condition);
+        }
+        return execute(id, sql, columns, expectedVersions);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<Usuarios> execute(Long id, String sql, Map<String, String> columns, Collection<Long> expectedVersions) {
+        NativeQuery<Object[]> query = entityManager
+            .createNativeQuery(sql)
+            .unwrap(NativeQuery.class)
+            // Only pending changes to usuarios are flushed before the statement
+            .addSynchronizedEntityClass(Usuarios.class);
+        query.setParameter("id", id);
+        // Typed so that a null is bound as a varchar rather than as a binary
+        columns.forEach((column, value) -> query.setParameter(column, value, StringType.INSTANCE));
+        if (expectedVersions != null) {
+            query.setParameterList("versions", expectedVersions);
+        }
+        List<Object[]> rows = query.getResultList();
+
+        // The persistence context and the second-level cache must not keep a stale copy of the row. Getting a
+        // reference does not hit the database: it gives the managed copy if any, or an uninitialized proxy
+        entityManager.detach(entityManager.getReference(Usuarios.class, id));
+        evictFromSecondLevelCache(id);
+
+        return rows
+            .stream()
+            .findFirst()
+            .map(row ->
+                new Usuarios()
+                    .id(((Number) row[0]).longValue())
+                    .email((String) row[1])
+                    .password((String) row[2])
+                    .version(((Number) row[3]).longValue())
+            );
+    }
+
+    /**
+     * Evicts the row now, and once again after commit so that a concurrent read of the previous row cannot cache it back.
+     */
+    private void evictFromSecondLevelCache(Long id) {
+        javax.persistence.Cache cache = entityManager.getEntityManagerFactory().getCache();
+        cache.evict(Usuarios.class, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        cache.evict(Usuarios.class, id);
+                    }
+                }
+            );
+        }
+    }
+}
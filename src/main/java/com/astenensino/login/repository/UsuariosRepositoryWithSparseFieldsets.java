@@ -0,0 +1,28 @@
+package com.astenensino.login.repository;
+
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Reads of usuarios restricted to a sparse fieldset: only the columns of the requested fields are selected, and the
+ * rows are read as {@link UsuariosFieldset} instead of managed entities.
+ */
+public interface UsuariosRepositoryWithSparseFieldsets {
+    /**
+     * Fetches a page of usuarios, reading only the given fields.
+     *
+     * @param fields the fields to read, among {@link UsuariosFieldset#FIELDS}.
+     * @param pageable the page, sorted on any property of the usuarios.
+     */
+    Page<UsuariosFieldset> findAllFieldsets(List<String> fields, Pageable pageable);
+
+    /**
+     * Fetches the given fields of the usuarios with the given id. The version is always read, so that it can be used
+     * as entity tag, but is only part of the fieldset if requested.
+     *
+     * @param fields the fields to read, among {@link UsuariosFieldset#FIELDS}.
+     */
+    Optional<UsuariosFieldset> findFieldsetById(Long id, List<String> fields);
+}
@@ -0,0 +1,67 @@
+package com.astenensino.login.repository;
+
+import com.astenensino.login.domain.Usuarios;
+import com.astenensino.login.domain.Usuarios_;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+public class UsuariosRepositoryWithSparseFieldsetsImpl implements UsuariosRepositoryWithSparseFieldsets {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<UsuariosFieldset> findAllFieldsets(List<String> fields, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Usuarios> root = query.from(Usuarios.class);
+        query.multiselect(UsuariosFieldset.selections(root, fields));
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        List<UsuariosFieldset> content = typedQuery
+            .getResultList()
+            .stream()
+            .map(tuple -> UsuariosFieldset.of(tuple, fields))
+            .collect(Collectors.toList());
+        // The count is only issued when the page does not tell the total by itself
+        return PageableExecutionUtils.getPage(content, pageable, this::count);
+    }
+
+    @Override
+    public Optional<UsuariosFieldset> findFieldsetById(Long id, List<String> fields) {
+        Set<String> columns = new LinkedHashSet<>(fields);
+        columns.add("version");
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Usuarios> root = query.from(Usuarios.class);
+        query.multiselect(UsuariosFieldset.selections(root, columns)).where(cb.equal(root.get(Usuarios_.id), id));
+        return entityManager.createQuery(query).getResultList().stream().findFirst().map(tuple -> UsuariosFieldset.of(tuple, fields));
+    }
+
+    private long count() {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        query.select(cb.count(query.from(Usuarios.class)));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,68 @@
+package com.astenensino.login.security;
+
+import java.io.IOException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.GenericFilterBean;
+
+/**
+ * Rejects the requests of an authenticated principal beyond its {@link ApiQuotas quota}, and tells every principal
+ * how much of its quota is left with the {@code RateLimit-*} headers.
+ * <p>
+ * It runs once the principal is authenticated, and lets the requests without principal through.
+ */
+public class ApiQuotaFilter extends GenericFilterBean {
+
+    public static final String RATE_LIMIT_LIMIT_HEADER = "RateLimit-Limit";
+
+    public static final String RATE_LIMIT_REMAINING_HEADER = "RateLimit-Remaining";
+
+    public static final String RATE_LIMIT_RESET_HEADER = "RateLimit-Reset";
+
+    private static final RequestMatcher API_REQUESTS = new AntPathRequestMatcher("/api/**");
+
+    private final ApiQuotas apiQuotas;
+
+    public ApiQuotaFilter(ApiQuotas apiQuotas) {
+        this.apiQuotas = apiQuotas;
+    }
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain)
+        throws IOException, ServletException {
+        HttpServletRequest httpServletRequest = (HttpServletRequest) servletRequest;
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (
+            authentication == null ||
+            authentication instanceof AnonymousAuthenticationToken ||
+            !authentication.isAuthenticated() ||
+            !API_REQUESTS.matches(httpServletRequest)
+        ) {
+            filterChain.doFilter(servletRequest, servletResponse);
+            return;
+        }
+
+        ApiQuotas.Decision decision = apiQuotas.consume(authentication);
+        HttpServletResponse httpServletResponse = (HttpServletResponse) servletResponse;
+        httpServletResponse.setHeader(RATE_LIMIT_LIMIT_HEADER, Integer.toString(decision.getLimit()));
+        httpServletResponse.setHeader(RATE_LIMIT_REMAINING_HEADER, Integer.toString(decision.getRemaining()));
+        httpServletResponse.setHeader(RATE_LIMIT_RESET_HEADER, Long.toString(decision.getResetSeconds()));
+        if (!decision.isAdmitted()) {
+            httpServletResponse.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(decision.getRetryAfterSeconds()));
+            httpServletResponse.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
+        filterChain.doFilter(servletRequest, servletResponse);
+    }
+}
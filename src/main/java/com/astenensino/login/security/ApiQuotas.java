@@ -0,0 +1,311 @@
+package com.astenensino.login.security;
+
+import com.astenensino.login.config.ApplicationProperties;
+import com.astenensino.login.management.SecurityMetersService;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import org.redisson.api.RAtomicLongAsync;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * The request quotas of the authenticated principals, shared by all the instances.
+ * <p>
+ * Requests are admitted or rejected by this instance alone, without lock: the quota of a principal is the time at
+ * which it would be full again, pushed back by a compare-and-set for each request admitted (the generic cell rate
+ * algorithm). Every second, the requests admitted by each instance are added to counters in Redis, from which
+ * each instance learns how many the other ones admitted, and charges them to its own buckets. A principal spreading
+ * its requests across instances can thus exceed its quota for at most that second.
+ * <p>
+ * Rejections are counted by the limit that applied, and the principals rejected the most are logged at each
+ * reconciliation.
+ */
+@Component
+public class ApiQuotas {
+
+    private final Logger log = LoggerFactory.getLogger(ApiQuotas.class);
+
+    static final String USAGE_PREFIX = "apiQuota:";
+
+    /**
+     * Time after which the usage counter of a principal no instance reports about anymore is forgotten.
+     */
+    private static final long USAGE_TTL_MINUTES = 10;
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Number of principals logged among the ones rejected the most since the last reconciliation.
+     */
+    private static final int TOP_OFFENDERS = 5;
+
+    private final ApplicationProperties.ApiQuota properties;
+
+    private final RedissonClient redissonClient;
+
+    private final SecurityMetersService securityMetersService;
+
+    private final ConcurrentMap<String, Quota> quotas = new ConcurrentHashMap<>();
+
+    public ApiQuotas(ApplicationProperties applicationProperties, RedissonClient redissonClient, SecurityMetersService securityMetersService) {
+        this.properties = applicationProperties.getApiQuota();
+        this.redissonClient = redissonClient;
+        this.securityMetersService = securityMetersService;
+    }
+
+    /**
+     * Takes a request from the quota of the authenticated principal.
+     *
+     * @return the state of the quota, telling whether the request is admitted.
+     */
+    public Decision consume(Authentication authentication) {
+        Quota quota = quotas.computeIfAbsent(authentication.getName(), name -> newQuota(authentication));
+        Decision decision = quota.consume(System.nanoTime());
+        if (!decision.isAdmitted()) {
+            quota.rejected.increment();
+            switch (quota.tier) {
+                case PRINCIPAL:
+                    securityMetersService.trackApiQuotaExceededByPrincipalLimit();
+                    break;
+                case AUTHORITY:
+                    securityMetersService.trackApiQuotaExceededByAuthorityLimit();
+                    break;
+                default:
+                    securityMetersService.trackApiQuotaExceededByDefaultLimit();
+            }
+        }
+        return decision;
+    }
+
+    private Quota newQuota(Authentication authentication) {
+        ApplicationProperties.ApiQuota.Limit limit = properties.getPrincipals().get(authentication.getName());
+        if (limit != null) {
+            return new Quota(limit, Tier.PRINCIPAL);
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            ApplicationProperties.ApiQuota.Limit authorityLimit = properties.getAuthorities().get(authority.getAuthority());
+            if (authorityLimit != null && (limit == null || authorityLimit.getRequestsPerSecond() > limit.getRequestsPerSecond())) {
+                limit = authorityLimit;
+            }
+        }
+        return limit != null ? new Quota(limit, Tier.AUTHORITY) : new Quota(properties.getDefaultLimit(), Tier.DEFAULT);
+    }
+
+    /**
+     * Reports the requests admitted since the last reconciliation to Redis, and charges the ones admitted by the other
+     * instances meanwhile. The quotas which are full again and were not used meanwhile are forgotten.
+     */
+    @Scheduled(fixedDelay = 1_000, initialDelay = 1_000)
+    public void reconcile() {
+        logTopOffenders();
+        long now = System.nanoTime();
+        quotas.values().removeIf(quota -> quota.isIdle(now));
+        if (quotas.isEmpty()) {
+            return;
+        }
+
+        RBatch batch = redissonClient.createBatch();
+        Map<Quota, Long> admitted = new HashMap<>();
+        Map<Quota, RFuture<Long>> totals = new HashMap<>();
+        quotas.forEach((principal, quota) -> {
+            long delta = quota.unreconciled.sumThenReset();
+            admitted.put(quota, delta);
+            RAtomicLongAsync usage = batch.getAtomicLong(USAGE_PREFIX + principal);
+            totals.put(quota, usage.addAndGetAsync(delta));
+            usage.expireAsync(USAGE_TTL_MINUTES, TimeUnit.MINUTES);
+        });
+        try {
+            batch.execute();
+        } catch (RuntimeException e) {
+            log.warn("Could not reconcile the API quotas across the instances: {}", e.getMessage());
+            // Reported at the next reconciliation instead
+            admitted.forEach((quota, delta) -> quota.unreconciled.add(delta));
+            return;
+        }
+        totals.forEach((quota, total) -> quota.reconcile(total.toCompletableFuture().join(), admitted.get(quota), now));
+    }
+
+    private void logTopOffenders() {
+        Map<String, Long> rejected = new HashMap<>();
+        quotas.forEach((principal, quota) -> {
+            long count = quota.rejected.sumThenReset();
+            if (count > 0) {
+                rejected.put(principal, count);
+            }
+        });
+        if (!rejected.isEmpty()) {
+            String offenders = rejected
+                .entrySet()
+                .stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(TOP_OFFENDERS)
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining(", "));
+            log.info("Rejected the requests over their API quota of {} principals, the most of: {}", rejected.size(), offenders);
+        }
+    }
+
+    /**
+     * The limit that applies to a principal.
+     */
+    enum Tier {
+        PRINCIPAL,
+        AUTHORITY,
+        DEFAULT,
+    }
+
+    /**
+     * The state of the quota of a principal after a request.
+     */
+    public static final class Decision {
+
+        private final boolean admitted;
+
+        private final int limit;
+
+        private final int remaining;
+
+        private final long resetSeconds;
+
+        private final long retryAfterSeconds;
+
+        Decision(boolean admitted, int limit, int remaining, long resetSeconds, long retryAfterSeconds) {
+            this.admitted = admitted;
+            this.limit = limit;
+            this.remaining = remaining;
+            this.resetSeconds = resetSeconds;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public boolean isAdmitted() {
+            return admitted;
+        }
+
+        /**
+         * @return the number of requests the quota holds when full.
+         */
+        public int getLimit() {
+            return limit;
+        }
+
+        /**
+         * @return the number of requests that can still be made at once.
+         */
+        public int getRemaining() {
+            return remaining;
+        }
+
+        /**
+         * @return the number of seconds after which the quota is full again.
+         */
+        public long getResetSeconds() {
+            return resetSeconds;
+        }
+
+        /**
+         * @return the number of seconds after which a rejected request can be made again, 0 if it was admitted.
+         */
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    static final class Quota {
+
+        private static final long UNKNOWN = -1;
+
+        private final int burst;
+
+        /**
+         * Time a request takes from the quota, in nanoseconds.
+         */
+        private final long interval;
+
+        /**
+         * Time the quota holds when full, in nanoseconds.
+         */
+        private final long tolerance;
+
+        /**
+         * The time at which the quota would be full again, in {@link System#nanoTime()}.
+         */
+        private final AtomicLong fullAt;
+
+        private final Tier tier;
+
+        private final LongAdder unreconciled = new LongAdder();
+
+        /**
+         * Requests rejected since the last reconciliation.
+         */
+        private final LongAdder rejected = new LongAdder();
+
+        /**
+         * Total of the requests admitted by all the instances, as of the last reconciliation. Only accessed by the
+         * reconciliation.
+         */
+        private long reconciledTotal = UNKNOWN;
+
+        Quota(ApplicationProperties.ApiQuota.Limit limit, Tier tier) {
+            this.tier = tier;
+            this.burst = Math.max(1, limit.getBurst());
+            this.interval = Math.max(1, (long) (NANOS_PER_SECOND / limit.getRequestsPerSecond()));
+            this.tolerance = burst * interval;
+            this.fullAt = new AtomicLong(System.nanoTime());
+        }
+
+        Decision consume(long now) {
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + interval;
+                if (next - now > tolerance) {
+                    long wait = next - tolerance - now;
+                    return new Decision(false, burst, 0, ceilSeconds(current - now), Math.max(1, ceilSeconds(wait)));
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    unreconciled.increment();
+                    return new Decision(true, burst, (int) ((tolerance - (next - now)) / interval), ceilSeconds(next - now), 0);
+                }
+            }
+        }
+
+        /**
+         * Charges the requests admitted by the other instances, taking at most what the quota holds.
+         *
+         * @param total the total of the requests admitted by all the instances.
+         * @param admitted the requests admitted by this instance since the last reconciliation, included in the total.
+         */
+        void reconcile(long total, long admitted, long now) {
+            long others = reconciledTotal == UNKNOWN ? 0 : total - reconciledTotal - admitted;
+            reconciledTotal = total;
+            if (others > 0) {
+                long charge = others * interval;
+                fullAt.getAndUpdate(current -> Math.min(Math.max(current, now) + charge, now + tolerance));
+            }
+        }
+
+        /**
+         * @return whether the quota is full again with nothing left to reconcile, so that forgetting it changes nothing.
+         */
+        boolean isIdle(long now) {
+            return fullAt.get() - now <= 0 && unreconciled.sum() == 0;
+        }
+
+        private static long ceilSeconds(long nanos) {
+            return nanos <= 0 ? 0 : (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.astenensino.login.security;
+
+import com.astenensino.login.config.ApplicationProperties;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the address of the client of a request, which behind the gateway is not the remote address of the
+ * connection.
+ * <p>
+ * {@code X-Forwarded-For} is only believed when the request comes from a trusted proxy, and is read from the right: each
+ * proxy appends the address it got the request from, so the first address which is not a trusted proxy is the one of
+ * the client, whatever the client itself put on the left.
+ */
+@Component
+public class ClientAddressResolver {
+
+    static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    private final Pattern trustedProxies;
+
+    public ClientAddressResolver(ApplicationProperties applicationProperties) {
+        this.trustedProxies = Pattern.compile(applicationProperties.getLoginThrottling().getTrustedProxies());
+    }
+
+    /**
+     * @return the address of the client, or the remote address of the connection if it is not a trusted proxy.
+     */
+    public String resolve(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (!isTrustedProxy(address)) {
+            return address;
+        }
+        List<String> forwarded = new ArrayList<>();
+        for (String header : Collections.list(request.getHeaders(FORWARDED_FOR_HEADER))) {
+            for (String hop : header.split(",")) {
+                if (!hop.isBlank()) {
+                    forwarded.add(hop.trim());
+                }
+            }
+        }
+        for (int i = forwarded.size() - 1; i >= 0; i--) {
+            address = forwarded.get(i);
+            if (!isTrustedProxy(address)) {
+                return address;
+            }
+        }
+        // Only proxies in the chain: the leftmost one is the closest to the client
+        return address;
+    }
+
+    private boolean isTrustedProxy(String address) {
+        return trustedProxies.matcher(address).matches();
+    }
+}
@@ -0,0 +1,248 @@
+package com.astenensino.login.security;
+
+import com.astenensino.login.config.ApplicationProperties;
+import com.astenensino.login.management.SecurityMetersService;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Throttles the login attempts per email and per client address with token buckets, before the usuarios is looked up
+ * or any password is hashed.
+ * <p>
+ * Each instance keeps its own buckets, in a table split in stripes locked independently, which reject the attempts
+ * made on this instance beyond the limits without leaving it. The attempts they let through are also taken from
+ * buckets shared by all the instances in Redis, except an attempt finding its local buckets full: a login made once
+ * costs no round trip, and the shared buckets miss at most one attempt per key and instance. If Redis cannot be
+ * reached, the local buckets decide alone.
+ */
+@Component
+public class LoginThrottle {
+
+    private final Logger log = LoggerFactory.getLogger(LoginThrottle.class);
+
+    /**
+     * The shared buckets are hash tagged into a single slot, so that one script can take from both of an attempt.
+     */
+    static final String SHARED_BUCKETS_PREFIX = "{loginThrottle}:";
+
+    private static final String EMAIL_KEY_PREFIX = "email:";
+
+    private static final String CLIENT_ADDRESS_KEY_PREFIX = "address:";
+
+    /**
+     * Number of independently locked parts of the local table, a power of two.
+     */
+    private static final int STRIPES = 64;
+
+    /**
+     * Refills the buckets of {@code KEYS}, then takes a token from each if they all have one. The arguments are the
+     * current time in milliseconds, then the capacity and the refill period in milliseconds of each bucket. A bucket
+     * is a hash of its tokens and of the time it was last refilled, expiring once it would be full again.
+     * <p>
+     * Returns 0 if the tokens were taken, or else the 1-based index of the first empty bucket.
+     */
+    private static final String SHARED_BUCKETS_SCRIPT =
+        "local now = tonumber(ARGV[1]) " +
+        "local tokens = {} " +
+        "local refilledAt = {} " +
+        "local empty = 0 " +
+        "for i, key in ipairs(KEYS) do " +
+        "  local capacity = tonumber(ARGV[2 * i]) " +
+        "  local refill = tonumber(ARGV[2 * i + 1]) " +
+        "  local bucket = redis.call('hmget', key, 'tokens', 'refilledAt') " +
+        "  local t = tonumber(bucket[1]) " +
+        "  local at = tonumber(bucket[2]) " +
+        "  if t == nil or at == nil then t = capacity at = now end " +
+        "  local refills = math.floor((now - at) / refill) " +
+        "  if refills > 0 then t = t + refills at = at + refills * refill end " +
+        "  if t >= capacity then t = capacity at = now end " +
+        "  if t < 1 and empty == 0 then empty = i end " +
+        "  tokens[i] = t " +
+        "  refilledAt[i] = at " +
+        "end " +
+        "for i, key in ipairs(KEYS) do " +
+        "  local refill = tonumber(ARGV[2 * i + 1]) " +
+        "  local t = tokens[i] " +
+        "  if empty == 0 then t = t - 1 end " +
+        "  redis.call('hset', key, 'tokens', t, 'refilledAt', refilledAt[i]) " +
+        "  redis.call('pexpire', key, (tonumber(ARGV[2 * i]) - t + 1) * refill) " +
+        "end " +
+        "return empty";
+
+    private final ApplicationProperties.LoginThrottling.Limit emailLimit;
+
+    private final ApplicationProperties.LoginThrottling.Limit clientAddressLimit;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final RScript sharedBuckets;
+
+    private final SecurityMetersService securityMetersService;
+
+    public LoginThrottle(
+        ApplicationProperties applicationProperties,
+        RedissonClient redissonClient,
+        SecurityMetersService securityMetersService
+    ) {
+        ApplicationProperties.LoginThrottling properties = applicationProperties.getLoginThrottling();
+        this.emailLimit = properties.getEmail();
+        this.clientAddressLimit = properties.getClientAddress();
+        int maxBucketsPerStripe = Math.max(1, properties.getMaxLocalBuckets() / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(maxBucketsPerStripe);
+        }
+        this.sharedBuckets = redissonClient.getScript(StringCodec.INSTANCE);
+        this.securityMetersService = securityMetersService;
+    }
+
+    /**
+     * Takes a login attempt from the buckets of the email and of the client address.
+     *
+     * @return the time after which the login can be attempted again if it is throttled, or empty if it can go on.
+     */
+    public Optional<Duration> throttle(String email, String clientAddress) {
+        String emailKey = EMAIL_KEY_PREFIX + email.toLowerCase(Locale.ROOT);
+        String clientAddressKey = CLIENT_ADDRESS_KEY_PREFIX + clientAddress;
+        long now = System.nanoTime();
+
+        Take byEmail = take(emailKey, emailLimit, now);
+        if (byEmail == Take.REJECTED) {
+            return throttledByEmail();
+        }
+        Take byClientAddress = take(clientAddressKey, clientAddressLimit, now);
+        if (byClientAddress == Take.REJECTED) {
+            return throttledByClientAddress();
+        }
+        if (byEmail == Take.TAKEN_FROM_FULL && byClientAddress == Take.TAKEN_FROM_FULL) {
+            return Optional.empty();
+        }
+
+        long empty = takeShared(emailKey, clientAddressKey);
+        if (empty == 1) {
+            return throttledByEmail();
+        }
+        if (empty == 2) {
+            return throttledByClientAddress();
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Duration> throttledByEmail() {
+        securityMetersService.trackLoginThrottledByEmail();
+        return Optional.of(emailLimit.getRefillPeriod());
+    }
+
+    private Optional<Duration> throttledByClientAddress() {
+        securityMetersService.trackLoginThrottledByClientAddress();
+        return Optional.of(clientAddressLimit.getRefillPeriod());
+    }
+
+    private Take take(String key, ApplicationProperties.LoginThrottling.Limit limit, long now) {
+        Stripe stripe = stripes[spread(key.hashCode()) & (STRIPES - 1)];
+        synchronized (stripe) {
+            Bucket bucket = stripe.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(limit.getCapacity(), now);
+                stripe.put(key, bucket);
+            }
+            return bucket.take(limit.getCapacity(), limit.getRefillPeriod().toNanos(), now);
+        }
+    }
+
+    /**
+     * @return 0 if the attempt was taken from the shared buckets, or else the 1-based index of the empty one.
+     */
+    private long takeShared(String emailKey, String clientAddressKey) {
+        try {
+            Long empty = sharedBuckets.eval(
+                RScript.Mode.READ_WRITE,
+                SHARED_BUCKETS_SCRIPT,
+                RScript.ReturnType.INTEGER,
+                List.of(SHARED_BUCKETS_PREFIX + emailKey, SHARED_BUCKETS_PREFIX + clientAddressKey),
+                Long.toString(System.currentTimeMillis()),
+                Integer.toString(emailLimit.getCapacity()),
+                Long.toString(emailLimit.getRefillPeriod().toMillis()),
+                Integer.toString(clientAddressLimit.getCapacity()),
+                Long.toString(clientAddressLimit.getRefillPeriod().toMillis())
+            );
+            return empty == null ? 0 : empty;
+        } catch (RuntimeException e) {
+            log.warn("Could not throttle the login attempt across the instances: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Spreads the higher bits of the hash to the lower ones the stripe is chosen with, as {@link java.util.HashMap}
+     * does.
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private enum Take {
+        REJECTED,
+        TAKEN,
+        TAKEN_FROM_FULL,
+    }
+
+    /**
+     * A bucket whose tokens are refilled one by one, each after a refill period. Guarded by its stripe.
+     */
+    private static final class Bucket {
+
+        private long tokens;
+
+        private long refilledAt;
+
+        private Bucket(long tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+
+        private Take take(long capacity, long refillNanos, long now) {
+            long refills = (now - refilledAt) / refillNanos;
+            if (refills > 0) {
+                tokens += refills;
+                refilledAt += refills * refillNanos;
+            }
+            if (tokens >= capacity) {
+                tokens = capacity;
+                refilledAt = now;
+            }
+            if (tokens < 1) {
+                return Take.REJECTED;
+            }
+            return tokens-- == capacity ? Take.TAKEN_FROM_FULL : Take.TAKEN;
+        }
+    }
+
+    /**
+     * A part of the local table, forgetting its least recently used buckets beyond its size: those are the likeliest
+     * to be full again, which is the same as being absent.
+     */
+    private static final class Stripe extends LinkedHashMap<String, Bucket> {
+
+        private final int maxBuckets;
+
+        private Stripe(int maxBuckets) {
+            super(16, 0.75f, true);
+            this.maxBuckets = maxBuckets;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > maxBuckets;
+        }
+    }
+}
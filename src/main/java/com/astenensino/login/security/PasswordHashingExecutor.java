@@ -0,0 +1,86 @@
+package com.astenensino.login.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Bounded executor dedicated to password hashing, so that a burst of logins only queues behind itself instead of
+ * occupying the threads serving the other requests.
+ * <p>
+ * Once all the threads are busy and the queue is full, tasks are rejected right away with a
+ * {@link RejectedExecutionException}, rather than waiting for room.
+ */
+public class PasswordHashingExecutor implements Executor, DisposableBean {
+
+    public static final String EXECUTOR_NAME = "passwordHashing";
+
+    public static final String QUEUE_TIME_METER_NAME = "security.password-hashing.queue";
+    public static final String QUEUE_TIME_METER_DESCRIPTION = "Time the password hashings waited for a thread.";
+
+    public static final String REJECTED_METER_NAME = "security.password-hashing.rejected";
+    public static final String REJECTED_METER_DESCRIPTION = "Indicates the count of password hashings rejected as the executor was saturated.";
+    public static final String REJECTED_METER_BASE_UNIT = "hashings";
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer queueTimer;
+
+    private final Counter rejectedCounter;
+
+    public PasswordHashingExecutor(int poolSize, int queueCapacity, MeterRegistry registry) {
+        this.executor =
+            new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy()
+            );
+        new ExecutorServiceMetrics(executor, EXECUTOR_NAME, Tags.empty()).bindTo(registry);
+        this.queueTimer = Timer.builder(QUEUE_TIME_METER_NAME).description(QUEUE_TIME_METER_DESCRIPTION).register(registry);
+        this.rejectedCounter =
+            Counter
+                .builder(REJECTED_METER_NAME)
+                .description(REJECTED_METER_DESCRIPTION)
+                .baseUnit(REJECTED_METER_BASE_UNIT)
+                .register(registry);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        long submitted = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                queueTimer.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                task.run();
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of passwords hashed at the same time.
+     */
+    public int getPoolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
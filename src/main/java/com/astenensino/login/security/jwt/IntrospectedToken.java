@@ -0,0 +1,45 @@
+package com.astenensino.login.security.jwt;
+
+import java.time.Instant;
+import java.util.Collection;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * What a valid token says about its bearer, as verified by {@link TokenProvider#introspectToken(String)}.
+ */
+public final class IntrospectedToken {
+
+    private final String subject;
+
+    private final Collection<? extends GrantedAuthority> authorities;
+
+    private final Instant expiresAt;
+
+    IntrospectedToken(String subject, Collection<? extends GrantedAuthority> authorities, Instant expiresAt) {
+        this.subject = subject;
+        this.authorities = authorities;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "IntrospectedToken{" +
+            "subject='" + subject + '\'' +
+            ", authorities=" + authorities +
+            ", expiresAt=" + expiresAt +
+            "}";
+    }
+}
@@ -1,5 +1,6 @@
 package com.astenensino.login.security.jwt;
 
+import com.astenensino.login.management.SecurityMetersService;
 import org.springframework.security.config.annotation.SecurityConfigurerAdapter;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.DefaultSecurityFilterChain;
@@ -9,13 +10,16 @@ public class JWTConfigurer extends SecurityConfigurerAdapter<DefaultSecurityFilt
 
     private final TokenProvider tokenProvider;
 
-    public JWTConfigurer(TokenProvider tokenProvider) {
+    private final SecurityMetersService securityMetersService;
+
+    public JWTConfigurer(TokenProvider tokenProvider, SecurityMetersService securityMetersService) {
         this.tokenProvider = tokenProvider;
+        this.securityMetersService = securityMetersService;
     }
 
     @Override
     public void configure(HttpSecurity http) {
-        JWTFilter customFilter = new JWTFilter(tokenProvider);
+        JWTFilter customFilter = new JWTFilter(tokenProvider, securityMetersService);
         http.addFilterBefore(customFilter, UsernamePasswordAuthenticationFilter.class);
     }
 }
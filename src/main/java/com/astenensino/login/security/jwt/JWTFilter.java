@@ -1,6 +1,8 @@
 package com.astenensino.login.security.jwt;
 
+import com.astenensino.login.management.SecurityMetersService;
 import java.io.IOException;
+import java.util.Optional;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
@@ -21,19 +23,31 @@ public class JWTFilter extends GenericFilterBean {
 
     private final TokenProvider tokenProvider;
 
-    public JWTFilter(TokenProvider tokenProvider) {
+    private final SecurityMetersService securityMetersService;
+
+    public JWTFilter(TokenProvider tokenProvider, SecurityMetersService securityMetersService) {
         this.tokenProvider = tokenProvider;
+        this.securityMetersService = securityMetersService;
     }
 
     @Override
     public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain)
         throws IOException, ServletException {
+        long start = System.nanoTime();
         HttpServletRequest httpServletRequest = (HttpServletRequest) servletRequest;
         String jwt = resolveToken(httpServletRequest);
-        if (StringUtils.hasText(jwt) && this.tokenProvider.validateToken(jwt)) {
-            Authentication authentication = this.tokenProvider.getAuthentication(jwt);
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+        if (!StringUtils.hasText(jwt)) {
+            this.securityMetersService.trackRequestAnonymous();
+        } else {
+            Optional<Authentication> authentication = this.tokenProvider.resolveAuthentication(jwt);
+            if (authentication.isPresent()) {
+                SecurityContextHolder.getContext().setAuthentication(authentication.get());
+                this.securityMetersService.trackRequestAuthenticated();
+            } else {
+                this.securityMetersService.trackRequestRejected();
+            }
         }
+        this.securityMetersService.recordFilter(System.nanoTime() - start);
         filterChain.doFilter(servletRequest, servletResponse);
     }
 
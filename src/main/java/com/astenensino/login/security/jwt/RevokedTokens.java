@@ -0,0 +1,131 @@
+package com.astenensino.login.security.jwt;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * The ids of the tokens revoked before they expire.
+ * <p>
+ * Revocations are stored in Redis until the tokens expire, and published to all the instances, each one mirroring them
+ * in memory. Looking a token up never leaves the instance and takes no lock: a Bloom filter answers for almost all
+ * the tokens, which were never revoked, and the exact set for the others. The mirror is reloaded from Redis
+ * periodically, which catches up on the revocations published while an instance was not listening, and drops the
+ * expired ones.
+ */
+@Component
+public class RevokedTokens implements InitializingBean {
+
+    private final Logger log = LoggerFactory.getLogger(RevokedTokens.class);
+
+    static final String REVOKED_TOKENS_NAME = "revokedTokens";
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Number of live revocations the Bloom filter is sized for at least.
+     */
+    private static final int EXPECTED_REVOCATIONS = 100_000;
+
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    private final RMapCache<String, String> store;
+
+    private final RTopic topic;
+
+    /**
+     * Expiration of the revoked tokens by id.
+     */
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter filter = new BloomFilter(EXPECTED_REVOCATIONS, FALSE_POSITIVE_PROBABILITY);
+
+    public RevokedTokens(RedissonClient redissonClient) {
+        this.store = redissonClient.getMapCache(REVOKED_TOKENS_NAME, StringCodec.INSTANCE);
+        this.topic = redissonClient.getTopic(REVOKED_TOKENS_NAME, StringCodec.INSTANCE);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        try {
+            topic.addListener(String.class, (channel, message) -> onRevoked(message));
+        } catch (RuntimeException e) {
+            log.warn("Could not subscribe to the token revocations, they will be reloaded periodically: {}", e.getMessage());
+        }
+        reload();
+    }
+
+    /**
+     * @return whether the token with the given id was revoked.
+     */
+    public boolean isRevoked(String tokenId) {
+        return filter.mightContain(tokenId) && revoked.containsKey(tokenId);
+    }
+
+    /**
+     * Revokes the token with the given id on all the instances, this one seeing it right away.
+     *
+     * @param expiresAt the expiration of the token, in milliseconds since the epoch, after which it no longer needs to
+     * be remembered.
+     */
+    public void revoke(String tokenId, long expiresAt) {
+        add(tokenId, expiresAt);
+        long ttl = expiresAt - System.currentTimeMillis();
+        if (ttl > 0) {
+            store.fastPut(tokenId, Long.toString(expiresAt), ttl, TimeUnit.MILLISECONDS);
+            topic.publish(tokenId + SEPARATOR + expiresAt);
+        }
+    }
+
+    /**
+     * Replaces the mirror with the revocations stored in Redis, rebuilding the Bloom filter without the expired ones.
+     */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public void reload() {
+        Map<String, String> stored;
+        try {
+            stored = store.readAllMap();
+        } catch (RuntimeException e) {
+            log.warn("Could not reload the token revocations: {}", e.getMessage());
+            return;
+        }
+        long now = System.currentTimeMillis();
+        stored.forEach((tokenId, expiresAt) -> revoked.putIfAbsent(tokenId, Long.parseLong(expiresAt)));
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(EXPECTED_REVOCATIONS, 2 * revoked.size()), FALSE_POSITIVE_PROBABILITY);
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+        // Revocations added while rebuilding may have missed the new filter
+        revoked.keySet().forEach(rebuilt::put);
+        log.debug("Reloaded {} token revocations", revoked.size());
+    }
+
+    private void onRevoked(String message) {
+        int separator = message.lastIndexOf(SEPARATOR);
+        if (separator < 0) {
+            log.warn("Ignoring the malformed token revocation {}", message);
+            return;
+        }
+        try {
+            add(message.substring(0, separator), Long.parseLong(message.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring the malformed token revocation {}", message);
+        }
+    }
+
+    private void add(String tokenId, long expiresAt) {
+        // The exact set first, so that a token the filter reports is always found in it
+        revoked.put(tokenId, expiresAt);
+        filter.put(tokenId);
+    }
+}
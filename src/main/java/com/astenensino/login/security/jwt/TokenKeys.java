@@ -0,0 +1,131 @@
+package com.astenensino.login.security.jwt;
+
+import com.astenensino.login.config.ApplicationProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolver;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The keys tokens are signed and verified with, built once from the configuration.
+ * <p>
+ * A token is verified with the key of its {@code kid} header, or with the default key if it has none, and only if its
+ * algorithm is the one of that key: a token cannot pick another algorithm than the one its key was configured for.
+ */
+class TokenKeys implements SigningKeyResolver {
+
+    private final TokenKey defaultKey;
+
+    private final Map<String, TokenKey> keysById = new HashMap<>();
+
+    private final String signingKeyId;
+
+    private final TokenKey signingKey;
+
+    /**
+     * @param defaultKey the HMAC key of the tokens without key id, which also signs when no signing key id is set.
+     */
+    TokenKeys(Key defaultKey, ApplicationProperties.Jwt properties) {
+        this.defaultKey = new TokenKey(SignatureAlgorithm.HS512, defaultKey, defaultKey);
+        properties.getKeys().forEach((id, key) -> keysById.put(id, toTokenKey(id, key)));
+        this.signingKeyId = properties.getSigningKeyId() == null || properties.getSigningKeyId().isEmpty() ? null : properties.getSigningKeyId();
+        if (signingKeyId == null) {
+            this.signingKey = this.defaultKey;
+        } else {
+            this.signingKey = keysById.get(signingKeyId);
+            if (signingKey == null || signingKey.signingKey == null) {
+                throw new IllegalArgumentException("The JWT signing key " + signingKeyId + " is not configured with a secret or private key");
+            }
+        }
+    }
+
+    /**
+     * @return the id of the key tokens are signed with, or {@code null} for the default key.
+     */
+    String getSigningKeyId() {
+        return signingKeyId;
+    }
+
+    SignatureAlgorithm getSigningAlgorithm() {
+        return signingKey.algorithm;
+    }
+
+    Key getSigningKey() {
+        return signingKey.signingKey;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        return verificationKey(header);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Key resolveSigningKey(JwsHeader header, String plaintext) {
+        return verificationKey(header);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private Key verificationKey(JwsHeader header) {
+        String keyId = header.getKeyId();
+        TokenKey key = keyId == null ? defaultKey : keysById.get(keyId);
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown JWT key id " + keyId);
+        }
+        if (!key.algorithm.getValue().equals(header.getAlgorithm())) {
+            throw new UnsupportedJwtException("JWT algorithm " + header.getAlgorithm() + " does not match its key");
+        }
+        return key.verificationKey;
+    }
+
+    private static TokenKey toTokenKey(String id, ApplicationProperties.Jwt.Key properties) {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(properties.getAlgorithm());
+        if (algorithm == SignatureAlgorithm.NONE) {
+            throw new IllegalArgumentException("The JWT key " + id + " must have a signature algorithm");
+        }
+        if (algorithm.isHmac()) {
+            Key secret = Keys.hmacShaKeyFor(Decoders.BASE64.decode(properties.getSecret()));
+            return new TokenKey(algorithm, secret, secret);
+        }
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance(algorithm.isEllipticCurve() ? "EC" : "RSA");
+            Key publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(decodePem(properties.getPublicKey())));
+            Key privateKey = properties.getPrivateKey() == null
+                ? null
+                : keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decodePem(properties.getPrivateKey())));
+            return new TokenKey(algorithm, privateKey, publicKey);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            throw new IllegalArgumentException("The JWT key " + id + " is not a valid " + algorithm.getValue() + " key", e);
+        }
+    }
+
+    private static byte[] decodePem(String key) {
+        return Decoders.BASE64.decode(key.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", ""));
+    }
+
+    private static final class TokenKey {
+
+        private final SignatureAlgorithm algorithm;
+
+        private final Key signingKey;
+
+        private final Key verificationKey;
+
+        private TokenKey(SignatureAlgorithm algorithm, Key signingKey, Key verificationKey) {
+            this.algorithm = algorithm;
+            this.signingKey = signingKey;
+            this.verificationKey = verificationKey;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.astenensino.login.security.jwt;
 
+import com.astenensino.login.config.ApplicationProperties;
 import com.astenensino.login.management.SecurityMetersService;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
@@ -7,7 +8,10 @@ import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.SecureRandom;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,17 +33,47 @@ public class TokenProvider {
 
     private static final String INVALID_JWT_TOKEN = "Invalid JWT token.";
 
+    /**
+     * Maximum number of verified tokens kept, a few hundred bytes each.
+     */
+    private static final int VERIFIED_TOKENS_CACHE_SIZE = 10_000;
+
+    /**
+     * Maximum number of distinct authority sets shared between authentications, beyond which they are built per token.
+     */
+    private static final int INTERNED_AUTHORITIES_SIZE = 1_000;
+
+    /**
+     * Bytes of randomness of the token ids, as many as a random UUID has but encoded in 22 characters instead of 36.
+     */
+    private static final int TOKEN_ID_BYTES = 16;
+
     private final Key key;
 
+    private final TokenKeys tokenKeys;
+
     private final JwtParser jwtParser;
 
+    private final SecureRandom tokenIdGenerator = new SecureRandom();
+
     private final long tokenValidityInMilliseconds;
 
     private final long tokenValidityInMillisecondsForRememberMe;
 
     private final SecurityMetersService securityMetersService;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties, SecurityMetersService securityMetersService) {
+    private final RevokedTokens revokedTokens;
+
+    private final VerifiedTokenCache verifiedTokens = new VerifiedTokenCache(VERIFIED_TOKENS_CACHE_SIZE);
+
+    private final Map<String, List<GrantedAuthority>> internedAuthorities = new ConcurrentHashMap<>();
+
+    public TokenProvider(
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        SecurityMetersService securityMetersService,
+        RevokedTokens revokedTokens
+    ) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret();
         if (!ObjectUtils.isEmpty(secret)) {
@@ -54,15 +88,20 @@ public class TokenProvider {
             keyBytes = secret.getBytes(StandardCharsets.UTF_8);
         }
         key = Keys.hmacShaKeyFor(keyBytes);
-        jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
+        tokenKeys = new TokenKeys(key, applicationProperties.getJwt());
+        log.debug("Signing the JWT with {} key {}", tokenKeys.getSigningAlgorithm(), tokenKeys.getSigningKeyId());
+        // The keys are resolved from the header of each token, so one parser serves all of them
+        jwtParser = Jwts.parserBuilder().setSigningKeyResolver(tokenKeys).build();
         this.tokenValidityInMilliseconds = 1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
         this.tokenValidityInMillisecondsForRememberMe =
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
 
         this.securityMetersService = securityMetersService;
+        this.revokedTokens = revokedTokens;
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
+        long start = System.nanoTime();
         String authorities = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.joining(","));
 
         long now = (new Date()).getTime();
@@ -73,34 +112,169 @@ public class TokenProvider {
             validity = new Date(now + this.tokenValidityInMilliseconds);
         }
 
-        return Jwts
+        JwtBuilder builder = Jwts
             .builder()
+            .setId(newTokenId())
             .setSubject(authentication.getName())
             .claim(AUTHORITIES_KEY, authorities)
-            .signWith(key, SignatureAlgorithm.HS512)
-            .setExpiration(validity)
-            .compact();
+            .signWith(tokenKeys.getSigningKey(), tokenKeys.getSigningAlgorithm())
+            .setExpiration(validity);
+        if (tokenKeys.getSigningKeyId() != null) {
+            builder.setHeaderParam(JwsHeader.KEY_ID, tokenKeys.getSigningKeyId());
+        }
+        String token = builder.compact();
+        this.securityMetersService.recordTokenCreation(System.nanoTime() - start);
+        return token;
+    }
+
+    private String newTokenId() {
+        byte[] bytes = new byte[TOKEN_ID_BYTES];
+        tokenIdGenerator.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
     }
 
     public Authentication getAuthentication(String token) {
-        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        long start = System.nanoTime();
+        try {
+            return toAuthentication(jwtParser.parseClaimsJws(token).getBody(), token);
+        } finally {
+            this.securityMetersService.recordTokenAuthentication(System.nanoTime() - start);
+        }
+    }
 
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .filter(auth -> !auth.trim().isEmpty())
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
+    public boolean validateToken(String authToken) {
+        long start = System.nanoTime();
+        boolean valid = parseValidClaims(authToken).filter(claims -> !revokedTokens.isRevoked(tokenIdOf(claims, authToken))).isPresent();
+        this.securityMetersService.recordTokenValidation(System.nanoTime() - start);
+        return valid;
+    }
 
-        User principal = new User(claims.getSubject(), "", authorities);
+    /**
+     * Validates the token and builds its authentication, parsing and verifying it only the first time it is seen until
+     * it expires. Revoked tokens are not valid.
+     * <p>
+     * The authentication is built anew for each call, as its holder may change it, only the principal name and the
+     * authorities being shared.
+     *
+     * @return the authentication, or empty if the token is not valid.
+     */
+    public Optional<Authentication> resolveAuthentication(String token) {
+        long start = System.nanoTime();
+        Optional<VerifiedTokenCache.Entry> verified = verifyNotRevoked(token);
+        this.securityMetersService.recordTokenValidation(System.nanoTime() - start);
+        verified.ifPresent(entry -> this.securityMetersService.recordTokenTimeToExpiry(entry.getExpiresAt() - System.currentTimeMillis()));
+        return verified.map(entry -> toAuthentication(entry.getSubject(), entry.getAuthorities(), token));
+    }
+
+    /**
+     * Validates the token like {@link #resolveAuthentication(String)}, sharing its verified tokens, for a client which
+     * does not hold the keys.
+     *
+     * @return what the token says about its bearer, or empty if the token is not valid.
+     */
+    public Optional<IntrospectedToken> introspectToken(String token) {
+        return verifyNotRevoked(token)
+            .map(verified ->
+                new IntrospectedToken(verified.getSubject(), verified.getAuthorities(), Instant.ofEpochMilli(verified.getExpiresAt()))
+            );
+    }
+
+    /**
+     * Revokes the token on all the instances, until it expires.
+     *
+     * @return whether the token was revoked, {@code false} if it is not valid.
+     */
+    public boolean revokeToken(String token) {
+        VerifiedTokenCache.Entry verified = verify(token);
+        if (verified == null) {
+            return false;
+        }
+        revokedTokens.revoke(verified.getTokenId(), verified.getExpiresAt());
+        return true;
+    }
+
+    private Optional<VerifiedTokenCache.Entry> verifyNotRevoked(String token) {
+        VerifiedTokenCache.Entry verified = verify(token);
+        if (verified == null) {
+            return Optional.empty();
+        }
+        if (revokedTokens.isRevoked(verified.getTokenId())) {
+            this.securityMetersService.trackTokenRevoked();
+            return Optional.empty();
+        }
+        return Optional.of(verified);
+    }
+
+    /**
+     * @return the verified token, from the cache if it was already verified, or {@code null} if it is not valid.
+     */
+    private VerifiedTokenCache.Entry verify(String token) {
+        String key = VerifiedTokenCache.keyOf(token);
+        long now = System.currentTimeMillis();
+        VerifiedTokenCache.Entry cached = verifiedTokens.get(key, now);
+        if (cached != null) {
+            this.securityMetersService.trackTokenCacheHit();
+            return cached;
+        }
+        this.securityMetersService.trackTokenCacheMiss();
+
+        long start = System.nanoTime();
+        Optional<Claims> claims = parseValidClaims(token);
+        this.securityMetersService.recordTokenVerification(System.nanoTime() - start);
+        if (claims.isEmpty()) {
+            return null;
+        }
+        String subject = claims.get().getSubject();
+        List<GrantedAuthority> authorities = authoritiesOf(claims.get().get(AUTHORITIES_KEY).toString());
+        String tokenId = tokenIdOf(claims.get(), token);
+        Date expiration = claims.get().getExpiration();
+        if (expiration == null) {
+            // Not cached, and remembered as long as the longest lived tokens when revoked
+            return new VerifiedTokenCache.Entry(subject, authorities, tokenId, now + tokenValidityInMillisecondsForRememberMe);
+        }
+        return verifiedTokens.put(key, subject, authorities, tokenId, expiration.getTime());
+    }
+
+    /**
+     * The tokens issued before they had an id are identified by their digest.
+     */
+    private static String tokenIdOf(Claims claims, String token) {
+        return claims.getId() != null ? claims.getId() : VerifiedTokenCache.keyOf(token);
+    }
+
+    private Authentication toAuthentication(Claims claims, String token) {
+        return toAuthentication(claims.getSubject(), authoritiesOf(claims.get(AUTHORITIES_KEY).toString()), token);
+    }
+
+    private static Authentication toAuthentication(String subject, Collection<? extends GrantedAuthority> authorities, String token) {
+        User principal = new User(subject, "", authorities);
 
         return new UsernamePasswordAuthenticationToken(principal, token, authorities);
     }
 
-    public boolean validateToken(String authToken) {
-        try {
-            jwtParser.parseClaimsJws(authToken);
+    /**
+     * The few distinct authority claims are parsed once, and their authority instances shared by all the
+     * authentications.
+     */
+    private List<GrantedAuthority> authoritiesOf(String claim) {
+        List<GrantedAuthority> authorities = internedAuthorities.get(claim);
+        if (authorities == null) {
+            authorities =
+                Arrays
+                    .stream(claim.split(","))
+                    .filter(auth -> !auth.trim().isEmpty())
+                    .map(SimpleGrantedAuthority::new)
+                    .collect(Collectors.toUnmodifiableList());
+            if (internedAuthorities.size() < INTERNED_AUTHORITIES_SIZE) {
+                internedAuthorities.putIfAbsent(claim, authorities);
+            }
+        }
+        return authorities;
+    }
 
-            return true;
+    private Optional<Claims> parseValidClaims(String authToken) {
+        try {
+            return Optional.of(jwtParser.parseClaimsJws(authToken).getBody());
         } catch (ExpiredJwtException e) {
             this.securityMetersService.trackTokenExpired();
 
@@ -121,6 +295,6 @@ public class TokenProvider {
             log.error("Token validation error {}", e.getMessage());
         }
 
-        return false;
+        return Optional.empty();
     }
 }
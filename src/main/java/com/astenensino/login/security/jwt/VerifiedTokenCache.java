@@ -0,0 +1,155 @@
+package com.astenensino.login.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Bounded cache of what verified tokens say about their bearer, keyed by a SHA-256 digest of the token.
+ * <p>
+ * Only immutable values are cached, so that each request builds its own authentication from them. An entry is never
+ * served past the expiration of its token. Once the cache is full, the least recently used entry is evicted for each
+ * new one.
+ */
+class VerifiedTokenCache {
+
+    /**
+     * Number of independently locked parts of the cache, a power of two.
+     */
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    VerifiedTokenCache(int maximumSize) {
+        int maxEntriesPerStripe = Math.max(1, maximumSize / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(maxEntriesPerStripe);
+        }
+    }
+
+    static String keyOf(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the entry of the token, or {@code null} if it is not cached or has expired.
+     */
+    Entry get(String key, long now) {
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            Entry entry = stripe.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt <= now) {
+                stripe.remove(key);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    Entry put(String key, String subject, List<GrantedAuthority> authorities, String tokenId, long expiresAt) {
+        Entry entry = new Entry(subject, authorities, tokenId, expiresAt);
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            stripe.put(key, entry);
+        }
+        return entry;
+    }
+
+    void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripeOf(String key) {
+        return stripes[stripeIndexOf(key)];
+    }
+
+    /**
+     * Spreads the higher bits of the hash to the lower ones the stripe is chosen with, as {@link java.util.HashMap}
+     * does.
+     */
+    static int stripeIndexOf(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    static final class Entry {
+
+        private final String subject;
+
+        private final List<GrantedAuthority> authorities;
+
+        private final String tokenId;
+
+        private final long expiresAt;
+
+        Entry(String subject, List<GrantedAuthority> authorities, String tokenId, long expiresAt) {
+            this.subject = subject;
+            this.authorities = List.copyOf(authorities);
+            this.tokenId = tokenId;
+            this.expiresAt = expiresAt;
+        }
+
+        String getSubject() {
+            return subject;
+        }
+
+        List<GrantedAuthority> getAuthorities() {
+            return authorities;
+        }
+
+        String getTokenId() {
+            return tokenId;
+        }
+
+        long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+
+    /**
+     * A part of the cache, forgetting its least recently used entries beyond its size. Expired entries are seldom used,
+     * so they go first without being scanned for.
+     */
+    private static final class Stripe extends LinkedHashMap<String, Entry> {
+
+        private final int maxEntries;
+
+        private Stripe(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.astenensino.login.service;
+
+import com.astenensino.login.domain.Usuarios;
+import com.astenensino.login.repository.UsuariosRepository;
+import com.astenensino.login.security.AuthoritiesConstants;
+import com.astenensino.login.security.PasswordHashingExecutor;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Authenticates usuarios by their email and password.
+ * <p>
+ * Passwords are verified on the {@link PasswordHashingExecutor}, and the caller gets a future instead of waiting for
+ * the hashing. A password stored as plain text or with outdated hashing parameters is hashed again once verified.
+ */
+@Service
+public class AuthenticationService {
+
+    private final Logger log = LoggerFactory.getLogger(AuthenticationService.class);
+
+    private static final List<GrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER));
+
+    private final UsuariosRepository usuariosRepository;
+
+    private final UsuariosService usuariosService;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    private final Executor taskExecutor;
+
+    /**
+     * Hash verified for unknown emails, so that they take as long to reject as wrong passwords.
+     */
+    private final String unknownUsuariosPassword;
+
+    public AuthenticationService(
+        UsuariosRepository usuariosRepository,
+        UsuariosService usuariosService,
+        PasswordEncoder passwordEncoder,
+        PasswordHashingExecutor passwordHashingExecutor,
+        @Qualifier("taskExecutor") Executor taskExecutor
+    ) {
+        this.usuariosRepository = usuariosRepository;
+        this.usuariosService = usuariosService;
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.taskExecutor = taskExecutor;
+        this.unknownUsuariosPassword = passwordEncoder.encode("unknown-usuarios-password");
+    }
+
+    /**
+     * Verifies the password of the usuarios with the given email, ignoring case.
+     *
+     * @return the future authentication of the usuarios, failed with a {@link BadCredentialsException} if the email or
+     * the password is wrong.
+     * @throws RejectedExecutionException if the password hashing executor is saturated.
+     */
+    public CompletableFuture<Authentication> authenticate(String email, String password) {
+        log.debug("Authenticating {}", email);
+        Optional<Usuarios> usuarios = usuariosRepository.findByEmail(email);
+        String storedPassword = usuarios.map(Usuarios::getPassword).orElse(unknownUsuariosPassword);
+        return CompletableFuture
+            .supplyAsync(() -> verify(password, storedPassword), passwordHashingExecutor)
+            .thenApplyAsync(
+                rehashedPassword -> {
+                    Usuarios authenticated = usuarios.orElseThrow(() -> new BadCredentialsException("Bad credentials"));
+                    rehashedPassword.ifPresent(newPassword -> upgradePassword(authenticated, newPassword));
+                    return new UsernamePasswordAuthenticationToken(new User(authenticated.getEmail(), "", AUTHORITIES), null, AUTHORITIES);
+                },
+                taskExecutor
+            );
+    }
+
+    /**
+     * @return the password hashed again if its stored form has to be upgraded.
+     */
+    private Optional<String> verify(String password, String storedPassword) {
+        if (!passwordEncoder.matches(password, storedPassword)) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+        if (storedPassword != null && passwordEncoder.upgradeEncoding(storedPassword)) {
+            return Optional.of(passwordEncoder.encode(password));
+        }
+        return Optional.empty();
+    }
+
+    private void upgradePassword(Usuarios usuarios, String newPassword) {
+        // The password is left alone if it was changed while being verified
+        if (usuariosRepository.updatePassword(usuarios.getId(), usuarios.getPassword(), newPassword) > 0) {
+            log.debug("Upgraded the password hash of Usuarios : {}", usuarios.getId());
+            usuariosService.clearUsuariosCaches(usuarios.getId(), null);
+        }
+    }
+}
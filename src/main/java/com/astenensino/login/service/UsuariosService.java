@@ -0,0 +1,486 @@
+package com.astenensino.login.service;
+
+import com.astenensino.login.domain.Usuarios;
+import com.astenensino.login.repository.UsuariosEmailProjection;
+import com.astenensino.login.repository.UsuariosRepository;
+import com.astenensino.login.security.PasswordHashingExecutor;
+import com.astenensino.login.service.dto.UsuariosBulkResultDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service Implementation for managing {@link Usuarios}.
+ */
+@Service
+@Transactional
+public class UsuariosService {
+
+    private final Logger log = LoggerFactory.getLogger(UsuariosService.class);
+
+    private static final String CSV_HEADER = "id,email";
+
+    /**
+     * Number of exported rows after which the persistence context is cleared, so that heap use stays flat.
+     */
+    private static final int EXPORT_CLEAR_INTERVAL = Integer.parseInt(UsuariosRepository.STREAM_FETCH_SIZE);
+
+    /**
+     * Number of usuarios saved per transaction by a bulk save, a multiple of {@code hibernate.jdbc.batch_size} so that
+     * every JDBC batch is full.
+     */
+    public static final int BULK_CHUNK_SIZE = 500;
+
+    public static final String CACHE_LOAD_METER_NAME = "cache.load.duration";
+    public static final String CACHE_LOAD_METER_DESCRIPTION = "Time spent loading from the database an entry missing from the cache.";
+    public static final String CACHE_LOAD_METER_CACHE_DIMENSION = "cache";
+
+    private final UsuariosRepository usuariosRepository;
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate bulkTransactionTemplate;
+
+    private final CacheManager cacheManager;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    private final Timer loadByIdTimer;
+
+    private final Timer loadByEmailTimer;
+
+    public UsuariosService(
+        UsuariosRepository usuariosRepository,
+        EntityManager entityManager,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager,
+        CacheManager cacheManager,
+        PasswordEncoder passwordEncoder,
+        PasswordHashingExecutor passwordHashingExecutor,
+        MeterRegistry meterRegistry
+    ) {
+        this.usuariosRepository = usuariosRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.bulkTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.bulkTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.cacheManager = cacheManager;
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.loadByIdTimer = cacheLoadTimer(UsuariosRepository.USUARIOS_BY_ID_CACHE).register(meterRegistry);
+        this.loadByEmailTimer = cacheLoadTimer(UsuariosRepository.USUARIOS_BY_EMAIL_CACHE).register(meterRegistry);
+    }
+
+    private static Timer.Builder cacheLoadTimer(String cacheName) {
+        return Timer
+            .builder(CACHE_LOAD_METER_NAME)
+            .description(CACHE_LOAD_METER_DESCRIPTION)
+            .tag(CACHE_LOAD_METER_CACHE_DIMENSION, cacheName);
+    }
+
+    /**
+     * Get one usuarios by id, through the {@link UsuariosRepository#USUARIOS_BY_ID_CACHE} cache.
+     *
+     * @param id the id of the entity.
+     * @return the entity.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = UsuariosRepository.USUARIOS_BY_ID_CACHE, unless = "#result == null")
+    public Optional<Usuarios> findOne(Long id) {
+        log.debug("Request to load Usuarios : {}", id);
+        return loadByIdTimer.record(() -> usuariosRepository.findOneById(id));
+    }
+
+    /**
+     * Get the id and email of the usuarios with the given email, ignoring case, through the
+     * {@link UsuariosRepository#USUARIOS_BY_EMAIL_CACHE} cache keyed by the email in lower case.
+     *
+     * @param email the email of the entity.
+     * @return the id and email of the entity.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(
+        cacheNames = UsuariosRepository.USUARIOS_BY_EMAIL_CACHE,
+        key = "#email.toLowerCase(T(java.util.Locale).ROOT)",
+        unless = "#result == null"
+    )
+    public Optional<UsuariosEmailProjection> findOneByEmail(String email) {
+        log.debug("Request to load Usuarios by email : {}", email);
+        return loadByEmailTimer.record(() -> usuariosRepository.findProjectionByEmail(email));
+    }
+
+    /**
+     * Reloads one usuarios by id from the database, replacing the entry of the
+     * {@link UsuariosRepository#USUARIOS_BY_ID_CACHE} cache.
+     *
+     * @param id the id of the entity.
+     * @return the entity.
+     */
+    @Transactional(readOnly = true)
+    @CachePut(cacheNames = UsuariosRepository.USUARIOS_BY_ID_CACHE, unless = "#result == null")
+    public Optional<Usuarios> reloadOne(Long id) {
+        log.debug("Request to reload Usuarios : {}", id);
+        return loadByIdTimer.record(() -> usuariosRepository.findOneById(id));
+    }
+
+    /**
+     * Evicts a usuarios from the caches. Inside a transaction, the eviction happens once it commits.
+     *
+     * @param id the id of the usuarios.
+     * @param email the email of the usuarios before it is changed, if any.
+     */
+    public void clearUsuariosCaches(Long id, String email) {
+        Objects.requireNonNull(cacheManager.getCache(UsuariosRepository.USUARIOS_BY_ID_CACHE)).evict(id);
+        if (email != null) {
+            Objects.requireNonNull(cacheManager.getCache(UsuariosRepository.USUARIOS_BY_EMAIL_CACHE)).evict(lowerCase(email));
+        }
+    }
+
+    /**
+     * Hashes a password on the {@link PasswordHashingExecutor}, waiting for the hash. Call it before the transaction of
+     * the write starts, so that no database connection is held meanwhile.
+     *
+     * @param password the password in plain text, if any.
+     * @return the hashed password, or {@code null} if there is no password.
+     * @throws RejectedExecutionException if the password hashing executor is saturated.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String encodePassword(String password) {
+        if (password == null) {
+            return null;
+        }
+        return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(password), passwordHashingExecutor).join();
+    }
+
+    /**
+     * Saves the usuarios read from a JSON array or from newline-delimited JSON.
+     * <p>
+     * Usuarios are read and saved by chunks of {@link #BULK_CHUNK_SIZE}, each one in its own transaction with batched
+     * inserts. When a chunk fails, its usuarios are saved one by one so that only the faulty ones are reported as failed.
+     * When upserting, the usuarios with the email of an existing one, ignoring case, update its password instead of being
+     * created, and only the last of the usuarios sharing an email within a chunk is saved.
+     * <p>
+     * Passwords are hashed on the {@link PasswordHashingExecutor} before each chunk transaction, no more at a time
+     * than it has threads so that the logins still find room in its queue. The usuarios whose password cannot be
+     * hashed, the executor being saturated, are reported as failed.
+     *
+     * @param in the JSON input.
+     * @param upsert whether to update the existing usuarios with the same email.
+     * @return the result of each usuarios, in input order. If the input is malformed, the last result reports it and the
+     * remaining input is ignored.
+     * @throws IOException if reading the input fails.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<UsuariosBulkResultDTO> bulkSave(InputStream in, boolean upsert) throws IOException {
+        log.debug("Request to bulk save Usuarios, upsert: {}", upsert);
+        List<UsuariosBulkResultDTO> results = new ArrayList<>();
+        List<Usuarios> chunk = new ArrayList<>(BULK_CHUNK_SIZE);
+        UsuariosBulkResultDTO malformed = null;
+        try (MappingIterator<Usuarios> iterator = objectMapper.readerFor(Usuarios.class).readValues(in)) {
+            while (iterator.hasNextValue()) {
+                chunk.add(iterator.nextValue());
+                if (chunk.size() == BULK_CHUNK_SIZE) {
+                    results.addAll(saveChunk(chunk, results.size(), upsert));
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            malformed = failed(results.size() + chunk.size(), "Malformed usuarios: " + e.getOriginalMessage());
+        }
+        results.addAll(saveChunk(chunk, results.size(), upsert));
+        if (malformed != null) {
+            results.add(malformed);
+        }
+        return results;
+    }
+
+    private List<UsuariosBulkResultDTO> saveChunk(List<Usuarios> chunk, long firstIndex, boolean upsert) {
+        UsuariosBulkResultDTO[] results = new UsuariosBulkResultDTO[chunk.size()];
+        Map<String, Integer> lastPositionByEmail = new HashMap<>();
+        for (int position = 0; position < chunk.size(); position++) {
+            Usuarios usuarios = chunk.get(position);
+            if (usuarios.getId() != null) {
+                results[position] = failed(firstIndex + position, "A new usuarios cannot already have an ID");
+            } else if (upsert && usuarios.getEmail() == null) {
+                results[position] = failed(firstIndex + position, "An upserted usuarios must have an email");
+            } else if (upsert) {
+                lastPositionByEmail.put(lowerCase(usuarios.getEmail()), position);
+            }
+        }
+
+        List<Usuarios> items = new ArrayList<>(chunk.size());
+        List<Integer> positions = new ArrayList<>(chunk.size());
+        for (int position = 0; position < chunk.size(); position++) {
+            Usuarios usuarios = chunk.get(position);
+            if (results[position] != null) {
+                continue;
+            }
+            Integer lastPosition = upsert ? lastPositionByEmail.get(lowerCase(usuarios.getEmail())) : null;
+            if (lastPosition != null && lastPosition != position) {
+                String message = "Superseded by the usuarios at index " + (firstIndex + lastPosition);
+                results[position] = new UsuariosBulkResultDTO(firstIndex + position, null, UsuariosBulkResultDTO.Status.SKIPPED, message);
+            } else {
+                items.add(usuarios);
+                positions.add(position);
+            }
+        }
+
+        BitSet rejected = encodePasswords(items);
+        if (!rejected.isEmpty()) {
+            List<Usuarios> encodedItems = new ArrayList<>(items.size());
+            List<Integer> encodedPositions = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                if (rejected.get(i)) {
+                    results[positions.get(i)] = failed(firstIndex + positions.get(i), "The password could not be hashed, retry later");
+                } else {
+                    encodedItems.add(items.get(i));
+                    encodedPositions.add(positions.get(i));
+                }
+            }
+            items = encodedItems;
+            positions = encodedPositions;
+        }
+
+        try {
+            List<Boolean> created = saveAll(items, upsert);
+            for (int i = 0; i < items.size(); i++) {
+                results[positions.get(i)] = saved(firstIndex + positions.get(i), items.get(i), created.get(i));
+            }
+        } catch (DataAccessException | TransactionException e) {
+            log.debug("Bulk save of {} Usuarios failed, saving them one by one: {}", items.size(), e.getMessage());
+            for (int i = 0; i < items.size(); i++) {
+                Usuarios usuarios = items.get(i);
+                long index = firstIndex + positions.get(i);
+                // The id and version set by the rolled back transaction are not valid anymore. Left set, the version
+                // would have the usuarios merged as an existing one, its copy getting the id
+                usuarios.setId(null);
+                usuarios.setVersion(null);
+                try {
+                    results[positions.get(i)] = saved(index, usuarios, saveAll(List.of(usuarios), upsert).get(0));
+                } catch (DataIntegrityViolationException itemException) {
+                    log.debug("Bulk save of Usuarios at index {} failed: {}", index, itemException.getMessage());
+                    results[positions.get(i)] = failed(index, "The usuarios violates a constraint, its email may already be in use");
+                } catch (DataAccessException | TransactionException itemException) {
+                    log.debug("Bulk save of Usuarios at index {} failed: {}", index, itemException.getMessage());
+                    results[positions.get(i)] = failed(index, "The usuarios could not be saved");
+                }
+            }
+        }
+        // The chunk transactions have committed by now, so the updated usuarios can be evicted right away. The native
+        // upsert bypasses Hibernate, so they are evicted from the second-level cache as well
+        for (int i = 0; i < items.size(); i++) {
+            if (results[positions.get(i)].getStatus() == UsuariosBulkResultDTO.Status.UPDATED) {
+                clearUsuariosCaches(items.get(i).getId(), items.get(i).getEmail());
+                entityManager.getEntityManagerFactory().getCache().evict(Usuarios.class, items.get(i).getId());
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Replaces the passwords of the given usuarios with their hashes, keeping at most as many hashings in flight as the
+     * {@link PasswordHashingExecutor} has threads.
+     *
+     * @return the positions of the usuarios whose password could not be hashed, the executor being saturated.
+     */
+    private BitSet encodePasswords(List<Usuarios> items) {
+        BitSet rejected = new BitSet(items.size());
+        Deque<CompletableFuture<Void>> inFlight = new ArrayDeque<>();
+        for (int i = 0; i < items.size(); i++) {
+            Usuarios usuarios = items.get(i);
+            if (usuarios.getPassword() == null) {
+                continue;
+            }
+            if (inFlight.size() >= passwordHashingExecutor.getPoolSize()) {
+                inFlight.removeFirst().join();
+            }
+            try {
+                String password = usuarios.getPassword();
+                inFlight.addLast(
+                    CompletableFuture.runAsync(() -> usuarios.setPassword(passwordEncoder.encode(password)), passwordHashingExecutor)
+                );
+            } catch (RejectedExecutionException e) {
+                rejected.set(i);
+            }
+        }
+        inFlight.forEach(CompletableFuture::join);
+        return rejected;
+    }
+
+    /**
+     * Saves the given usuarios in a new transaction, setting their id.
+     *
+     * @return for each usuarios, whether it was created rather than updated.
+     */
+    private List<Boolean> saveAll(List<Usuarios> items, boolean upsert) {
+        return bulkTransactionTemplate.execute(status -> {
+            if (upsert && usuariosRepository.supportsBulkUpsert()) {
+                return usuariosRepository.upsertAllByEmail(items);
+            }
+            Map<String, Usuarios> existingByEmail = new HashMap<>();
+            if (upsert) {
+                List<String> emails = items.stream().map(usuarios -> lowerCase(usuarios.getEmail())).collect(Collectors.toList());
+                usuariosRepository
+                    .findAllByLowerCaseEmailIn(emails)
+                    .forEach(existing -> existingByEmail.put(lowerCase(existing.getEmail()), existing));
+            }
+            List<Boolean> created = new ArrayList<>(items.size());
+            for (Usuarios usuarios : items) {
+                Usuarios existing = upsert ? existingByEmail.get(lowerCase(usuarios.getEmail())) : null;
+                if (existing == null) {
+                    usuariosRepository.save(usuarios);
+                    created.add(true);
+                } else {
+                    existing.setPassword(usuarios.getPassword());
+                    usuarios.setId(existing.getId());
+                    created.add(false);
+                }
+            }
+            usuariosRepository.flush();
+            entityManager.clear();
+            return created;
+        });
+    }
+
+    private static String lowerCase(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private static UsuariosBulkResultDTO saved(long index, Usuarios usuarios, boolean created) {
+        UsuariosBulkResultDTO.Status status = created ? UsuariosBulkResultDTO.Status.CREATED : UsuariosBulkResultDTO.Status.UPDATED;
+        return new UsuariosBulkResultDTO(index, usuarios.getId(), status, null);
+    }
+
+    private static UsuariosBulkResultDTO failed(long index, String message) {
+        return new UsuariosBulkResultDTO(index, null, UsuariosBulkResultDTO.Status.FAILED, message);
+    }
+
+    /**
+     * Writes the id and email of all the usuarios as newline-delimited JSON, one object per line.
+     * <p>
+     * Rows are streamed from a database cursor: if writing fails, for instance because the client went away, the
+     * cursor is closed and the query is abandoned.
+     *
+     * @param out the stream to write to.
+     * @throws IOException if writing fails.
+     */
+    @Transactional(readOnly = true)
+    public void exportAsNdjson(OutputStream out) throws IOException {
+        log.debug("Request to export all Usuarios as NDJSON");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Leave the buffering to the writer rather than flushing the response after every row
+            generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            generator.setRootValueSeparator(null);
+            // The fields are written one by one, so that the password, or any field added later, is never exported
+            export(usuarios -> {
+                generator.writeStartObject();
+                generator.writeObjectField("id", usuarios.getId());
+                generator.writeStringField("email", usuarios.getEmail());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            });
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes the id and email of all the usuarios as CSV, with a header line.
+     * <p>
+     * Rows are streamed from a database cursor: if writing fails, for instance because the client went away, the
+     * cursor is closed and the query is abandoned.
+     *
+     * @param out the stream to write to.
+     * @throws IOException if writing fails.
+     */
+    @Transactional(readOnly = true)
+    public void exportAsCsv(OutputStream out) throws IOException {
+        log.debug("Request to export all Usuarios as CSV");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        export(usuarios -> {
+            writer.write(String.valueOf(usuarios.getId()));
+            writer.write(',');
+            writer.write(csvField(usuarios.getEmail()));
+            writer.write('\n');
+        });
+        writer.flush();
+    }
+
+    private void export(RowWriter rowWriter) throws IOException {
+        try (Stream<Usuarios> stream = usuariosRepository.streamAllByOrderById()) {
+            Iterator<Usuarios> iterator = stream.iterator();
+            long count = 0;
+            while (iterator.hasNext()) {
+                rowWriter.write(iterator.next());
+                if (++count % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+            log.debug("Exported {} Usuarios", count);
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(Usuarios usuarios) throws IOException;
+    }
+}
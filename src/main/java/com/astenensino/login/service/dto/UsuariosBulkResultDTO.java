@@ -0,0 +1,100 @@
+package com.astenensino.login.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * The outcome of one item of a bulk save of {@link com.astenensino.login.domain.Usuarios}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UsuariosBulkResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        SKIPPED,
+        FAILED,
+    }
+
+    private long index;
+
+    private Long id;
+
+    private Status status;
+
+    private String message;
+
+    public UsuariosBulkResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public UsuariosBulkResultDTO(long index, Long id, Status status, String message) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.message = message;
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public void setIndex(long index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UsuariosBulkResultDTO)) {
+            return false;
+        }
+        UsuariosBulkResultDTO that = (UsuariosBulkResultDTO) o;
+        return index == that.index && Objects.equals(id, that.id) && status == that.status && Objects.equals(message, that.message);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(index, id, status, message);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UsuariosBulkResultDTO{" +
+            "index=" + getIndex() +
+            ", id=" + getId() +
+            ", status='" + getStatus() + "'" +
+            ", message='" + getMessage() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Data transfer objects.
+ */
+package com.astenensino.login.service.dto;
@@ -0,0 +1,176 @@
+package com.astenensino.login.web.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The number of requests that can be processed at once, learnt from their latency.
+ * <p>
+ * While the requests take about as long as they usually do, the limit grows by its square root at each sample, and as
+ * they start to queue somewhere and take longer, it shrinks in proportion, by half at most (the gradient algorithm).
+ * The usual latency is an average over many samples, which forgets an overload quickly once it is over. Samples taken
+ * while less than half the limit was in use say nothing about the limit, and leave it as it is.
+ * <p>
+ * Each {@link Priority} can only use a share of the limit, so that the least important requests are the first shed.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    public static final String LIMIT_METER_NAME = "http.server.requests.concurrency-limit";
+    public static final String LIMIT_METER_DESCRIPTION = "The number of requests that can be processed at once.";
+
+    public static final String IN_FLIGHT_METER_NAME = "http.server.requests.in-flight";
+    public static final String IN_FLIGHT_METER_DESCRIPTION = "The number of requests being processed.";
+
+    public static final String SHED_METER_NAME = "http.server.requests.shed";
+    public static final String SHED_METER_DESCRIPTION = "Indicates the count of the requests rejected as the concurrency limit was reached.";
+    public static final String SHED_METER_BASE_UNIT = "requests";
+    public static final String SHED_METER_PRIORITY_DIMENSION = "priority";
+
+    /**
+     * Number of samples the usual latency is averaged over.
+     */
+    private static final double LONG_WINDOW = 600;
+
+    /**
+     * Number of samples the current latency is averaged over.
+     */
+    private static final double SHORT_WINDOW = 10;
+
+    /**
+     * How much longer than usual the requests can take before the limit shrinks.
+     */
+    private static final double TOLERANCE = 1.5;
+
+    /**
+     * Weight of each new estimate in the limit.
+     */
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * The requests, from the first to the last shed, with the share of the limit they can use.
+     */
+    public enum Priority {
+        READ(1.0),
+        WRITE(0.8),
+        BULK(0.5);
+
+        private final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+    }
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+
+    /**
+     * The limit before being rounded, guarded by this.
+     */
+    private double estimatedLimit;
+
+    /**
+     * The usual and current latencies in nanoseconds, guarded by this.
+     */
+    private double longRtt;
+
+    private double shortRtt;
+
+    private final Map<Priority, Counter> shedCounters = new EnumMap<>(Priority.class);
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, MeterRegistry registry) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+        Gauge.builder(LIMIT_METER_NAME, this, AdaptiveConcurrencyLimit::getLimit).description(LIMIT_METER_DESCRIPTION).register(registry);
+        Gauge
+            .builder(IN_FLIGHT_METER_NAME, this, AdaptiveConcurrencyLimit::getInFlight)
+            .description(IN_FLIGHT_METER_DESCRIPTION)
+            .register(registry);
+        for (Priority priority : Priority.values()) {
+            shedCounters.put(
+                priority,
+                Counter
+                    .builder(SHED_METER_NAME)
+                    .baseUnit(SHED_METER_BASE_UNIT)
+                    .description(SHED_METER_DESCRIPTION)
+                    .tag(SHED_METER_PRIORITY_DIMENSION, priority.name().toLowerCase())
+                    .register(registry)
+            );
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Admits a request if its priority's share of the limit is not all in use.
+     *
+     * @return the number of requests in flight once it is admitted, to be given back to {@link #release}, or
+     * {@code -1} if it is rejected.
+     */
+    public int tryAcquire(Priority priority) {
+        int admitted = Math.max(1, (int) (limit * priority.share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= admitted) {
+                shedCounters.get(priority).increment();
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Releases an admitted request, learning from its latency if it was processed.
+     *
+     * @param inFlightWhenAdmitted the value returned by {@link #tryAcquire}.
+     * @param rttNanos the latency of the request, or a negative value if it tells nothing about the load, such as
+     * for a request which failed or continues asynchronously.
+     */
+    public void release(int inFlightWhenAdmitted, long rttNanos) {
+        inFlight.decrementAndGet();
+        if (rttNanos >= 0) {
+            onSample(inFlightWhenAdmitted, Math.max(1, rttNanos));
+        }
+    }
+
+    private synchronized void onSample(int inFlightWhenAdmitted, long rttNanos) {
+        if (longRtt == 0) {
+            longRtt = rttNanos;
+            shortRtt = rttNanos;
+        }
+        shortRtt += (rttNanos - shortRtt) / SHORT_WINDOW;
+        longRtt += (rttNanos - longRtt) / LONG_WINDOW;
+        if (longRtt > 2 * shortRtt) {
+            // Recovering from an overload, whose latency should not be the usual one for long
+            longRtt *= 0.95;
+        }
+        if (inFlightWhenAdmitted < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,144 @@
+package com.astenensino.login.web.filter;
+
+import com.astenensino.login.web.filter.AdaptiveConcurrencyLimit.Priority;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Rejects the {@code /api/**} requests beyond the {@link AdaptiveConcurrencyLimit concurrency limit} with a
+ * {@code 503}, before they take a thread any further, a connection or a place in a queue.
+ * <p>
+ * Reads are the last requests shed, and bulk operations the first. The other requests, such as the management
+ * endpoints, are never limited: they must answer most of all when the service is overloaded. Neither are the event
+ * streams, which stay open for as long as their client listens and would each hold a place for that long.
+ * <p>
+ * An asynchronous request keeps its place until its response is complete, not only until its first dispatch returns.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    /**
+     * Seconds after which a rejected request can be retried, as the limit adapts within a few requests.
+     */
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    private static final RequestMatcher API_REQUESTS = new AntPathRequestMatcher("/api/**");
+
+    private static final RequestMatcher STREAM_REQUESTS = new AntPathRequestMatcher("/api/**/register");
+
+    private static final RequestMatcher BULK_REQUESTS = new OrRequestMatcher(
+        new AntPathRequestMatcher("/api/**/_bulk"),
+        new AntPathRequestMatcher("/api/**/_export"),
+        new AntPathRequestMatcher("/api/**/publish")
+    );
+
+    private final AdaptiveConcurrencyLimit limit;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimit limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !API_REQUESTS.matches(request) || STREAM_REQUESTS.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        int inFlight = limit.tryAcquire(priorityOf(request));
+        if (inFlight < 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean dispatched = false;
+        try {
+            filterChain.doFilter(request, response);
+            dispatched = true;
+        } finally {
+            if (!dispatched) {
+                limit.release(inFlight, -1);
+            }
+        }
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new AsyncRelease(inFlight, start));
+        } else {
+            limit.release(inFlight, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Releases the place of an asynchronous request once, when it completes, learning from its latency unless it
+     * timed out or failed.
+     */
+    private final class AsyncRelease implements AsyncListener {
+
+        private final int inFlight;
+
+        private final long start;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private AsyncRelease(int inFlight, long start) {
+            this.inFlight = inFlight;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(System.nanoTime() - start);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release(-1);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release(-1);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Restarting the asynchronous processing drops the listeners, and the dispatch restarting it is not filtered
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release(long rtt) {
+            if (released.compareAndSet(false, true)) {
+                limit.release(inFlight, rtt);
+            }
+        }
+    }
+
+    static Priority priorityOf(HttpServletRequest request) {
+        if (BULK_REQUESTS.matches(request)) {
+            return Priority.BULK;
+        }
+        String method = request.getMethod();
+        if (
+            HttpMethod.GET.matches(method) ||
+            HttpMethod.HEAD.matches(method) ||
+            HttpMethod.OPTIONS.matches(method)
+        ) {
+            return Priority.READ;
+        }
+        return Priority.WRITE;
+    }
+}
@@ -0,0 +1,98 @@
+package com.astenensino.login.web.filter;
+
+import com.astenensino.login.deadline.RequestDeadline;
+import io.undertow.server.ServerConnection;
+import io.undertow.servlet.handlers.ServletRequestContext;
+import io.undertow.util.AttachmentKey;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Binds the {@link RequestDeadline deadline} its caller gives a request with the {@value RequestDeadline#HEADER}
+ * header to the thread processing it, and answers a request whose deadline has already passed with a {@code 504}
+ * without processing it.
+ * <p>
+ * The deadline is cancelled as soon as Undertow reports the connection of the request closed. Undertow only notices
+ * it when reading from the connection, such as a reset HTTP/2 stream: the deadline itself is what bounds the work of
+ * the other requests whose caller has gone.
+ */
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    private final Logger log = LoggerFactory.getLogger(RequestDeadlineFilter.class);
+
+    /**
+     * The deadline of the request being processed on a connection, with the listener cancelling it once the
+     * connection is closed. Registered once per connection, as a connection lives as long as all its requests.
+     */
+    private static final AttachmentKey<AtomicReference<RequestDeadline>> CONNECTION_DEADLINE = AttachmentKey.create(AtomicReference.class);
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        String timeout = request.getHeader(RequestDeadline.HEADER);
+        if (timeout == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long timeoutMillis;
+        try {
+            timeoutMillis = Long.parseLong(timeout.trim());
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring the malformed request timeout {}", timeout);
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (timeoutMillis <= 0) {
+            response.setStatus(HttpStatus.GATEWAY_TIMEOUT.value());
+            return;
+        }
+
+        RequestDeadline deadline = new RequestDeadline(Duration.ofMillis(timeoutMillis));
+        AtomicReference<RequestDeadline> connectionDeadline = connectionDeadline();
+        if (connectionDeadline != null) {
+            connectionDeadline.set(deadline);
+        }
+        try (RequestDeadline.Scope scope = deadline.bind()) {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (connectionDeadline != null) {
+                connectionDeadline.compareAndSet(deadline, null);
+            }
+        }
+    }
+
+    /**
+     * @return the deadline holder of the Undertow connection of the current request, or {@code null} if not run by
+     * Undertow.
+     */
+    private static AtomicReference<RequestDeadline> connectionDeadline() {
+        ServletRequestContext context = ServletRequestContext.current();
+        if (context == null) {
+            return null;
+        }
+        ServerConnection connection = context.getExchange().getConnection();
+        AtomicReference<RequestDeadline> connectionDeadline = connection.getAttachment(CONNECTION_DEADLINE);
+        if (connectionDeadline == null) {
+            AtomicReference<RequestDeadline> created = new AtomicReference<>();
+            connection.putAttachment(CONNECTION_DEADLINE, created);
+            // Called on an I/O thread, which must not wait for the cancellations
+            connection.addCloseListener(closed -> {
+                RequestDeadline deadline = created.get();
+                if (deadline != null) {
+                    closed.getWorker().execute(deadline::cancel);
+                }
+            });
+            connectionDeadline = created;
+        }
+        return connectionDeadline;
+    }
+}
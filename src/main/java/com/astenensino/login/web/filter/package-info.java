@@ -0,0 +1,4 @@
+/**
+ * Servlet filters applied to the requests before they are dispatched.
+ */
+package com.astenensino.login.web.filter;
@@ -1,80 +1,226 @@
 package com.astenensino.login.web.rest;
 
-import static org.springframework.web.servlet.mvc.method.annotation.SseEmitter.event;
-
 import com.astenensino.login.config.KafkaSseConsumer;
 import com.astenensino.login.config.KafkaSseProducer;
+import com.astenensino.login.web.rest.errors.BadRequestAlertException;
+import com.astenensino.login.web.rest.vm.PublishMessageVM;
+import com.astenensino.login.web.sse.SseEvent;
+import com.astenensino.login.web.sse.SseHub;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cloud.stream.annotation.StreamListener;
-import org.springframework.http.MediaType;
+import org.springframework.http.HttpStatus;
+import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHeaders;
-import org.springframework.messaging.support.GenericMessage;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
-import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/asten-ensino-kafka")
 public class AstenEnsinoKafkaResource {
 
     private final Logger log = LoggerFactory.getLogger(AstenEnsinoKafkaResource.class);
+
+    private static final String ENTITY_NAME = "sse";
+
+    /**
+     * Number of channels a stream can subscribe to.
+     */
+    static final int MAX_CHANNELS = 32;
+
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    /**
+     * Number of messages that can be published in one request.
+     */
+    static final int MAX_BULK_MESSAGES = 1000;
+
+    /**
+     * Position of the partition in the event ids, leaving the offsets below it.
+     */
+    static final int PARTITION_SHIFT = 48;
+
     private final MessageChannel output;
 
-    // TODO implement state of the art emitter repository to become 12 factor
-    private Map<String, SseEmitter> emitters = new HashMap<>();
+    private final SseHub sseHub;
+
+    private final ObjectReader publishMessageReader;
 
-    public AstenEnsinoKafkaResource(@Qualifier(KafkaSseProducer.CHANNELNAME) MessageChannel output) {
+    public AstenEnsinoKafkaResource(
+        @Qualifier(KafkaSseProducer.CHANNELNAME) MessageChannel output,
+        SseHub sseHub,
+        ObjectMapper objectMapper
+    ) {
         this.output = output;
+        this.sseHub = sseHub;
+        this.publishMessageReader = objectMapper.readerFor(PublishMessageVM.class);
     }
 
+    /**
+     * {@code POST  /publish} : Sends a message to the Kafka topic, to be pushed to the streams it is for.
+     * <p>
+     * The message is only handed over to the producer, which sends it in a batch with the next ones.
+     *
+     * @param message the message.
+     * @param channel the channel of the message, whose subscribers only get it, if any.
+     * @param user the user who only gets the message, if any.
+     */
     @PostMapping("/publish")
-    public void publish(@RequestParam String message) {
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void publish(
+        @RequestParam String message,
+        @RequestParam(required = false) String channel,
+        @RequestParam(required = false) String user
+    ) {
         log.debug("REST request the message : {} to send to Kafka topic ", message);
-        Map<String, Object> map = new HashMap<>();
-        map.put(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.TEXT_PLAIN_VALUE);
-        MessageHeaders headers = new MessageHeaders(map);
-        output.send(new GenericMessage<>(message, headers));
+        send(message, channel, user);
     }
 
+    /**
+     * {@code POST  /publish/_bulk} : Sends many messages to the Kafka topic, in order.
+     * <p>
+     * The messages are read from a JSON array or from newline-delimited JSON, and all checked before any is sent.
+     *
+     * @param request the request, whose body holds the messages.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/publish/_bulk", consumes = { "application/json", "application/x-ndjson" })
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void publishBulk(HttpServletRequest request) throws IOException {
+        List<PublishMessageVM> messages = new ArrayList<>();
+        try (MappingIterator<PublishMessageVM> iterator = publishMessageReader.readValues(request.getInputStream())) {
+            while (iterator.hasNextValue()) {
+                PublishMessageVM message = iterator.nextValue();
+                if (message.getMessage() == null) {
+                    throw new BadRequestAlertException("Message " + messages.size() + " has no message", ENTITY_NAME, "messagenull");
+                }
+                if (messages.size() == MAX_BULK_MESSAGES) {
+                    throw new BadRequestAlertException(
+                        "At most " + MAX_BULK_MESSAGES + " messages can be published at once",
+                        ENTITY_NAME,
+                        "toomanymessages"
+                    );
+                }
+                messages.add(message);
+            }
+        } catch (JsonProcessingException e) {
+            throw new BadRequestAlertException("Malformed message: " + e.getOriginalMessage(), ENTITY_NAME, "messagemalformed");
+        }
+        log.debug("REST request to send {} messages to Kafka topic", messages.size());
+        messages.forEach(message -> send(message.getMessage(), message.getChannel(), message.getUser()));
+    }
+
+    private void send(String message, String channel, String user) {
+        MessageBuilder<String> builder = MessageBuilder
+            .withPayload(message)
+            .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.TEXT_PLAIN_VALUE);
+        if (channel != null) {
+            builder.setHeader(SseEvent.CHANNEL_HEADER, channel);
+        }
+        if (user != null) {
+            builder.setHeader(SseEvent.USER_HEADER, user);
+        }
+        output.send(builder.build());
+    }
+
+    /**
+     * {@code GET  /register} : Opens a stream of the messages for the current user, and of the given channels.
+     *
+     * @param channels the channels to subscribe to.
+     * @param lastEventId the id of the last message got, when reopening a stream, to get the messages missed since.
+     */
     @GetMapping("/register")
-    public ResponseBodyEmitter register(Principal principal) {
-        log.debug("Registering sse client for {}", principal.getName());
-        SseEmitter emitter = new SseEmitter();
-        emitter.onCompletion(() -> emitters.remove(emitter));
-        emitters.put(principal.getName(), emitter);
-        return emitter;
+    public ResponseBodyEmitter register(
+        Principal principal,
+        @RequestParam(name = "channel", required = false) List<String> channels,
+        @RequestHeader(name = LAST_EVENT_ID_HEADER, required = false) String lastEventId
+    ) {
+        log.debug("Registering sse client for {} on channels {}", principal.getName(), channels);
+        if (channels != null && channels.size() > MAX_CHANNELS) {
+            throw new BadRequestAlertException(
+                "A stream can subscribe to " + MAX_CHANNELS + " channels at most",
+                ENTITY_NAME,
+                "toomanychannels"
+            );
+        }
+        return sseHub.connect(principal.getName(), channels == null ? Set.of() : Set.copyOf(channels), parseEventId(lastEventId));
     }
 
     @GetMapping("/unregister")
     public void unregister(Principal principal) {
         String user = principal.getName();
         log.debug("Unregistering sse emitter for user: {}", user);
-        Optional.ofNullable(emitters.get(user)).ifPresent(ResponseBodyEmitter::complete);
+        sseHub.disconnect(user);
     }
 
     @StreamListener(value = KafkaSseConsumer.CHANNELNAME, copyHeaders = "false")
     public void consume(Message<String> message) {
         log.debug("Got message from kafka stream: {}", message.getPayload());
-        emitters
-            .entrySet()
-            .stream()
-            .map(Map.Entry::getValue)
-            .forEach((SseEmitter emitter) -> {
-                try {
-                    emitter.send(event().data(message.getPayload(), MediaType.TEXT_PLAIN));
-                } catch (IOException e) {
-                    log.debug("error sending sse message, {}", message.getPayload());
-                }
-            });
+        // Only queued, so that no client can slow the consumption down, but only the dispatching falling behind
+        sseHub.publish(
+            new SseEvent(
+                eventIdOf(message),
+                message.getPayload(),
+                header(message, SseEvent.CHANNEL_HEADER),
+                header(message, SseEvent.USER_HEADER)
+            )
+        );
+    }
+
+    /**
+     * The id of the event of a record: the offset of the record plus one, the partition in the upper bits. The topic
+     * has a single partition unless configured otherwise, the ids then following the order of the records.
+     *
+     * @return the id, or 0 for the hub to give one if the message does not come from Kafka.
+     */
+    private static long eventIdOf(Message<?> message) {
+        Long offset = message.getHeaders().get(KafkaHeaders.OFFSET, Long.class);
+        Integer partition = message.getHeaders().get(KafkaHeaders.RECEIVED_PARTITION_ID, Integer.class);
+        if (offset == null || partition == null) {
+            return 0;
+        }
+        return ((long) partition << PARTITION_SHIFT) | (offset + 1);
+    }
+
+    /**
+     * @return the id, or {@code null} if there is none or it is not one of ours, nothing being replayed then.
+     */
+    private Long parseEventId(String eventId) {
+        if (eventId == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(eventId.trim());
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring the malformed last event id {}", eventId);
+            return null;
+        }
+    }
+
+    /**
+     * @return the value of the header, which the binder may not have decoded.
+     */
+    private static String header(Message<?> message, String name) {
+        Object value = message.getHeaders().get(name);
+        if (value instanceof byte[]) {
+            return new String((byte[]) value, StandardCharsets.UTF_8);
+        }
+        return value == null ? null : value.toString();
     }
 }
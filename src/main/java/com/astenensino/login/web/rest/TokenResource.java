@@ -0,0 +1,68 @@
+package com.astenensino.login.web.rest;
+
+import com.astenensino.login.security.SecurityUtils;
+import com.astenensino.login.security.jwt.TokenProvider;
+import com.astenensino.login.web.rest.vm.IntrospectTokensVM;
+import com.astenensino.login.web.rest.vm.TokenIntrospectionVM;
+import java.util.ArrayList;
+import java.util.List;
+import javax.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * REST controller for managing the JWT issued by {@link UserJWTController}.
+ */
+@RestController
+@RequestMapping("/api/token")
+public class TokenResource {
+
+    private final Logger log = LoggerFactory.getLogger(TokenResource.class);
+
+    private final TokenProvider tokenProvider;
+
+    public TokenResource(TokenProvider tokenProvider) {
+        this.tokenProvider = tokenProvider;
+    }
+
+    /**
+     * {@code POST  /token/_revoke} : revoke the token the request is authenticated with, on all the instances, so that
+     * it can no longer be used even though it has not expired.
+     *
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)},
+     * or with status {@code 400 (Bad Request)} if the request is not authenticated with a token.
+     */
+    @PostMapping("/_revoke")
+    public ResponseEntity<Void> revokeToken() {
+        log.debug("REST request to revoke the current token of {}", SecurityUtils.getCurrentUserLogin().orElse(null));
+        String token = SecurityUtils.getCurrentUserJWT().orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST));
+        if (!tokenProvider.revokeToken(token)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * {@code POST  /token/_introspect} : validate many tokens at once, for a client such as the gateway which does
+     * not hold the keys. Each token is only verified the first time it is seen, like when it authenticates a request.
+     *
+     * @param introspectTokensVM the tokens to validate.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the introspection of each token, in the
+     * order of the request, or with status {@code 400 (Bad Request)} if there are no tokens or too many.
+     */
+    @PostMapping("/_introspect")
+    public ResponseEntity<List<TokenIntrospectionVM>> introspectTokens(@Valid @RequestBody IntrospectTokensVM introspectTokensVM) {
+        log.debug("REST request to introspect {} tokens", introspectTokensVM.getTokens().size());
+        List<TokenIntrospectionVM> introspections = new ArrayList<>(introspectTokensVM.getTokens().size());
+        for (String token : introspectTokensVM.getTokens()) {
+            introspections.add(
+                tokenProvider.introspectToken(token).map(TokenIntrospectionVM::of).orElseGet(TokenIntrospectionVM::inactive)
+            );
+        }
+        return ResponseEntity.ok().body(introspections);
+    }
+}
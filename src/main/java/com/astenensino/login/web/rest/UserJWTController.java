@@ -0,0 +1,119 @@
+package com.astenensino.login.web.rest;
+
+import com.astenensino.login.security.ClientAddressResolver;
+import com.astenensino.login.security.LoginThrottle;
+import com.astenensino.login.security.jwt.JWTFilter;
+import com.astenensino.login.security.jwt.TokenProvider;
+import com.astenensino.login.service.AuthenticationService;
+import com.astenensino.login.web.rest.vm.LoginVM;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller to authenticate users.
+ */
+@RestController
+@RequestMapping("/api")
+public class UserJWTController {
+
+    private final Logger log = LoggerFactory.getLogger(UserJWTController.class);
+
+    /**
+     * Seconds after which a login rejected for lack of hashing capacity can be retried.
+     */
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final TokenProvider tokenProvider;
+
+    private final AuthenticationService authenticationService;
+
+    private final LoginThrottle loginThrottle;
+
+    private final ClientAddressResolver clientAddressResolver;
+
+    public UserJWTController(
+        TokenProvider tokenProvider,
+        AuthenticationService authenticationService,
+        LoginThrottle loginThrottle,
+        ClientAddressResolver clientAddressResolver
+    ) {
+        this.tokenProvider = tokenProvider;
+        this.authenticationService = authenticationService;
+        this.loginThrottle = loginThrottle;
+        this.clientAddressResolver = clientAddressResolver;
+    }
+
+    /**
+     * {@code POST  /authenticate} : authenticate a usuarios by email and password.
+     * <p>
+     * The request thread is released while the password is verified, and the response is written once it is.
+     *
+     * @param loginVM the credentials, the username being the email of the usuarios.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the JWT in body and in the {@code Authorization} header,
+     * or with status {@code 401 (Unauthorized)} if the credentials are wrong,
+     * or with status {@code 429 (Too Many Requests)} and a {@code Retry-After} header if too many logins were attempted
+     * for the email or from the client address,
+     * or with status {@code 503 (Service Unavailable)} and a {@code Retry-After} header if too many logins are in progress.
+     */
+    @PostMapping("/authenticate")
+    public CompletableFuture<ResponseEntity<JWTToken>> authorize(@Valid @RequestBody LoginVM loginVM, HttpServletRequest request) {
+        String clientAddress = clientAddressResolver.resolve(request);
+        Optional<Duration> throttled = loginThrottle.throttle(loginVM.getUsername(), clientAddress);
+        if (throttled.isPresent()) {
+            log.debug("Throttled the authentication of {} from {}", loginVM.getUsername(), clientAddress);
+            return CompletableFuture.completedFuture(
+                ResponseEntity
+                    .status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, throttled.get().toSeconds())))
+                    .build()
+            );
+        }
+        try {
+            return authenticationService
+                .authenticate(loginVM.getUsername(), loginVM.getPassword())
+                .thenApply(authentication -> {
+                    String jwt = tokenProvider.createToken(authentication, loginVM.isRememberMe());
+                    HttpHeaders httpHeaders = new HttpHeaders();
+                    httpHeaders.add(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
+                    return new ResponseEntity<>(new JWTToken(jwt), httpHeaders, HttpStatus.OK);
+                });
+        } catch (RejectedExecutionException e) {
+            log.warn("Rejected the authentication of {}, the password hashing executor is saturated", loginVM.getUsername());
+            return CompletableFuture.completedFuture(
+                ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS).build()
+            );
+        }
+    }
+
+    /**
+     * Object to return as body in JWT Authentication.
+     */
+    static class JWTToken {
+
+        private String idToken;
+
+        JWTToken(String idToken) {
+            this.idToken = idToken;
+        }
+
+        @JsonProperty("id_token")
+        String getIdToken() {
+            return idToken;
+        }
+
+        void setIdToken(String idToken) {
+            this.idToken = idToken;
+        }
+    }
+}
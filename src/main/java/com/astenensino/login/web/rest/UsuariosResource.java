@@ -1,23 +1,42 @@
 package com.astenensino.login.web.rest;
 
 import com.astenensino.login.domain.Usuarios;
+import com.astenensino.login.repository.KeysetCursor;
+import com.astenensino.login.repository.UsuariosEmailProjection;
+import com.astenensino.login.repository.UsuariosFieldset;
 import com.astenensino.login.repository.UsuariosRepository;
+import com.astenensino.login.repository.UsuariosRepositoryWithKeysetPagination;
+import com.astenensino.login.service.UsuariosService;
+import com.astenensino.login.service.dto.UsuariosBulkResultDTO;
 import com.astenensino.login.web.rest.errors.BadRequestAlertException;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import javax.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -35,28 +54,42 @@ public class UsuariosResource {
 
     private static final String ENTITY_NAME = "astenEnsinoUsuarios";
 
+    private static final String APPROXIMATE_TOTAL_COUNT_HEADER = "X-Total-Count-Approximate";
+
+    private static final MediaType NDJSON = new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+
+    private static final MediaType CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final UsuariosRepository usuariosRepository;
 
-    public UsuariosResource(UsuariosRepository usuariosRepository) {
+    private final UsuariosService usuariosService;
+
+    public UsuariosResource(UsuariosRepository usuariosRepository, UsuariosService usuariosService) {
         this.usuariosRepository = usuariosRepository;
+        this.usuariosService = usuariosService;
     }
 
     /**
      * {@code POST  /usuarios} : Create a new usuarios.
+     * <p>
+     * The password is stored hashed, and never returned. It is hashed before the usuarios is written in a transaction of
+     * its own, so that no database connection is held meanwhile.
      *
      * @param usuarios the usuarios to create.
      * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new usuarios, or with status {@code 400 (Bad Request)} if the usuarios has already an ID.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("/usuarios")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public ResponseEntity<Usuarios> createUsuarios(@RequestBody Usuarios usuarios) throws URISyntaxException {
         log.debug("REST request to save Usuarios : {}", usuarios);
         if (usuarios.getId() != null) {
             throw new BadRequestAlertException("A new usuarios cannot already have an ID", ENTITY_NAME, "idexists");
         }
+        usuarios.setPassword(usuariosService.encodePassword(usuarios.getPassword()));
         Usuarios result = usuariosRepository.save(usuarios);
         return ResponseEntity
             .created(new URI("/api/usuarios/" + result.getId()))
@@ -64,20 +97,49 @@ public class UsuariosResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /usuarios/_bulk} : Create many usuarios, or update the ones with the same email when upserting.
+     * <p>
+     * The usuarios are read as they come from a JSON array or from newline-delimited JSON, and saved by chunks each one
+     * committed in its own transaction: a failed usuarios does not prevent the others from being saved.
+     *
+     * @param request the request, whose body holds the usuarios.
+     * @param upsert whether to update the password of the existing usuarios with the same email instead of creating them.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each usuarios, in input order.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/usuarios/_bulk", consumes = { "application/json", "application/x-ndjson" })
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<List<UsuariosBulkResultDTO>> bulkSaveUsuarios(
+        HttpServletRequest request,
+        @RequestParam(value = "upsert", defaultValue = "false") boolean upsert
+    ) throws IOException {
+        log.debug("REST request to bulk save Usuarios, upsert: {}", upsert);
+        List<UsuariosBulkResultDTO> results = usuariosService.bulkSave(request.getInputStream(), upsert);
+        return ResponseEntity.ok().body(results);
+    }
+
     /**
      * {@code PUT  /usuarios/:id} : Updates an existing usuarios.
+     * <p>
+     * The password is stored hashed, and never returned: without a password, the stored one is kept. It is hashed
+     * before the usuarios is written in a transaction of its own, as when creating a usuarios.
      *
      * @param id the id of the usuarios to save.
      * @param usuarios the usuarios to update.
+     * @param ifMatch the entity tags the usuarios must match to be updated, if any.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated usuarios,
      * or with status {@code 400 (Bad Request)} if the usuarios is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the usuarios does not match {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the usuarios couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/usuarios/{id}")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public ResponseEntity<Usuarios> updateUsuarios(
         @PathVariable(value = "id", required = false) final Long id,
-        @RequestBody Usuarios usuarios
+        @RequestBody Usuarios usuarios,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update Usuarios : {}, {}", id, usuarios);
         if (usuarios.getId() == null) {
@@ -87,32 +149,42 @@ public class UsuariosResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!usuariosRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        Collection<Long> expectedVersions = ifMatchVersions(ifMatch);
+        usuarios.setPassword(usuariosService.encodePassword(usuarios.getPassword()));
+        Usuarios previousUsuarios = usuariosRepository
+            .updateById(usuarios, expectedVersions)
+            .orElseThrow(() -> updateFailure(id, expectedVersions));
+        usuariosService.clearUsuariosCaches(id, previousUsuarios.getEmail());
 
-        Usuarios result = usuariosRepository.save(usuarios);
+        usuarios.setVersion(previousUsuarios.getVersion() + 1);
         return ResponseEntity
             .ok()
+            .eTag(eTagOf(usuarios.getVersion()))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, usuarios.getId().toString()))
-            .body(result);
+            .body(usuarios);
     }
 
     /**
      * {@code PATCH  /usuarios/:id} : Partial updates given fields of an existing usuarios, field will ignore if it is null
+     * <p>
+     * The password is hashed before the usuarios is written, as when creating a usuarios.
      *
      * @param id the id of the usuarios to save.
      * @param usuarios the usuarios to update.
+     * @param ifMatch the entity tags the usuarios must match to be updated, if any.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated usuarios,
      * or with status {@code 400 (Bad Request)} if the usuarios is not valid,
      * or with status {@code 404 (Not Found)} if the usuarios is not found,
+     * or with status {@code 412 (Precondition Failed)} if the usuarios does not match {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the usuarios couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/usuarios/{id}", consumes = { "application/json", "application/merge-patch+json" })
+    @Transactional(propagation = Propagation.SUPPORTS)
     public ResponseEntity<Usuarios> partialUpdateUsuarios(
         @PathVariable(value = "id", required = false) final Long id,
-        @RequestBody Usuarios usuarios
+        @RequestBody Usuarios usuarios,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update Usuarios partially : {}, {}", id, usuarios);
         if (usuarios.getId() == null) {
@@ -122,67 +194,291 @@ public class UsuariosResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!usuariosRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Collection<Long> expectedVersions = ifMatchVersions(ifMatch);
+        usuarios.setPassword(usuariosService.encodePassword(usuarios.getPassword()));
+        Usuarios previousUsuarios = usuariosRepository
+            .partialUpdateById(usuarios, expectedVersions)
+            .orElseThrow(() -> updateFailure(id, expectedVersions));
+        usuariosService.clearUsuariosCaches(id, previousUsuarios.getEmail());
+
+        Usuarios result = new Usuarios()
+            .id(id)
+            .email(usuarios.getEmail() != null ? usuarios.getEmail() : previousUsuarios.getEmail())
+            .password(usuarios.getPassword() != null ? usuarios.getPassword() : previousUsuarios.getPassword())
+            .version(previousUsuarios.getVersion() + 1);
+        return ResponseEntity
+            .ok()
+            .eTag(eTagOf(result.getVersion()))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, usuarios.getId().toString()))
+            .body(result);
+    }
+
+    /**
+     * Tells why an update did not write anything: either the usuarios does not exist, or its version does not match.
+     */
+    private RuntimeException updateFailure(Long id, Collection<Long> expectedVersions) {
+        if (expectedVersions != null && usuariosRepository.findVersionById(id).isPresent()) {
+            return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "The usuarios has been modified");
         }
+        return new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+    }
 
-        Optional<Usuarios> result = usuariosRepository
-            .findById(usuarios.getId())
-            .map(existingUsuarios -> {
-                if (usuarios.getEmail() != null) {
-                    existingUsuarios.setEmail(usuarios.getEmail());
-                }
-                if (usuarios.getPassword() != null) {
-                    existingUsuarios.setPassword(usuarios.getPassword());
+    /**
+     * Parses an {@code If-Match} header into the versions it matches, entity tags being compared strongly.
+     *
+     * @return the versions, or {@code null} if the header is absent or matches any version.
+     */
+    private Collection<Long> ifMatchVersions(String ifMatch) {
+        if (ifMatch == null || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        List<Long> versions = new ArrayList<>();
+        for (String eTag : ifMatch.split(",")) {
+            String trimmed = eTag.trim();
+            // Weak entity tags never match, and tags that are not versions cannot be ours
+            if (trimmed.length() > 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+                try {
+                    versions.add(Long.valueOf(trimmed.substring(1, trimmed.length() - 1)));
+                } catch (NumberFormatException e) {
+                    log.debug("Ignoring the entity tag {} of If-Match", trimmed);
                 }
+            }
+        }
+        return versions;
+    }
 
-                return existingUsuarios;
-            })
-            .map(usuariosRepository::save);
+    private List<String> parseFields(String fields) {
+        try {
+            return UsuariosFieldset.parseFields(fields);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "fieldsinvalid");
+        }
+    }
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, usuarios.getId().toString())
-        );
+    private static String eTagOf(Long version) {
+        return "\"" + version + "\"";
     }
 
     /**
      * {@code GET  /usuarios} : get all the usuarios.
+     * <p>
+     * Giving an {@code after} or {@code before} cursor (empty for the first page) switches to keyset pagination: pages
+     * are sought from the cursor instead of an OFFSET, no COUNT query is issued and the {@code Link} header carries the
+     * cursors of the neighbouring pages.
+     * <p>
+     * Giving {@code fields} restricts each usuarios to these fields, only their columns being read.
      *
-     * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of usuarios in body.
+     * @param pageable the pagination information, only the size and the sort being used in keyset mode.
+     * @param after the cursor to return the usuarios following of, in keyset mode.
+     * @param before the cursor to return the usuarios preceding of, in keyset mode.
+     * @param approximateTotal whether to add the approximate total from the database statistics, in keyset mode.
+     * @param fields the comma-separated fields to return, among {@link UsuariosFieldset#FIELDS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of usuarios in body,
+     * or with status {@code 400 (Bad Request)} if the cursor, the sort or the fields are not valid.
      */
     @GetMapping("/usuarios")
-    public ResponseEntity<List<Usuarios>> getAllUsuarios(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
-        log.debug("REST request to get a page of Usuarios");
-        Page<Usuarios> page = usuariosRepository.findAll(pageable);
+    public ResponseEntity<List<?>> getAllUsuarios(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = "after", required = false) String after,
+        @RequestParam(value = "before", required = false) String before,
+        @RequestParam(value = "approximateTotal", defaultValue = "false") boolean approximateTotal,
+        @RequestParam(value = "fields", required = false) String fields
+    ) {
+        List<String> fieldset = fields == null ? null : parseFields(fields);
+        if (after != null || before != null) {
+            return getKeysetPageOfUsuarios(pageable, after, before, approximateTotal, fieldset);
+        }
+        log.debug("REST request to get a page of Usuarios with fields {}", fieldset);
+        Page<?> page = fieldset == null ? usuariosRepository.findAll(pageable) : usuariosRepository.findAllFieldsets(fieldset, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    private ResponseEntity<List<?>> getKeysetPageOfUsuarios(
+        Pageable pageable,
+        String after,
+        String before,
+        boolean approximateTotal,
+        List<String> fields
+    ) {
+        log.debug("REST request to get a keyset page of Usuarios after {} before {}", after, before);
+        if (after != null && before != null) {
+            throw new BadRequestAlertException("Only one of after and before can be given", ENTITY_NAME, "cursorinvalid");
+        }
+        boolean backward = before != null;
+        String token = backward ? before : after;
+        Sort.Order order;
+        KeysetCursor cursor = null;
+        try {
+            order = UsuariosRepositoryWithKeysetPagination.keysetOrder(pageable.getSort());
+            if (!token.isEmpty()) {
+                cursor = KeysetCursor.decode(token);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "cursorinvalid");
+        }
+        if (cursor != null && !order.getProperty().equals(cursor.getProperty())) {
+            throw new BadRequestAlertException("The cursor does not match the requested sort", ENTITY_NAME, "cursorinvalid");
+        }
+
+        Sort sort = Sort.by(order);
+        HttpHeaders headers = new HttpHeaders();
+        List<?> content;
+        if (fields == null) {
+            Slice<Usuarios> slice = usuariosRepository.findAllByKeyset(cursor, backward, sort, pageable.getPageSize());
+            addKeysetLinks(headers, slice, cursor, backward, row -> usuariosRepository.cursorOf(row, sort));
+            content = slice.getContent();
+        } else {
+            Slice<UsuariosFieldset> slice = usuariosRepository.findFieldsetsByKeyset(fields, cursor, backward, sort, pageable.getPageSize());
+            addKeysetLinks(headers, slice, cursor, backward, row -> usuariosRepository.cursorOf(row, sort));
+            content = slice.getContent();
+        }
+        if (approximateTotal) {
+            usuariosRepository.estimateCount().ifPresent(estimate -> headers.add(APPROXIMATE_TOTAL_COUNT_HEADER, Long.toString(estimate)));
+        }
+        return ResponseEntity.ok().headers(headers).body(content);
+    }
+
+    private <T> void addKeysetLinks(
+        HttpHeaders headers,
+        Slice<T> slice,
+        KeysetCursor cursor,
+        boolean backward,
+        Function<T, KeysetCursor> cursorOf
+    ) {
+        List<T> content = slice.getContent();
+        List<String> links = new ArrayList<>();
+        if (!content.isEmpty()) {
+            T first = content.get(0);
+            T last = content.get(content.size() - 1);
+            if (backward ? slice.hasNext() : cursor != null) {
+                links.add(keysetLink("before", cursorOf.apply(first), "prev"));
+            }
+            if (backward || slice.hasNext()) {
+                links.add(keysetLink("after", cursorOf.apply(last), "next"));
+            }
+        }
+        if (!links.isEmpty()) {
+            headers.add(HttpHeaders.LINK, String.join(",", links));
+        }
+    }
+
+    private String keysetLink(String param, KeysetCursor cursor, String rel) {
+        String uri = ServletUriComponentsBuilder
+            .fromCurrentRequest()
+            .replaceQueryParam("page")
+            .replaceQueryParam("after")
+            .replaceQueryParam("before")
+            .replaceQueryParam(param, cursor.encode())
+            .toUriString();
+        return "<" + uri + ">; rel=\"" + rel + "\"";
+    }
+
+    /**
+     * {@code GET  /usuarios/_export} : export all the usuarios in a single streamed response.
+     * <p>
+     * Rows are read through a database cursor and written as they come, so memory use does not depend on the number
+     * of usuarios.
+     *
+     * @param format the export format, {@code ndjson} (one JSON object per line) or {@code csv}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the usuarios streamed in body,
+     * or with status {@code 400 (Bad Request)} if the format is not supported.
+     */
+    @GetMapping("/usuarios/_export")
+    public ResponseEntity<StreamingResponseBody> exportUsuarios(@RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        log.debug("REST request to export Usuarios as {}", format);
+        StreamingResponseBody body;
+        MediaType mediaType;
+        if ("ndjson".equals(format)) {
+            body = usuariosService::exportAsNdjson;
+            mediaType = NDJSON;
+        } else if ("csv".equals(format)) {
+            body = usuariosService::exportAsCsv;
+            mediaType = CSV;
+        } else {
+            throw new BadRequestAlertException("Unsupported export format", ENTITY_NAME, "formatinvalid");
+        }
+        return ResponseEntity
+            .ok()
+            .contentType(mediaType)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"usuarios." + format + "\"")
+            .body(body);
+    }
+
+    /**
+     * {@code GET  /usuarios/_by-email} : get the id and email of the usuarios with the given email, ignoring case.
+     * <p>
+     * The lookup goes through a cache, and on a miss only the columns of the unique index on the email are read, so
+     * that it never touches the table rows.
+     *
+     * @param email the email of the usuarios to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the id and email of the usuarios, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/usuarios/_by-email")
+    public ResponseEntity<UsuariosEmailProjection> getUsuariosByEmail(@RequestParam("email") String email) {
+        log.debug("REST request to get Usuarios by email : {}", email);
+        return ResponseUtil.wrapOrNotFound(usuariosService.findOneByEmail(email));
+    }
+
     /**
      * {@code GET  /usuarios/:id} : get the "id" usuarios.
+     * <p>
+     * The response carries the version of the usuarios as entity tag. A request whose {@code If-None-Match} matches it
+     * is answered after reading the version of the row alone, without loading the usuarios.
+     * <p>
+     * Giving {@code fields} restricts the usuarios to these fields, only their columns and the version being read.
      *
      * @param id the id of the usuarios to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the usuarios, or with status {@code 404 (Not Found)}.
+     * @param fields the comma-separated fields to return, among {@link UsuariosFieldset#FIELDS}.
+     * @param request the request, holding the {@code If-None-Match} header.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the usuarios, or with status {@code 304 (Not Modified)},
+     * or with status {@code 400 (Bad Request)} if the fields are not valid, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/usuarios/{id}")
-    public ResponseEntity<Usuarios> getUsuarios(@PathVariable Long id) {
+    public ResponseEntity<Object> getUsuarios(
+        @PathVariable Long id,
+        @RequestParam(value = "fields", required = false) String fields,
+        WebRequest request
+    ) {
         log.debug("REST request to get Usuarios : {}", id);
-        Optional<Usuarios> usuarios = usuariosRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(usuarios);
+        List<String> fieldset = fields == null ? null : parseFields(fields);
+        Optional<Long> currentVersion = Optional.empty();
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            // Compared against the row rather than a cache, which a read racing an update could fill with the previous version
+            currentVersion = usuariosRepository.findVersionById(id);
+            if (currentVersion.isPresent() && request.checkNotModified(eTagOf(currentVersion.get()))) {
+                return null;
+            }
+        }
+        if (fieldset != null) {
+            return usuariosRepository
+                .findFieldsetById(id, fieldset)
+                .map(response -> ResponseEntity.ok().eTag(eTagOf(response.getVersion())).<Object>body(response))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        }
+        Optional<Usuarios> usuarios = usuariosService.findOne(id);
+        if (currentVersion.isPresent() && usuarios.isPresent() && !currentVersion.get().equals(usuarios.get().getVersion())) {
+            // The cached usuarios is older than the row
+            usuarios = usuariosService.reloadOne(id);
+        }
+        return usuarios
+            .map(response -> ResponseEntity.ok().eTag(eTagOf(response.getVersion())).<Object>body(response))
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 
     /**
      * {@code DELETE  /usuarios/:id} : delete the "id" usuarios.
      *
      * @param id the id of the usuarios to delete.
-     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}, or with status {@code 404 (Not Found)}.
      */
     @DeleteMapping("/usuarios/{id}")
     public ResponseEntity<Void> deleteUsuarios(@PathVariable Long id) {
         log.debug("REST request to delete Usuarios : {}", id);
-        usuariosRepository.deleteById(id);
+        Usuarios deletedUsuarios = usuariosRepository
+            .deleteByIdReturning(id)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        usuariosService.clearUsuariosCaches(id, deletedUsuarios.getEmail());
         return ResponseEntity
             .noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
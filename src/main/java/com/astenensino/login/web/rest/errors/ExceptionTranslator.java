@@ -5,6 +5,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -14,6 +15,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageConversionException;
 import org.springframework.validation.BindingResult;
@@ -44,6 +47,8 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
     private static final String PATH_KEY = "path";
     private static final String VIOLATIONS_KEY = "violations";
 
+    private static final String RETRY_AFTER_SECONDS = "1";
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -130,6 +135,30 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
         return create(ex, problem, request);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleQueryTimeout(QueryTimeoutException ex, NativeWebRequest request) {
+        Problem problem = Problem.builder().withStatus(Status.GATEWAY_TIMEOUT).with(MESSAGE_KEY, ErrorConstants.ERR_DEADLINE_EXCEEDED).build();
+        return create(ex, problem, request);
+    }
+
+    /**
+     * A saturated executor, such as the password hashing one, is expected to have room again shortly.
+     */
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleRejectedExecution(RejectedExecutionException ex, NativeWebRequest request) {
+        Problem problem = Problem
+            .builder()
+            .withStatus(Status.SERVICE_UNAVAILABLE)
+            .with(MESSAGE_KEY, ErrorConstants.ERR_SATURATED)
+            .build();
+        ResponseEntity<Problem> response = create(ex, problem, request);
+        return ResponseEntity
+            .status(response.getStatusCode())
+            .headers(response.getHeaders())
+            .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+            .body(response.getBody());
+    }
+
     @Override
     public ProblemBuilder prepare(final Throwable throwable, final StatusType status, final URI type) {
         Collection<String> activeProfiles = Arrays.asList(env.getActiveProfiles());
@@ -0,0 +1,34 @@
+package com.astenensino.login.web.rest.vm;
+
+import java.util.List;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * View Model object for storing the tokens to introspect in one request.
+ */
+public class IntrospectTokensVM {
+
+    public static final int MAX_TOKENS = 100;
+
+    @NotNull
+    @Size(min = 1, max = MAX_TOKENS)
+    private List<@NotBlank String> tokens;
+
+    public List<String> getTokens() {
+        return tokens;
+    }
+
+    public void setTokens(List<String> tokens) {
+        this.tokens = tokens;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "IntrospectTokensVM{" +
+            "tokens=" + (tokens == null ? null : tokens.size()) +
+            "}";
+    }
+}
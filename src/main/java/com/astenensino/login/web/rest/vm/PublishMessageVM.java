@@ -0,0 +1,46 @@
+package com.astenensino.login.web.rest.vm;
+
+/**
+ * View Model object for storing a message to publish, and the streams it is for.
+ */
+public class PublishMessageVM {
+
+    private String message;
+
+    private String channel;
+
+    private String user;
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public void setUser(String user) {
+        this.user = user;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PublishMessageVM{" +
+            "channel='" + channel + "'" +
+            ", user='" + user + "'" +
+            "}";
+    }
+}
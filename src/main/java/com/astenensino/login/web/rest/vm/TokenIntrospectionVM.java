@@ -0,0 +1,80 @@
+package com.astenensino.login.web.rest.vm;
+
+import com.astenensino.login.security.jwt.IntrospectedToken;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * View Model object for the introspection of a token, with the member names of RFC 7662: only {@code active} is set
+ * for a token which is not valid.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospectionVM {
+
+    private static final TokenIntrospectionVM INACTIVE = new TokenIntrospectionVM(false, null, null, null);
+
+    private final boolean active;
+
+    private final String subject;
+
+    private final List<String> authorities;
+
+    private final Long expiresAt;
+
+    private TokenIntrospectionVM(boolean active, String subject, List<String> authorities, Long expiresAt) {
+        this.active = active;
+        this.subject = subject;
+        this.authorities = authorities;
+        this.expiresAt = expiresAt;
+    }
+
+    public static TokenIntrospectionVM of(IntrospectedToken token) {
+        return new TokenIntrospectionVM(
+            true,
+            token.getSubject(),
+            token.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList()),
+            token.getExpiresAt().getEpochSecond()
+        );
+    }
+
+    public static TokenIntrospectionVM inactive() {
+        return INACTIVE;
+    }
+
+    @JsonProperty("active")
+    public boolean isActive() {
+        return active;
+    }
+
+    @JsonProperty("sub")
+    public String getSubject() {
+        return subject;
+    }
+
+    @JsonProperty("authorities")
+    public List<String> getAuthorities() {
+        return authorities;
+    }
+
+    /**
+     * @return the expiration of the token, in seconds since the epoch.
+     */
+    @JsonProperty("exp")
+    public Long getExpiresAt() {
+        return expiresAt;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TokenIntrospectionVM{" +
+            "active=" + active +
+            ", subject='" + subject + '\'' +
+            ", authorities=" + authorities +
+            ", expiresAt=" + expiresAt +
+            "}";
+    }
+}
@@ -0,0 +1,94 @@
+package com.astenensino.login.web.sse;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * A stream open by a principal and subscribed to channels, with the events waiting to be sent to it.
+ * <p>
+ * The events are sent by one task at a time, which is scheduled when the first of them is queued and sends them all.
+ */
+final class SseConnection {
+
+    private final String principal;
+
+    private final Set<String> channels;
+
+    private final SseEmitter emitter;
+
+    private final Queue<SseEvent> queue;
+
+    private final AtomicBoolean sending = new AtomicBoolean();
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    SseConnection(String principal, Set<String> channels, SseEmitter emitter, int maxQueuedEvents) {
+        this.principal = principal;
+        this.channels = Set.copyOf(channels);
+        this.emitter = emitter;
+        this.queue = new ArrayBlockingQueue<>(maxQueuedEvents);
+    }
+
+    String getPrincipal() {
+        return principal;
+    }
+
+    /**
+     * @return the channels the stream is subscribed to.
+     */
+    Set<String> getChannels() {
+        return channels;
+    }
+
+    boolean isSubscribedTo(String channel) {
+        return channels.contains(channel);
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    /**
+     * @return whether the event was queued, or else the queue is full.
+     */
+    boolean offer(SseEvent event) {
+        return queue.offer(event);
+    }
+
+    SseEvent poll() {
+        return queue.poll();
+    }
+
+    boolean hasQueuedEvents() {
+        return !queue.isEmpty();
+    }
+
+    /**
+     * @return whether the caller is now the one sending the events, none being sent.
+     */
+    boolean startSending() {
+        return !closed.get() && sending.compareAndSet(false, true);
+    }
+
+    void stopSending() {
+        sending.set(false);
+    }
+
+    /**
+     * @return whether the caller is the one closing it, it being closed only once.
+     */
+    boolean close() {
+        if (!closed.compareAndSet(false, true)) {
+            return false;
+        }
+        queue.clear();
+        return true;
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+}
@@ -0,0 +1,96 @@
+package com.astenensino.login.web.sse;
+
+import static org.springframework.web.servlet.mvc.method.annotation.SseEmitter.event;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * An event pushed to the streams, immutable so that a single instance is queued for all of them.
+ * <p>
+ * An event for a channel only goes to the streams subscribed to it, and an event for a user only to the streams of
+ * that user; an event for both only to the streams of that user subscribed to that channel. The others go to every
+ * stream.
+ */
+public final class SseEvent {
+
+    /**
+     * The header of the Kafka messages naming the channel of their event.
+     */
+    public static final String CHANNEL_HEADER = "sseChannel";
+
+    /**
+     * The header of the Kafka messages naming the user their event is for.
+     */
+    public static final String USER_HEADER = "sseUser";
+
+    private final long id;
+
+    private final String data;
+
+    private final String channel;
+
+    private final String user;
+
+    public SseEvent(String data) {
+        this(data, null, null);
+    }
+
+    /**
+     * @param channel the channel of the event, or {@code null}.
+     * @param user the principal the event is for, or {@code null}.
+     */
+    public SseEvent(String data, String channel, String user) {
+        this(0, data, channel, user);
+    }
+
+    /**
+     * @param id the id of the event, positive and the same on every instance, or 0 for one to be given when it is
+     * pushed.
+     * @param channel the channel of the event, or {@code null}.
+     * @param user the principal the event is for, or {@code null}.
+     */
+    public SseEvent(long id, String data, String channel, String user) {
+        this.id = id;
+        this.data = data;
+        this.channel = channel;
+        this.user = user;
+    }
+
+    /**
+     * @return the id of the event, increasing with each event pushed, or 0 until it is pushed if it was not given one.
+     */
+    public long getId() {
+        return id;
+    }
+
+    SseEvent withId(long id) {
+        return new SseEvent(id, data, channel, user);
+    }
+
+    public String getData() {
+        return data;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    /**
+     * @return a new builder of this event, as a builder can only be sent once.
+     */
+    SseEmitter.SseEventBuilder toBuilder() {
+        SseEmitter.SseEventBuilder builder = event();
+        if (id != 0) {
+            builder.id(Long.toString(id));
+        }
+        if (channel != null) {
+            builder.name(channel);
+        }
+        return builder.data(data, MediaType.TEXT_PLAIN);
+    }
+}
@@ -0,0 +1,379 @@
+package com.astenensino.login.web.sse;
+
+import com.astenensino.login.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * The open event streams, indexed by principal and by channel, and the sending of the events to them.
+ * <p>
+ * An event is only queued for the streams it is {@link SseEvent for}, found in the index of its user or of its
+ * channel, so that its cost grows with the number of its subscribers rather than with the number of streams.
+ * <p>
+ * Pushing an event hands it over to a single dispatching thread, which keeps it for the
+ * {@link SseReplayBuffer replays} and queues it for each stream, never blocking: the events are sent on a dedicated
+ * executor, one task at a time per stream. The streams are opened on the dispatching thread as well, so that a
+ * reopened stream gets each event it missed exactly once, either replayed or pushed.
+ * <p>
+ * The events and openings waiting for the dispatching thread are bounded. Beyond, pushing an event waits for room,
+ * slowing the consumption of the Kafka topic down, and drops the event if none is made in time; opening a stream is
+ * rejected right away.
+ * <p>
+ * The ids of the events come from their Kafka records, so that they are the same on every instance and a stream
+ * reopened on another one resumes right after the last event it got. An event pushed without an id is given the next
+ * one after the greatest seen so far.
+ * <p>
+ * A stream whose client lets its queue fill up, or which cannot be written to anymore, is closed, so that a slow
+ * client only ever delays its own events.
+ */
+@Component
+public class SseHub implements DisposableBean {
+
+    private final Logger log = LoggerFactory.getLogger(SseHub.class);
+
+    public static final String EXECUTOR_NAME = "sse";
+
+    public static final String DISPATCHER_NAME = "sseDispatch";
+
+    public static final String CONNECTIONS_METER_NAME = "sse.connections";
+    public static final String CONNECTIONS_METER_DESCRIPTION = "The number of open event streams.";
+
+    public static final String EVICTED_METER_NAME = "sse.evicted";
+    public static final String EVICTED_METER_DESCRIPTION = "Indicates the count of the event streams closed by the server.";
+    public static final String EVICTED_METER_BASE_UNIT = "connections";
+    public static final String EVICTED_METER_REASON_DIMENSION = "reason";
+
+    public static final String DROPPED_METER_NAME = "sse.dropped";
+    public static final String DROPPED_METER_DESCRIPTION = "Indicates the count of the events dropped as the dispatching thread was too far behind.";
+    public static final String DROPPED_METER_BASE_UNIT = "events";
+
+    private final ApplicationProperties.Sse properties;
+
+    private final Executor executor;
+
+    private final Executor dispatcher;
+
+    private final AtomicLong lastEventId = new AtomicLong();
+
+    /**
+     * One permit per event or opening which can wait for the dispatching thread.
+     */
+    private final Semaphore dispatchPermits;
+
+    /**
+     * Only used by the dispatcher.
+     */
+    private final SseReplayBuffer replayBuffer;
+
+    /**
+     * The streams of each principal, from the oldest to the latest. The lists are never modified, but replaced.
+     */
+    private final ConcurrentMap<String, List<SseConnection>> connectionsByPrincipal = new ConcurrentHashMap<>();
+
+    /**
+     * The streams subscribed to each channel, as {@link #connectionsByPrincipal}.
+     */
+    private final ConcurrentMap<String, List<SseConnection>> connectionsByChannel = new ConcurrentHashMap<>();
+
+    private final Counter slowEvictedCounter;
+
+    private final Counter failedEvictedCounter;
+
+    private final Counter replacedEvictedCounter;
+
+    private final Counter droppedCounter;
+
+    @Autowired
+    public SseHub(ApplicationProperties applicationProperties, MeterRegistry registry) {
+        this(
+            applicationProperties.getSse(),
+            newExecutor(applicationProperties.getSse().getPoolSize(), "sse-", EXECUTOR_NAME, registry),
+            newExecutor(1, "sse-dispatch-", DISPATCHER_NAME, registry),
+            registry
+        );
+    }
+
+    SseHub(ApplicationProperties.Sse properties, Executor executor, Executor dispatcher, MeterRegistry registry) {
+        this.properties = properties;
+        this.executor = executor;
+        this.dispatcher = dispatcher;
+        this.dispatchPermits = new Semaphore(Math.max(1, properties.getMaxPendingDispatches()));
+        ApplicationProperties.Sse.Replay replay = properties.getReplay();
+        this.replayBuffer = new SseReplayBuffer(replay.getMaxEvents(), replay.getMaxAge().toMillis(), replay.getMaxRings());
+        Gauge
+            .builder(
+                CONNECTIONS_METER_NAME,
+                connectionsByPrincipal,
+                connections -> connections.values().stream().mapToInt(List::size).sum()
+            )
+            .description(CONNECTIONS_METER_DESCRIPTION)
+            .register(registry);
+        this.slowEvictedCounter = evictedCounter("slow", registry);
+        this.failedEvictedCounter = evictedCounter("failed", registry);
+        this.replacedEvictedCounter = evictedCounter("replaced", registry);
+        this.droppedCounter =
+            Counter.builder(DROPPED_METER_NAME).baseUnit(DROPPED_METER_BASE_UNIT).description(DROPPED_METER_DESCRIPTION).register(registry);
+    }
+
+    private static Executor newExecutor(int poolSize, String threadNamePrefix, String name, MeterRegistry registry) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            poolSize,
+            poolSize,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            new CustomizableThreadFactory(threadNamePrefix)
+        );
+        new ExecutorServiceMetrics(executor, name, Tags.empty()).bindTo(registry);
+        return executor;
+    }
+
+    private static Counter evictedCounter(String reason, MeterRegistry registry) {
+        return Counter
+            .builder(EVICTED_METER_NAME)
+            .baseUnit(EVICTED_METER_BASE_UNIT)
+            .description(EVICTED_METER_DESCRIPTION)
+            .tag(EVICTED_METER_REASON_DIMENSION, reason)
+            .register(registry);
+    }
+
+    /**
+     * Opens a stream for the principal, closing its oldest one if it has too many already.
+     *
+     * @param channels the channels the stream is subscribed to, besides the events for the principal.
+     * @param lastEventId the id of the last event got by the stream this one reopens, whose later events are replayed,
+     * or {@code null}.
+     * @throws RejectedExecutionException if too many events and openings are waiting to be dispatched.
+     */
+    public SseEmitter connect(String principal, Set<String> channels, Long lastEventId) {
+        if (!dispatchPermits.tryAcquire()) {
+            throw new RejectedExecutionException("Too many events waiting to be dispatched to open an event stream");
+        }
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        SseConnection connection = new SseConnection(principal, channels, emitter, properties.getMaxQueuedEvents());
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onError(e -> remove(connection));
+        dispatch(() -> open(connection, lastEventId));
+        return emitter;
+    }
+
+    private void open(SseConnection connection, Long lastEventId) {
+        if (lastEventId != null) {
+            replayBuffer
+                .eventsAfter(
+                    lastEventId,
+                    connection.getPrincipal(),
+                    connection.getChannels(),
+                    properties.getMaxQueuedEvents(),
+                    System.currentTimeMillis()
+                )
+                .forEach(event -> send(connection, event));
+        }
+
+        List<SseConnection> replaced = new ArrayList<>();
+        connectionsByPrincipal.compute(
+            connection.getPrincipal(),
+            (name, connections) -> {
+                List<SseConnection> updated = connections == null ? new ArrayList<>() : new ArrayList<>(connections);
+                updated.add(connection);
+                while (updated.size() > Math.max(1, properties.getMaxConnectionsPerPrincipal())) {
+                    replaced.add(updated.remove(0));
+                }
+                return Collections.unmodifiableList(updated);
+            }
+        );
+        connection.getChannels().forEach(channel -> add(connectionsByChannel, channel, connection));
+        if (connection.isClosed()) {
+            // Closed while being indexed, possibly before its channels were
+            remove(connection);
+        }
+        replaced.forEach(oldest -> evict(oldest, replacedEvictedCounter));
+    }
+
+    /**
+     * Closes all the streams of the principal.
+     */
+    public void disconnect(String principal) {
+        List<SseConnection> connections = connectionsByPrincipal.remove(principal);
+        if (connections != null) {
+            connections.forEach(connection -> {
+                remove(connection);
+                connection.getEmitter().complete();
+            });
+        }
+    }
+
+    /**
+     * Queues the event for the streams it is for, waiting for room if too many events are waiting to be dispatched.
+     *
+     * @return the event, with its id.
+     */
+    public SseEvent publish(SseEvent event) {
+        SseEvent identified;
+        if (event.getId() == 0) {
+            identified = event.withId(lastEventId.incrementAndGet());
+        } else {
+            identified = event;
+            lastEventId.accumulateAndGet(event.getId(), Math::max);
+        }
+        if (!acquireDispatchPermit()) {
+            droppedCounter.increment();
+            log.warn("Dropped the event {}, the dispatching thread being too far behind", identified.getId());
+            return identified;
+        }
+        dispatch(() -> {
+            replayBuffer.add(identified, System.currentTimeMillis());
+            queue(identified);
+        });
+        return identified;
+    }
+
+    private boolean acquireDispatchPermit() {
+        try {
+            return dispatchPermits.tryAcquire(properties.getDispatchTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Runs the task on the dispatching thread, giving its permit back once it has run.
+     */
+    private void dispatch(Runnable task) {
+        try {
+            dispatcher.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    dispatchPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            dispatchPermits.release();
+            log.debug("Not dispatching, shutting down");
+        }
+    }
+
+    private void queue(SseEvent event) {
+        if (event.getUser() != null) {
+            connectionsByPrincipal
+                .getOrDefault(event.getUser(), List.of())
+                .forEach(connection -> {
+                    if (event.getChannel() == null || connection.isSubscribedTo(event.getChannel())) {
+                        send(connection, event);
+                    }
+                });
+        } else if (event.getChannel() != null) {
+            connectionsByChannel.getOrDefault(event.getChannel(), List.of()).forEach(connection -> send(connection, event));
+        } else {
+            connectionsByPrincipal.values().forEach(connections -> connections.forEach(connection -> send(connection, event)));
+        }
+    }
+
+    private void send(SseConnection connection, SseEvent event) {
+        if (!connection.offer(event)) {
+            log.debug("Closing the event stream of {}, whose client is too slow", connection.getPrincipal());
+            evict(connection, slowEvictedCounter);
+            return;
+        }
+        if (connection.startSending()) {
+            try {
+                executor.execute(() -> sendQueued(connection));
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                connection.stopSending();
+            }
+        }
+    }
+
+    private void sendQueued(SseConnection connection) {
+        do {
+            SseEvent event;
+            while ((event = connection.poll()) != null) {
+                try {
+                    connection.getEmitter().send(event.toBuilder());
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Closing the event stream of {}, which cannot be written to: {}", connection.getPrincipal(), e.getMessage());
+                    evict(connection, failedEvictedCounter);
+                    return;
+                }
+            }
+            connection.stopSending();
+            // An event queued after the last poll, but before sending stopped, is sent by this task
+        } while (connection.hasQueuedEvents() && connection.startSending());
+    }
+
+    private void evict(SseConnection connection, Counter reason) {
+        if (connection.close()) {
+            reason.increment();
+            remove(connection);
+            connection.getEmitter().complete();
+        }
+    }
+
+    private void remove(SseConnection connection) {
+        connection.close();
+        remove(connectionsByPrincipal, connection.getPrincipal(), connection);
+        connection.getChannels().forEach(channel -> remove(connectionsByChannel, channel, connection));
+    }
+
+    private static void add(ConcurrentMap<String, List<SseConnection>> index, String key, SseConnection connection) {
+        index.compute(
+            key,
+            (name, connections) -> {
+                List<SseConnection> updated = connections == null ? new ArrayList<>() : new ArrayList<>(connections);
+                updated.add(connection);
+                return Collections.unmodifiableList(updated);
+            }
+        );
+    }
+
+    private static void remove(ConcurrentMap<String, List<SseConnection>> index, String key, SseConnection connection) {
+        index.computeIfPresent(
+            key,
+            (name, connections) -> {
+                if (!connections.contains(connection)) {
+                    return connections;
+                }
+                List<SseConnection> updated = new ArrayList<>(connections);
+                updated.remove(connection);
+                return updated.isEmpty() ? null : Collections.unmodifiableList(updated);
+            }
+        );
+    }
+
+    @Override
+    public void destroy() {
+        for (Executor toShutdown : List.of(dispatcher, executor)) {
+            if (toShutdown instanceof ExecutorService) {
+                ((ExecutorService) toShutdown).shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.astenensino.login.web.sse;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * The latest events pushed, for the streams reopened after losing their connection to get the ones they missed.
+ * <p>
+ * The events are kept in a ring per channel, per user, and one for the events for every stream, each bounded in size
+ * and in age. The rings least recently used are forgotten beyond their maximum number. Not thread-safe: it is
+ * only used by the thread dispatching the events.
+ */
+final class SseReplayBuffer {
+
+    private static final String BROADCAST_KEY = "";
+
+    private static final String CHANNEL_KEY_PREFIX = "channel:";
+
+    private static final String USER_KEY_PREFIX = "user:";
+
+    private final int maxEventsPerRing;
+
+    private final long maxAgeMillis;
+
+    private final Map<String, Deque<Entry>> rings;
+
+    SseReplayBuffer(int maxEventsPerRing, long maxAgeMillis, int maxRings) {
+        this.maxEventsPerRing = Math.max(1, maxEventsPerRing);
+        this.maxAgeMillis = maxAgeMillis;
+        this.rings =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Deque<Entry>> eldest) {
+                    return size() > maxRings;
+                }
+            };
+    }
+
+    void add(SseEvent event, long now) {
+        Deque<Entry> ring = rings.computeIfAbsent(keyOf(event), key -> new ArrayDeque<>());
+        ring.addLast(new Entry(event, now));
+        while (ring.size() > maxEventsPerRing) {
+            ring.removeFirst();
+        }
+        expire(ring, now);
+    }
+
+    /**
+     * @return the events after the given id which a stream of the principal subscribed to the channels would have got,
+     * in order, the latest ones only if there are more than the limit.
+     */
+    List<SseEvent> eventsAfter(long lastEventId, String principal, Set<String> channels, int limit, long now) {
+        List<SseEvent> missed = new ArrayList<>();
+        collect(BROADCAST_KEY, lastEventId, now, missed, event -> true);
+        collect(
+            USER_KEY_PREFIX + principal,
+            lastEventId,
+            now,
+            missed,
+            event -> event.getChannel() == null || channels.contains(event.getChannel())
+        );
+        channels.forEach(channel -> collect(CHANNEL_KEY_PREFIX + channel, lastEventId, now, missed, event -> true));
+        missed.sort(Comparator.comparingLong(SseEvent::getId));
+        return missed.size() > limit ? missed.subList(missed.size() - limit, missed.size()) : missed;
+    }
+
+    private void collect(String key, long lastEventId, long now, List<SseEvent> missed, Predicate<SseEvent> filter) {
+        Deque<Entry> ring = rings.get(key);
+        if (ring == null) {
+            return;
+        }
+        expire(ring, now);
+        for (Entry entry : ring) {
+            if (entry.event.getId() > lastEventId && filter.test(entry.event)) {
+                missed.add(entry.event);
+            }
+        }
+    }
+
+    private void expire(Deque<Entry> ring, long now) {
+        while (!ring.isEmpty() && now - ring.peekFirst().addedAt > maxAgeMillis) {
+            ring.removeFirst();
+        }
+    }
+
+    private static String keyOf(SseEvent event) {
+        if (event.getUser() != null) {
+            return USER_KEY_PREFIX + event.getUser();
+        }
+        if (event.getChannel() != null) {
+            return CHANNEL_KEY_PREFIX + event.getChannel();
+        }
+        return BROADCAST_KEY;
+    }
+
+    private static final class Entry {
+
+        private final SseEvent event;
+
+        private final long addedAt;
+
+        private Entry(SseEvent event, long addedAt) {
+            this.event = event;
+            this.addedAt = addedAt;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * The server-sent event streams the Kafka events are pushed to.
+ */
+package com.astenensino.login.web.sse;
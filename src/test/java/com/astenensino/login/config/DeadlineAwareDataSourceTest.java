@@ -0,0 +1,110 @@
+package com.astenensino.login.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.astenensino.login.deadline.RequestDeadline;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DeadlineAwareDataSourceTest {
+
+    private Connection connection;
+
+    private PreparedStatement statement;
+
+    private DeadlineAwareDataSource dataSource;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(connection);
+        dataSource = new DeadlineAwareDataSource(target);
+    }
+
+    @Test
+    void testConnectionOutsideOfRequestIsUntouched() throws Exception {
+        assertThat(dataSource.getConnection()).isSameAs(connection);
+    }
+
+    @Test
+    void testStatementTimesOutAtTheDeadline() throws Exception {
+        RequestDeadline deadline = new RequestDeadline(Duration.ofMillis(2_500));
+
+        try (RequestDeadline.Scope scope = deadline.bind()) {
+            dataSource.getConnection().prepareStatement("select 1").executeQuery();
+        }
+
+        verify(statement).setQueryTimeout(3);
+        verify(statement).executeQuery();
+    }
+
+    @Test
+    void testStatementIsCancelledWithTheDeadline() throws Exception {
+        RequestDeadline deadline = new RequestDeadline(Duration.ofSeconds(10));
+        try (RequestDeadline.Scope scope = deadline.bind()) {
+            dataSource.getConnection().prepareStatement("select 1");
+        }
+
+        deadline.cancel();
+
+        verify(statement).cancel();
+    }
+
+    @Test
+    void testClosedStatementIsNotCancelledWithTheDeadline() throws Exception {
+        RequestDeadline deadline = new RequestDeadline(Duration.ofSeconds(10));
+        try (RequestDeadline.Scope scope = deadline.bind()) {
+            dataSource.getConnection().prepareStatement("select 1").close();
+        }
+
+        deadline.cancel();
+
+        verify(statement).close();
+        verify(statement, never()).isClosed();
+        verify(statement, never()).cancel();
+    }
+
+    @Test
+    void testStatementOfAClosedConnectionIsNotCancelledWithTheDeadline() throws Exception {
+        RequestDeadline deadline = new RequestDeadline(Duration.ofSeconds(10));
+        try (RequestDeadline.Scope scope = deadline.bind()) {
+            Connection deadlineAwareConnection = dataSource.getConnection();
+            deadlineAwareConnection.prepareStatement("select 1");
+            deadlineAwareConnection.close();
+        }
+
+        deadline.cancel();
+
+        verify(connection).close();
+        verify(statement, never()).cancel();
+    }
+
+    @Test
+    void testStatementCannotBePreparedOnceTheDeadlineIsExceeded() throws Exception {
+        RequestDeadline deadline = new RequestDeadline(Duration.ofSeconds(10));
+        try (RequestDeadline.Scope scope = deadline.bind()) {
+            Connection deadlineAwareConnection = dataSource.getConnection();
+            deadline.cancel();
+
+            assertThatThrownBy(() -> deadlineAwareConnection.prepareStatement("select 1")).isInstanceOf(SQLTimeoutException.class);
+        }
+
+        verify(statement).close();
+        verify(statement, never()).setQueryTimeout(anyInt());
+    }
+}
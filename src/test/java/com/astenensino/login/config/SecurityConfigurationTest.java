@@ -0,0 +1,47 @@
+package com.astenensino.login.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.astenensino.login.security.jwt.JWTFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+class SecurityConfigurationTest {
+
+    private final RequestMatcher publicRequests = SecurityConfiguration.publicRequestsWithoutToken();
+
+    @Test
+    void shouldMatchPublicRoutesWithoutToken() {
+        assertThat(publicRequests.matches(request("GET", "/management/health"))).isTrue();
+        assertThat(publicRequests.matches(request("GET", "/management/health/readiness"))).isTrue();
+        assertThat(publicRequests.matches(request("GET", "/management/prometheus"))).isTrue();
+        assertThat(publicRequests.matches(request("GET", "/main.js"))).isTrue();
+        assertThat(publicRequests.matches(request("GET", "/content/images/logo.png"))).isTrue();
+        assertThat(publicRequests.matches(request("GET", "/"))).isTrue();
+        assertThat(publicRequests.matches(request("GET", "/usuarios/1/edit"))).isTrue();
+    }
+
+    @Test
+    void shouldNotMatchServerRoutes() {
+        assertThat(publicRequests.matches(request("GET", "/api/usuarios"))).isFalse();
+        assertThat(publicRequests.matches(request("POST", "/api/authenticate"))).isFalse();
+        assertThat(publicRequests.matches(request("GET", "/management/metrics"))).isFalse();
+        assertThat(publicRequests.matches(request("GET", "/management/env"))).isFalse();
+        assertThat(publicRequests.matches(request("POST", "/usuarios"))).isFalse();
+    }
+
+    @Test
+    void shouldNotMatchRequestsWithToken() {
+        MockHttpServletRequest request = request("GET", "/management/health");
+        request.addHeader(JWTFilter.AUTHORIZATION_HEADER, "Bearer token");
+
+        assertThat(publicRequests.matches(request)).isFalse();
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        return request;
+    }
+}
@@ -0,0 +1,68 @@
+package com.astenensino.login.deadline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class RequestDeadlineTest {
+
+    @Test
+    void testDeadlineIsBoundUntilItsScopeIsClosed() {
+        RequestDeadline deadline = new RequestDeadline(Duration.ofSeconds(10));
+
+        try (RequestDeadline.Scope scope = deadline.bind()) {
+            assertThat(RequestDeadline.current()).containsSame(deadline);
+        }
+
+        assertThat(RequestDeadline.current()).isEmpty();
+    }
+
+    @Test
+    void testRemainingTime() {
+        RequestDeadline deadline = new RequestDeadline(Duration.ofSeconds(10));
+
+        assertThat(deadline.remainingMillis()).isBetween(1L, 10_000L);
+        assertThat(deadline.isExceeded()).isFalse();
+        assertThat(new RequestDeadline(Duration.ZERO).isExceeded()).isTrue();
+        assertThat(new RequestDeadline(Duration.ofSeconds(-1)).remainingMillis()).isZero();
+    }
+
+    @Test
+    void testCancellationsRunOnce() {
+        RequestDeadline deadline = new RequestDeadline(Duration.ofSeconds(10));
+        AtomicInteger cancelled = new AtomicInteger();
+        deadline.onCancel(cancelled::incrementAndGet);
+
+        deadline.cancel();
+        deadline.cancel();
+
+        assertThat(cancelled).hasValue(1);
+        assertThat(deadline.isExceeded()).isTrue();
+        assertThat(deadline.remainingMillis()).isZero();
+    }
+
+    @Test
+    void testRemovedCancellationDoesNotRun() {
+        RequestDeadline deadline = new RequestDeadline(Duration.ofSeconds(10));
+        AtomicInteger cancelled = new AtomicInteger();
+        deadline.onCancel(cancelled::incrementAndGet).remove();
+        deadline.onCancel(cancelled::incrementAndGet);
+
+        deadline.cancel();
+
+        assertThat(cancelled).hasValue(1);
+    }
+
+    @Test
+    void testCancellationRegisteredOnceCancelledRunsRightAway() {
+        RequestDeadline deadline = new RequestDeadline(Duration.ofSeconds(10));
+        deadline.cancel();
+        AtomicInteger cancelled = new AtomicInteger();
+
+        deadline.onCancel(cancelled::incrementAndGet);
+
+        assertThat(cancelled).hasValue(1);
+    }
+}
@@ -0,0 +1,65 @@
+package com.astenensino.login.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.cache.CachesEndpoint;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+class CachesWithRegionsEndpointWebExtensionTests {
+
+    private static final String REGION_NAME = "com.astenensino.login.domain.Usuarios";
+
+    private Statistics statistics;
+
+    private CachesWithRegionsEndpointWebExtension extension;
+
+    @BeforeEach
+    public void setup() {
+        statistics = mock(Statistics.class);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+
+        CachesEndpoint cachesEndpoint = new CachesEndpoint(Map.of("cacheManager", new ConcurrentMapCacheManager("usuariosById")));
+        extension = new CachesWithRegionsEndpointWebExtension(cachesEndpoint, entityManagerFactory);
+    }
+
+    @Test
+    void testRegionStatisticsAreReported() {
+        CacheRegionStatistics regionStatistics = mock(CacheRegionStatistics.class);
+        when(regionStatistics.getHitCount()).thenReturn(3L);
+        when(regionStatistics.getMissCount()).thenReturn(1L);
+        when(regionStatistics.getPutCount()).thenReturn(1L);
+        when(statistics.isStatisticsEnabled()).thenReturn(true);
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[] { REGION_NAME });
+        when(statistics.getCacheRegionStatistics(REGION_NAME)).thenReturn(regionStatistics);
+
+        CachesWithRegionsEndpointWebExtension.CachesWithRegionsReport report = extension.caches();
+
+        assertThat(report.getCacheManagers()).containsKey("cacheManager");
+        assertThat(report.getCacheManagers().get("cacheManager").getCaches()).containsKey("usuariosById");
+        assertThat(report.isRegionStatisticsEnabled()).isTrue();
+        CachesWithRegionsEndpointWebExtension.RegionDescriptor region = report.getRegions().get(REGION_NAME);
+        assertThat(region.getHitCount()).isEqualTo(3L);
+        assertThat(region.getMissCount()).isEqualTo(1L);
+        assertThat(region.getPutCount()).isEqualTo(1L);
+        assertThat(region.getHitRatio()).isEqualTo(0.75);
+    }
+
+    @Test
+    void testNoRegionWhenSecondLevelCacheIsDisabled() {
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[0]);
+
+        assertThat(extension.caches().getRegions()).isEmpty();
+    }
+}
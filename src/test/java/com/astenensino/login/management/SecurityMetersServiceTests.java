@@ -67,4 +67,29 @@ class SecurityMetersServiceTests {
 
         assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "malformed").counter().count()).isEqualTo(1);
     }
+
+    @Test
+    void testAuthenticationStageTimersAreCreated() {
+        for (String stage : new String[] { "filter", "validation", "authentication", "creation" }) {
+            meterRegistry.get("security.authentication.latency").tag("stage", stage).timer();
+        }
+        assertThat(meterRegistry.find("security.authentication.latency").timers()).hasSize(4);
+
+        securityMetersService.recordFilter(5_000);
+
+        assertThat(meterRegistry.get("security.authentication.latency").tag("stage", "filter").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("security.authentication.latency").tag("stage", "validation").timer().count()).isZero();
+    }
+
+    @Test
+    void testRequestCountersByOutcomeAreCreated() {
+        securityMetersService.trackRequestAuthenticated();
+        securityMetersService.trackRequestAnonymous();
+        securityMetersService.trackRequestAnonymous();
+        securityMetersService.trackRequestRejected();
+
+        assertThat(meterRegistry.get("security.authentication.requests").tag("outcome", "authenticated").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("security.authentication.requests").tag("outcome", "anonymous").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("security.authentication.requests").tag("outcome", "rejected").counter().count()).isEqualTo(1);
+    }
 }
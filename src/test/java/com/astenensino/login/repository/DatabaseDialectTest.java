@@ -0,0 +1,46 @@
+package com.astenensino.login.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link DatabaseDialect}.
+ */
+class DatabaseDialectTest {
+
+    @Test
+    void testDatabaseIsReadFromTheDataSource() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+
+        DatabaseDialect databaseDialect = new DatabaseDialect(dataSource);
+
+        assertThat(databaseDialect.isPostgreSQL()).isTrue();
+        assertThat(databaseDialect.isH2()).isFalse();
+        verify(connection).close();
+    }
+
+    @Test
+    void testOtherDatabase() {
+        DatabaseDialect databaseDialect = new DatabaseDialect("MySQL");
+
+        assertThat(databaseDialect.isPostgreSQL()).isFalse();
+        assertThat(databaseDialect.isH2()).isFalse();
+    }
+
+    @Test
+    void testH2() {
+        assertThat(new DatabaseDialect(DatabaseDialect.H2).isH2()).isTrue();
+    }
+}
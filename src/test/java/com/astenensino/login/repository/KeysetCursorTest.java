@@ -0,0 +1,39 @@
+package com.astenensino.login.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link KeysetCursor} tokens.
+ */
+class KeysetCursorTest {
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        KeysetCursor cursor = new KeysetCursor("email", 1051L, "john:doe@example.com");
+        String token = cursor.encode();
+        assertThat(token).doesNotContain("=", "+", "/");
+        assertThat(KeysetCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void testEncodeDecodeWithoutValue() {
+        KeysetCursor cursor = new KeysetCursor("id", 1051L, null);
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void testEncodeDecodeWithEmptyValue() {
+        KeysetCursor cursor = new KeysetCursor("email", 1051L, "");
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+        assertThat(KeysetCursor.decode(cursor.encode()).getValue()).isEmpty();
+    }
+
+    @Test
+    void testDecodeMalformedToken() {
+        assertThatIllegalArgumentException().isThrownBy(() -> KeysetCursor.decode("not a token"));
+        assertThatIllegalArgumentException().isThrownBy(() -> KeysetCursor.decode(new KeysetCursor("id", 1L, null).encode().substring(2)));
+    }
+}
@@ -0,0 +1,40 @@
+package com.astenensino.login.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link UsuariosFieldset} sparse fieldsets.
+ */
+class UsuariosFieldsetTest {
+
+    @Test
+    void testParseFields() {
+        assertThat(UsuariosFieldset.parseFields("email, id,email")).containsExactly("email", "id");
+    }
+
+    @Test
+    void testParseInvalidFields() {
+        assertThatIllegalArgumentException().isThrownBy(() -> UsuariosFieldset.parseFields(""));
+        assertThatIllegalArgumentException().isThrownBy(() -> UsuariosFieldset.parseFields("id,"));
+        assertThatIllegalArgumentException().isThrownBy(() -> UsuariosFieldset.parseFields("id,password"));
+    }
+
+    @Test
+    void testOnlyRequestedFieldsAreSerialized() throws Exception {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1051L);
+        row.put("email", null);
+        row.put("version", 2L);
+        UsuariosFieldset fieldset = new UsuariosFieldset(row, List.of("email", "id"));
+
+        assertThat(fieldset.getVersion()).isEqualTo(2L);
+        assertThat(new ObjectMapper().writeValueAsString(fieldset)).isEqualTo("{\"email\":null,\"id\":1051}");
+    }
+}
@@ -0,0 +1,91 @@
+package com.astenensino.login.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.astenensino.login.config.ApplicationProperties;
+import com.astenensino.login.management.SecurityMetersService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class ApiQuotaFilterTest {
+
+    private ApiQuotaFilter apiQuotaFilter;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getApiQuota().getDefaultLimit().setRequestsPerSecond(1);
+        applicationProperties.getApiQuota().getDefaultLimit().setBurst(2);
+        ApiQuotas apiQuotas = new ApiQuotas(
+            applicationProperties,
+            mock(RedissonClient.class),
+            new SecurityMetersService(new SimpleMeterRegistry())
+        );
+        apiQuotaFilter = new ApiQuotaFilter(apiQuotas);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testAuthenticatedRequestsGetRateLimitHeaders() throws Exception {
+        authenticate();
+
+        MockHttpServletResponse response = filter("/api/usuarios");
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getHeader(ApiQuotaFilter.RATE_LIMIT_LIMIT_HEADER)).isEqualTo("2");
+        assertThat(response.getHeader(ApiQuotaFilter.RATE_LIMIT_REMAINING_HEADER)).isEqualTo("1");
+        assertThat(response.getHeader(ApiQuotaFilter.RATE_LIMIT_RESET_HEADER)).isEqualTo("1");
+    }
+
+    @Test
+    void testRequestsBeyondTheQuotaAreRejected() throws Exception {
+        authenticate();
+        filter("/api/usuarios");
+        filter("/api/usuarios");
+
+        MockHttpServletResponse response = filter("/api/usuarios");
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(response.getHeader(ApiQuotaFilter.RATE_LIMIT_REMAINING_HEADER)).isEqualTo("0");
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+    }
+
+    @Test
+    void testRequestsWithoutPrincipalOrOutsideTheApiAreNotCounted() throws Exception {
+        assertThat(filter("/api/usuarios").getHeader(ApiQuotaFilter.RATE_LIMIT_LIMIT_HEADER)).isNull();
+
+        authenticate();
+
+        assertThat(filter("/management/health").getHeader(ApiQuotaFilter.RATE_LIMIT_LIMIT_HEADER)).isNull();
+    }
+
+    private void authenticate() {
+        SecurityContextHolder
+            .getContext()
+            .setAuthentication(new UsernamePasswordAuthenticationToken("user", "", List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER))));
+    }
+
+    private MockHttpServletResponse filter(String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        apiQuotaFilter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,145 @@
+package com.astenensino.login.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.astenensino.login.config.ApplicationProperties;
+import com.astenensino.login.management.SecurityMetersService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RAtomicLongAsync;
+import org.redisson.api.RBatch;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.misc.CompletableFutureWrapper;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+class ApiQuotasTest {
+
+    private ApplicationProperties applicationProperties;
+
+    private RedissonClient redissonClient;
+
+    private MeterRegistry meterRegistry;
+
+    private ApiQuotas apiQuotas;
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getApiQuota().getDefaultLimit().setRequestsPerSecond(1);
+        applicationProperties.getApiQuota().getDefaultLimit().setBurst(3);
+        redissonClient = mock(RedissonClient.class);
+        meterRegistry = new SimpleMeterRegistry();
+        apiQuotas = new ApiQuotas(applicationProperties, redissonClient, new SecurityMetersService(meterRegistry));
+    }
+
+    @Test
+    void testAdmitsTheBurstThenRejects() {
+        Authentication user = authentication("user", AuthoritiesConstants.USER);
+
+        for (int remaining = 2; remaining >= 0; remaining--) {
+            ApiQuotas.Decision decision = apiQuotas.consume(user);
+            assertThat(decision.isAdmitted()).isTrue();
+            assertThat(decision.getLimit()).isEqualTo(3);
+            assertThat(decision.getRemaining()).isEqualTo(remaining);
+            assertThat(decision.getRetryAfterSeconds()).isZero();
+        }
+
+        ApiQuotas.Decision rejected = apiQuotas.consume(user);
+        assertThat(rejected.isAdmitted()).isFalse();
+        assertThat(rejected.getRemaining()).isZero();
+        assertThat(rejected.getRetryAfterSeconds()).isEqualTo(1);
+        assertThat(rejected.getResetSeconds()).isEqualTo(3);
+        assertThat(apiQuotas.consume(authentication("other", AuthoritiesConstants.USER)).isAdmitted()).isTrue();
+        assertThat(meterRegistry.get("security.api-quota.exceeded").tag("tier", "default").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("security.api-quota.exceeded").tagKeys("principal").counters()).isEmpty();
+    }
+
+    @Test
+    void testLimitOfThePrincipalOrOfItsAuthorities() {
+        applicationProperties.getApiQuota().getAuthorities().put(AuthoritiesConstants.ADMIN, limit(10, 20));
+        applicationProperties.getApiQuota().getPrincipals().put("integration", limit(100, 200));
+
+        assertThat(apiQuotas.consume(authentication("admin", AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN)).getLimit())
+            .isEqualTo(20);
+        assertThat(apiQuotas.consume(authentication("integration", AuthoritiesConstants.USER)).getLimit()).isEqualTo(200);
+        assertThat(apiQuotas.consume(authentication("user", AuthoritiesConstants.USER)).getLimit()).isEqualTo(3);
+    }
+
+    @Test
+    void testReconcileChargesTheRequestsOfTheOtherInstances() {
+        applicationProperties.getApiQuota().getDefaultLimit().setBurst(10);
+        Authentication user = authentication("user", AuthoritiesConstants.USER);
+        RAtomicLongAsync usage = mockUsage("user");
+
+        apiQuotas.consume(user);
+        when(usage.addAndGetAsync(anyLong())).thenReturn(new CompletableFutureWrapper<>(41L));
+        apiQuotas.reconcile();
+        verify(usage).addAndGetAsync(1);
+
+        apiQuotas.consume(user);
+        // 1 request admitted here, and 5 on the other instances
+        when(usage.addAndGetAsync(anyLong())).thenReturn(new CompletableFutureWrapper<>(47L));
+        apiQuotas.reconcile();
+
+        assertThat(apiQuotas.consume(user).getRemaining()).isEqualTo(2);
+    }
+
+    @Test
+    void testReconcileFailureReportsTheRequestsLater() {
+        Authentication user = authentication("user", AuthoritiesConstants.USER);
+        RAtomicLongAsync usage = mockUsage("user");
+        RBatch failing = mock(RBatch.class);
+        when(failing.getAtomicLong("apiQuota:user")).thenReturn(usage);
+        when(failing.execute()).thenThrow(new RedisException("Redis is down"));
+        RBatch batch = redissonClient.createBatch();
+        when(redissonClient.createBatch()).thenReturn(failing, batch);
+
+        apiQuotas.consume(user);
+        apiQuotas.consume(user);
+        apiQuotas.reconcile();
+        apiQuotas.reconcile();
+
+        verify(usage, times(2)).addAndGetAsync(2);
+        verify(usage, never()).addAndGetAsync(0);
+    }
+
+    private RAtomicLongAsync mockUsage(String principal) {
+        RAtomicLongAsync usage = mock(RAtomicLongAsync.class);
+        when(usage.addAndGetAsync(anyLong())).thenReturn(new CompletableFutureWrapper<>(0L));
+        when(usage.expireAsync(anyLong(), any(TimeUnit.class))).thenReturn(new CompletableFutureWrapper<>(true));
+        RBatch batch = mock(RBatch.class);
+        when(batch.getAtomicLong(ApiQuotas.USAGE_PREFIX + principal)).thenReturn(usage);
+        when(redissonClient.createBatch()).thenReturn(batch);
+        return usage;
+    }
+
+    private static ApplicationProperties.ApiQuota.Limit limit(double requestsPerSecond, int burst) {
+        ApplicationProperties.ApiQuota.Limit limit = new ApplicationProperties.ApiQuota.Limit();
+        limit.setRequestsPerSecond(requestsPerSecond);
+        limit.setBurst(burst);
+        return limit;
+    }
+
+    private static Authentication authentication(String name, String... authorities) {
+        return new UsernamePasswordAuthenticationToken(
+            name,
+            "",
+            Stream.of(authorities).map(SimpleGrantedAuthority::new).collect(Collectors.toList())
+        );
+    }
+}
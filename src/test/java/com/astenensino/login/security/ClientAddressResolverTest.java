@@ -0,0 +1,55 @@
+package com.astenensino.login.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.astenensino.login.config.ApplicationProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class ClientAddressResolverTest {
+
+    private ClientAddressResolver clientAddressResolver;
+
+    @BeforeEach
+    public void setup() {
+        clientAddressResolver = new ClientAddressResolver(new ApplicationProperties());
+    }
+
+    @Test
+    void testRemoteAddressWhenNotFromTrustedProxy() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("192.0.2.1");
+        request.addHeader(ClientAddressResolver.FORWARDED_FOR_HEADER, "198.51.100.1");
+
+        assertThat(clientAddressResolver.resolve(request)).isEqualTo("192.0.2.1");
+    }
+
+    @Test
+    void testForwardedAddressWhenFromTrustedProxy() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.2");
+        request.addHeader(ClientAddressResolver.FORWARDED_FOR_HEADER, "198.51.100.1, 192.0.2.1, 172.16.0.3");
+
+        // The client cannot spoof its address by sending X-Forwarded-For itself
+        assertThat(clientAddressResolver.resolve(request)).isEqualTo("192.0.2.1");
+    }
+
+    @Test
+    void testLeftmostAddressWhenOnlyTrustedProxies() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.2");
+        request.addHeader(ClientAddressResolver.FORWARDED_FOR_HEADER, "192.168.1.4");
+        request.addHeader(ClientAddressResolver.FORWARDED_FOR_HEADER, "10.0.0.3");
+
+        assertThat(clientAddressResolver.resolve(request)).isEqualTo("192.168.1.4");
+    }
+
+    @Test
+    void testRemoteAddressWhenTrustedProxyForwardsNothing() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("127.0.0.1");
+
+        assertThat(clientAddressResolver.resolve(request)).isEqualTo("127.0.0.1");
+    }
+}
@@ -0,0 +1,107 @@
+package com.astenensino.login.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.astenensino.login.config.ApplicationProperties;
+import com.astenensino.login.management.SecurityMetersService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.Codec;
+
+class LoginThrottleTest {
+
+    private RScript script;
+
+    private MeterRegistry meterRegistry;
+
+    private LoginThrottle loginThrottle;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getLoginThrottling().getEmail().setCapacity(3);
+        applicationProperties.getLoginThrottling().getEmail().setRefillPeriod(Duration.ofMinutes(1));
+        applicationProperties.getLoginThrottling().getClientAddress().setCapacity(5);
+        applicationProperties.getLoginThrottling().getClientAddress().setRefillPeriod(Duration.ofSeconds(10));
+
+        script = mock(RScript.class);
+        when(evalShared(script))
+            .thenReturn(0L);
+        RedissonClient redissonClient = mock(RedissonClient.class);
+        when(redissonClient.getScript(any(Codec.class))).thenReturn(script);
+
+        meterRegistry = new SimpleMeterRegistry();
+        loginThrottle = new LoginThrottle(applicationProperties, redissonClient, new SecurityMetersService(meterRegistry));
+    }
+
+    @Test
+    void testThrottlesLocallyPerEmail() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(loginThrottle.throttle("user@example.com", "192.0.2.1")).isEmpty();
+        }
+
+        assertThat(loginThrottle.throttle("USER@example.com", "192.0.2.2")).contains(Duration.ofMinutes(1));
+        assertThat(loginThrottle.throttle("other@example.com", "192.0.2.1")).isEmpty();
+        assertThat(meterRegistry.get("security.authentication.login-throttled").tag("limit", "email").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testThrottlesLocallyPerClientAddress() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(loginThrottle.throttle("user-" + i + "@example.com", "192.0.2.1")).isEmpty();
+        }
+
+        assertThat(loginThrottle.throttle("user@example.com", "192.0.2.1")).contains(Duration.ofSeconds(10));
+        assertThat(loginThrottle.throttle("user@example.com", "192.0.2.2")).isEmpty();
+        assertThat(meterRegistry.get("security.authentication.login-throttled").tag("limit", "client-address").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void testFirstAttemptDoesNotReachRedis() {
+        assertThat(loginThrottle.throttle("user@example.com", "192.0.2.1")).isEmpty();
+
+        evalShared(verify(script, never()));
+
+        assertThat(loginThrottle.throttle("user@example.com", "192.0.2.1")).isEmpty();
+
+        evalShared(verify(script));
+    }
+
+    @Test
+    void testThrottlesAcrossInstances() {
+        loginThrottle.throttle("user@example.com", "192.0.2.1");
+        when(evalShared(script))
+            .thenReturn(1L);
+
+        assertThat(loginThrottle.throttle("user@example.com", "192.0.2.1")).contains(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testLocalBucketsDecideWithoutRedis() {
+        when(evalShared(script))
+            .thenThrow(new RedisException("Redis is down"));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(loginThrottle.throttle("user@example.com", "192.0.2.1")).isEmpty();
+        }
+        assertThat(loginThrottle.throttle("user@example.com", "192.0.2.1")).isPresent();
+    }
+
+    private static Object evalShared(RScript script) {
+        return script.eval(any(RScript.Mode.class), anyString(), any(RScript.ReturnType.class), anyList(), any());
+    }
+}
@@ -0,0 +1,66 @@
+package com.astenensino.login.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PasswordHashingExecutorTests {
+
+    private MeterRegistry meterRegistry;
+
+    private PasswordHashingExecutor executor;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new PasswordHashingExecutor(1, 1, meterRegistry);
+    }
+
+    @AfterEach
+    public void teardown() {
+        executor.destroy();
+    }
+
+    @Test
+    void testTasksAreRejectedWhenSaturated() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        executor.execute(() -> {
+            running.countDown();
+            await(release);
+            done.countDown();
+        });
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        // The thread is busy, so this one waits in the queue
+        executor.execute(done::countDown);
+
+        assertThatThrownBy(() -> executor.execute(() -> {})).isInstanceOf(RejectedExecutionException.class);
+        assertThat(meterRegistry.get(PasswordHashingExecutor.REJECTED_METER_NAME).counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.get(PasswordHashingExecutor.QUEUE_TIME_METER_NAME).timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testExecutorMetricsAreBound() {
+        meterRegistry.get("executor.queue.remaining").tag("name", PasswordHashingExecutor.EXECUTOR_NAME).gauge();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
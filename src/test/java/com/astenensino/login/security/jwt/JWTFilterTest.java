@@ -1,11 +1,14 @@
 package com.astenensino.login.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
+import com.astenensino.login.config.ApplicationProperties;
 import com.astenensino.login.management.SecurityMetersService;
 import com.astenensino.login.security.AuthoritiesConstants;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.Collections;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,19 +29,22 @@ class JWTFilterTest {
 
     private JWTFilter jwtFilter;
 
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     public void setup() {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         String base64Secret = "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
 
-        SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
+        meterRegistry = new SimpleMeterRegistry();
+        SecurityMetersService securityMetersService = new SecurityMetersService(meterRegistry);
 
-        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties(), securityMetersService, mock(RevokedTokens.class));
         ReflectionTestUtils.setField(tokenProvider, "key", Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
 
         ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", 60000);
-        jwtFilter = new JWTFilter(tokenProvider);
+        jwtFilter = new JWTFilter(tokenProvider, securityMetersService);
         SecurityContextHolder.getContext().setAuthentication(null);
     }
 
@@ -114,4 +120,27 @@ class JWTFilterTest {
         assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
     }
+
+    @Test
+    void testJWTFilterCountsRequestsByOutcome() throws Exception {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            "test-user",
+            "test-password",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+        String jwt = tokenProvider.createToken(authentication, false);
+        for (String authorization : new String[] { "Bearer " + jwt, "Bearer wrong_jwt", null }) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            if (authorization != null) {
+                request.addHeader(JWTFilter.AUTHORIZATION_HEADER, authorization);
+            }
+            request.setRequestURI("/api/test");
+            jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        }
+
+        assertThat(meterRegistry.get("security.authentication.requests").tag("outcome", "authenticated").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("security.authentication.requests").tag("outcome", "rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("security.authentication.requests").tag("outcome", "anonymous").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("security.authentication.latency").tag("stage", "filter").timer().count()).isEqualTo(3);
+    }
 }
@@ -0,0 +1,94 @@
+package com.astenensino.login.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.codec.Codec;
+
+class RevokedTokensTest {
+
+    private RMapCache<String, String> store;
+
+    private RTopic topic;
+
+    private RevokedTokens revokedTokens;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        store = mock(RMapCache.class);
+        topic = mock(RTopic.class);
+        RedissonClient redissonClient = mock(RedissonClient.class);
+        when(redissonClient.<String, String>getMapCache(anyString(), any(Codec.class))).thenReturn(store);
+        when(redissonClient.getTopic(anyString(), any(Codec.class))).thenReturn(topic);
+        revokedTokens = new RevokedTokens(redissonClient);
+    }
+
+    @Test
+    void testRevokedTokenIsStoredAndPublished() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        revokedTokens.revoke("token-id", expiresAt);
+
+        assertThat(revokedTokens.isRevoked("token-id")).isTrue();
+        assertThat(revokedTokens.isRevoked("other-token-id")).isFalse();
+        verify(store).fastPut(eq("token-id"), eq(Long.toString(expiresAt)), any(Long.class), eq(TimeUnit.MILLISECONDS));
+        verify(topic).publish("token-id|" + expiresAt);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRevocationsOfOtherInstancesAreMirrored() {
+        when(store.readAllMap()).thenReturn(Map.of());
+        revokedTokens.afterPropertiesSet();
+        ArgumentCaptor<MessageListener<String>> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(topic).addListener(eq(String.class), listener.capture());
+
+        listener.getValue().onMessage("revokedTokens", "token-id|" + (System.currentTimeMillis() + 60_000));
+        listener.getValue().onMessage("revokedTokens", "malformed");
+
+        assertThat(revokedTokens.isRevoked("token-id")).isTrue();
+        assertThat(revokedTokens.isRevoked("malformed")).isFalse();
+    }
+
+    @Test
+    void testReloadDropsExpiredRevocations() {
+        long now = System.currentTimeMillis();
+        when(store.readAllMap()).thenReturn(Map.of("live-id", Long.toString(now + 60_000), "expired-id", Long.toString(now - 1)));
+
+        revokedTokens.reload();
+
+        assertThat(revokedTokens.isRevoked("live-id")).isTrue();
+        assertThat(revokedTokens.isRevoked("expired-id")).isFalse();
+    }
+
+    @Test
+    void testBloomFilterHasNoFalseNegative() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put("token-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 1000; i++) {
+            assertThat(filter.mightContain("token-" + i)).isTrue();
+            if (filter.mightContain("other-token-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(50);
+    }
+}
@@ -0,0 +1,107 @@
+package com.astenensino.login.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.astenensino.login.config.ApplicationProperties;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import java.security.Key;
+import java.security.KeyPair;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TokenKeysTest {
+
+    private static final Key DEFAULT_KEY = Keys.secretKeyFor(SignatureAlgorithm.HS512);
+
+    private final KeyPair ecKeyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+
+    private final Key hmacKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+
+    private ApplicationProperties.Jwt properties;
+
+    @BeforeEach
+    public void setup() {
+        properties = new ApplicationProperties.Jwt();
+        ApplicationProperties.Jwt.Key ec = new ApplicationProperties.Jwt.Key();
+        ec.setAlgorithm("ES256");
+        ec.setPrivateKey(Encoders.BASE64.encode(ecKeyPair.getPrivate().getEncoded()));
+        ec.setPublicKey(
+            "-----BEGIN PUBLIC KEY-----\n" + Encoders.BASE64.encode(ecKeyPair.getPublic().getEncoded()) + "\n-----END PUBLIC KEY-----\n"
+        );
+        properties.getKeys().put("ec", ec);
+        ApplicationProperties.Jwt.Key hmac = new ApplicationProperties.Jwt.Key();
+        hmac.setAlgorithm("HS256");
+        hmac.setSecret(Encoders.BASE64.encode(hmacKey.getEncoded()));
+        properties.getKeys().put("hmac", hmac);
+    }
+
+    @Test
+    void testSignsWithTheDefaultKeyWithoutSigningKeyId() {
+        TokenKeys tokenKeys = new TokenKeys(DEFAULT_KEY, properties);
+
+        assertThat(tokenKeys.getSigningKeyId()).isNull();
+        assertThat(tokenKeys.getSigningAlgorithm()).isEqualTo(SignatureAlgorithm.HS512);
+        assertThat(tokenKeys.getSigningKey()).isSameAs(DEFAULT_KEY);
+    }
+
+    @Test
+    void testSignsWithTheConfiguredKey() {
+        properties.setSigningKeyId("ec");
+        TokenKeys tokenKeys = new TokenKeys(DEFAULT_KEY, properties);
+
+        assertThat(tokenKeys.getSigningKeyId()).isEqualTo("ec");
+        assertThat(tokenKeys.getSigningAlgorithm()).isEqualTo(SignatureAlgorithm.ES256);
+        assertThat(tokenKeys.getSigningKey()).isEqualTo(ecKeyPair.getPrivate());
+    }
+
+    @Test
+    void testVerifiesTokensOfAllTheKeysDuringRotation() {
+        JwtParser parser = Jwts.parserBuilder().setSigningKeyResolver(new TokenKeys(DEFAULT_KEY, properties)).build();
+
+        String withoutKeyId = Jwts.builder().setSubject("old").signWith(DEFAULT_KEY, SignatureAlgorithm.HS512).compact();
+        String ec = sign("ec", ecKeyPair.getPrivate(), SignatureAlgorithm.ES256);
+        String hmac = sign("hmac", hmacKey, SignatureAlgorithm.HS256);
+
+        assertThat(parser.parseClaimsJws(withoutKeyId).getBody().getSubject()).isEqualTo("old");
+        assertThat(parser.parseClaimsJws(ec).getBody().getSubject()).isEqualTo("ec");
+        assertThat(parser.parseClaimsJws(hmac).getBody().getSubject()).isEqualTo("hmac");
+    }
+
+    @Test
+    void testRejectsUnknownKeyId() {
+        JwtParser parser = Jwts.parserBuilder().setSigningKeyResolver(new TokenKeys(DEFAULT_KEY, properties)).build();
+        String token = sign("removed", hmacKey, SignatureAlgorithm.HS256);
+
+        assertThatThrownBy(() -> parser.parseClaimsJws(token)).isInstanceOf(UnsupportedJwtException.class);
+    }
+
+    @Test
+    void testRejectsAnotherAlgorithmThanTheOneOfTheKey() {
+        JwtParser parser = Jwts.parserBuilder().setSigningKeyResolver(new TokenKeys(DEFAULT_KEY, properties)).build();
+        // The default key is long enough for HS256, but only HS512 tokens are accepted with it
+        String withoutKeyId = sign(null, DEFAULT_KEY, SignatureAlgorithm.HS256);
+        String hmac = sign("hmac", DEFAULT_KEY, SignatureAlgorithm.HS512);
+
+        assertThatThrownBy(() -> parser.parseClaimsJws(withoutKeyId)).isInstanceOf(UnsupportedJwtException.class);
+        assertThatThrownBy(() -> parser.parseClaimsJws(hmac)).isInstanceOf(UnsupportedJwtException.class);
+    }
+
+    @Test
+    void testRejectsSigningKeyWithoutPrivateKey() {
+        properties.getKeys().get("ec").setPrivateKey(null);
+        properties.setSigningKeyId("ec");
+
+        assertThatThrownBy(() -> new TokenKeys(DEFAULT_KEY, properties)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String sign(String keyId, Key key, SignatureAlgorithm algorithm) {
+        return Jwts.builder().setHeaderParam(JwsHeader.KEY_ID, keyId).setSubject(keyId).signWith(key, algorithm).compact();
+    }
+}
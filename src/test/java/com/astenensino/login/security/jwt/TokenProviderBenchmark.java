@@ -0,0 +1,121 @@
+package com.astenensino.login.security.jwt;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.astenensino.login.config.ApplicationProperties;
+import com.astenensino.login.management.SecurityMetersService;
+import com.astenensino.login.security.AuthoritiesConstants;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.security.KeyPair;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Cost of signing and of verifying a token with each supported algorithm, the verified token cache left aside.
+ * <p>
+ * Not a test: run it with {@code ./mvnw -Pdev,benchmark test-compile exec:exec -Dbenchmark=TokenProviderBenchmark}, the
+ * benchmark profile generating its harness.
+ * <p>
+ * Measured on one vCPU of an Intel Xeon with OpenJDK 17, in operations per second, the error margins being wide on
+ * such a shared core:
+ * <pre>
+ * algorithm   createToken   getAuthentication
+ * HS256             5 675             100 111
+ * HS512             5 448              95 765
+ * ES256               377                 391
+ * </pre>
+ * HS256 and HS512 cost about the same, while ES256 costs about 15 times as much CPU to create a token and about 250
+ * times as much to verify one, a cost the verified token cache only pays once per token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenProviderBenchmark {
+
+    @Param({ "HS256", "HS512", "ES256" })
+    public String algorithm;
+
+    private TokenProvider tokenProvider;
+
+    private Authentication authentication;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties
+            .getSecurity()
+            .getAuthentication()
+            .getJwt()
+            .setBase64Secret(Encoders.BASE64.encode(Keys.secretKeyFor(SignatureAlgorithm.HS512).getEncoded()));
+
+        SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.forName(algorithm);
+        ApplicationProperties.Jwt.Key key = new ApplicationProperties.Jwt.Key();
+        key.setAlgorithm(algorithm);
+        if (signatureAlgorithm.isHmac()) {
+            key.setSecret(Encoders.BASE64.encode(Keys.secretKeyFor(signatureAlgorithm).getEncoded()));
+        } else {
+            KeyPair keyPair = Keys.keyPairFor(signatureAlgorithm);
+            key.setPrivateKey(Encoders.BASE64.encode(keyPair.getPrivate().getEncoded()));
+            key.setPublicKey(Encoders.BASE64.encode(keyPair.getPublic().getEncoded()));
+        }
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getJwt().getKeys().put(algorithm, key);
+        applicationProperties.getJwt().setSigningKeyId(algorithm);
+
+        RedissonClient redissonClient = mock(RedissonClient.class);
+        when(redissonClient.<String, String>getMapCache(anyString(), any(Codec.class))).thenReturn(mock(RMapCache.class));
+        when(redissonClient.getTopic(anyString(), any(Codec.class))).thenReturn(mock(RTopic.class));
+
+        tokenProvider =
+            new TokenProvider(
+                jHipsterProperties,
+                applicationProperties,
+                new SecurityMetersService(new SimpleMeterRegistry()),
+                new RevokedTokens(redissonClient)
+            );
+        authentication =
+            new UsernamePasswordAuthenticationToken("benchmark", "", List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER)));
+        token = tokenProvider.createToken(authentication, false);
+    }
+
+    @Benchmark
+    public String createToken() {
+        return tokenProvider.createToken(authentication, false);
+    }
+
+    @Benchmark
+    public Authentication getAuthentication() {
+        // Goes through the parsing and the signature verification, unlike resolveAuthentication once the token is cached
+        return tokenProvider.getAuthentication(token);
+    }
+}
@@ -1,7 +1,9 @@
 package com.astenensino.login.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
+import com.astenensino.login.config.ApplicationProperties;
 import com.astenensino.login.management.SecurityMetersService;
 import com.astenensino.login.security.AuthoritiesConstants;
 import io.jsonwebtoken.Jwts;
@@ -9,6 +11,7 @@ import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.security.Key;
@@ -28,6 +31,10 @@ class TokenProviderSecurityMetersTests {
 
     private static final long ONE_MINUTE = 60000;
     private static final String INVALID_TOKENS_METER_EXPECTED_NAME = "security.authentication.invalid-tokens";
+    private static final String TOKEN_CACHE_METER_EXPECTED_NAME = "security.authentication.token-cache";
+    private static final String TOKEN_VERIFICATION_METER_EXPECTED_NAME = "security.authentication.token-verification";
+    private static final String AUTHENTICATION_LATENCY_METER_EXPECTED_NAME = "security.authentication.latency";
+    private static final String TOKEN_TIME_TO_EXPIRY_METER_EXPECTED_NAME = "security.authentication.token-time-to-expiry";
 
     private MeterRegistry meterRegistry;
 
@@ -43,13 +50,35 @@ class TokenProviderSecurityMetersTests {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(meterRegistry);
 
-        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties(), securityMetersService, mock(RevokedTokens.class));
         Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
         ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", ONE_MINUTE);
     }
 
+    @Test
+    void testStagesAreTimed() {
+        String validToken = createValidToken();
+        tokenProvider.validateToken(validToken);
+        tokenProvider.getAuthentication(validToken);
+        tokenProvider.resolveAuthentication(validToken);
+
+        assertThat(meterRegistry.get(AUTHENTICATION_LATENCY_METER_EXPECTED_NAME).tag("stage", "creation").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(AUTHENTICATION_LATENCY_METER_EXPECTED_NAME).tag("stage", "validation").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(AUTHENTICATION_LATENCY_METER_EXPECTED_NAME).tag("stage", "authentication").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testTimeToExpiryIsRecordedForValidTokens() {
+        tokenProvider.resolveAuthentication(createValidToken());
+        tokenProvider.resolveAuthentication(createExpiredToken());
+
+        DistributionSummary timeToExpiry = meterRegistry.get(TOKEN_TIME_TO_EXPIRY_METER_EXPECTED_NAME).summary();
+        assertThat(timeToExpiry.count()).isEqualTo(1);
+        assertThat(timeToExpiry.max()).isPositive().isLessThanOrEqualTo(ONE_MINUTE / 1000.0);
+    }
+
     @Test
     void testValidTokenShouldNotCountAnything() {
         Collection<Counter> counters = meterRegistry.find(INVALID_TOKENS_METER_EXPECTED_NAME).counters();
@@ -107,6 +136,29 @@ class TokenProviderSecurityMetersTests {
         assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "malformed").counter().count()).isEqualTo(1);
     }
 
+    @Test
+    void testTokenCacheHitAndMissCount() {
+        String validToken = createValidToken();
+
+        tokenProvider.resolveAuthentication(validToken);
+        tokenProvider.resolveAuthentication(validToken);
+
+        assertThat(meterRegistry.get(TOKEN_CACHE_METER_EXPECTED_NAME).tag("result", "miss").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(TOKEN_CACHE_METER_EXPECTED_NAME).tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(TOKEN_VERIFICATION_METER_EXPECTED_NAME).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testInvalidTokenIsVerifiedEachTime() {
+        String expiredToken = createExpiredToken();
+
+        tokenProvider.resolveAuthentication(expiredToken);
+        tokenProvider.resolveAuthentication(expiredToken);
+
+        assertThat(meterRegistry.get(TOKEN_CACHE_METER_EXPECTED_NAME).tag("result", "miss").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "expired").counter().count()).isEqualTo(2);
+    }
+
     private String createValidToken() {
         Authentication authentication = createAuthentication();
 
@@ -1,7 +1,12 @@
 package com.astenensino.login.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import com.astenensino.login.config.ApplicationProperties;
 import com.astenensino.login.management.SecurityMetersService;
 import com.astenensino.login.security.AuthoritiesConstants;
 import io.jsonwebtoken.Jwts;
@@ -11,8 +16,13 @@ import io.jsonwebtoken.security.Keys;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Instant;
 import java.util.*;
 import org.junit.jupiter.api.BeforeEach;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -36,7 +46,11 @@ class TokenProviderTest {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        RedissonClient redissonClient = mock(RedissonClient.class);
+        when(redissonClient.<String, String>getMapCache(anyString(), any(Codec.class))).thenReturn(mock(RMapCache.class));
+        when(redissonClient.getTopic(anyString(), any(Codec.class))).thenReturn(mock(RTopic.class));
+
+        tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties(), securityMetersService, new RevokedTokens(redissonClient));
         key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
@@ -88,6 +102,92 @@ class TokenProviderTest {
         assertThat(isTokenValid).isFalse();
     }
 
+    @Test
+    void testResolveAuthenticationIsCached() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Optional<Authentication> authentication = tokenProvider.resolveAuthentication(token);
+
+        assertThat(authentication).isPresent();
+        assertThat(authentication.get().getName()).isEqualTo("anonymous");
+        assertThat(authentication.get().getCredentials()).isEqualTo(token);
+        assertThat(authentication.get().getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly(AuthoritiesConstants.ANONYMOUS);
+        assertThat(tokenProvider.resolveAuthentication(token)).get().extracting(Authentication::getName).isEqualTo("anonymous");
+    }
+
+    @Test
+    void testResolveAuthenticationIsNotShared() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Authentication authentication = tokenProvider.resolveAuthentication(token).orElseThrow();
+        authentication.setAuthenticated(false);
+        ((UsernamePasswordAuthenticationToken) authentication).eraseCredentials();
+
+        Authentication other = tokenProvider.resolveAuthentication(token).orElseThrow();
+        assertThat(other).isNotSameAs(authentication);
+        assertThat(other.isAuthenticated()).isTrue();
+        assertThat(other.getCredentials()).isEqualTo(token);
+        assertThat(other.getAuthorities().iterator().next()).isSameAs(authentication.getAuthorities().iterator().next());
+    }
+
+    @Test
+    void testAuthoritiesAreShared() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        String rememberMeToken = tokenProvider.createToken(createAuthentication(), true);
+
+        GrantedAuthority authority = tokenProvider.resolveAuthentication(token).orElseThrow().getAuthorities().iterator().next();
+        GrantedAuthority rememberMeAuthority = tokenProvider
+            .resolveAuthentication(rememberMeToken)
+            .orElseThrow()
+            .getAuthorities()
+            .iterator()
+            .next();
+        assertThat(rememberMeAuthority).isSameAs(authority);
+    }
+
+    @Test
+    void testResolveAuthenticationOfInvalidToken() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenProvider.resolveAuthentication(token.substring(1))).isEmpty();
+        assertThat(tokenProvider.resolveAuthentication(createTokenWithDifferentSignature())).isEmpty();
+    }
+
+    @Test
+    void testRevokedTokenIsRejected() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        String otherToken = tokenProvider.createToken(createAuthentication(), false);
+        assertThat(tokenProvider.resolveAuthentication(token)).isPresent();
+
+        assertThat(tokenProvider.revokeToken(token)).isTrue();
+
+        assertThat(tokenProvider.resolveAuthentication(token)).isEmpty();
+        assertThat(tokenProvider.validateToken(token)).isFalse();
+        assertThat(tokenProvider.resolveAuthentication(otherToken)).isPresent();
+    }
+
+    @Test
+    void testIntrospectToken() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Optional<IntrospectedToken> introspected = tokenProvider.introspectToken(token);
+
+        assertThat(introspected).isPresent();
+        assertThat(introspected.get().getSubject()).isEqualTo("anonymous");
+        assertThat(introspected.get().getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly(AuthoritiesConstants.ANONYMOUS);
+        assertThat(introspected.get().getExpiresAt()).isAfter(Instant.now()).isBefore(Instant.now().plusMillis(ONE_MINUTE + 1000));
+        assertThat(tokenProvider.introspectToken(createTokenWithDifferentSignature())).isEmpty();
+
+        tokenProvider.revokeToken(token);
+
+        assertThat(tokenProvider.introspectToken(token)).isEmpty();
+    }
+
+    @Test
+    void testInvalidTokenIsNotRevoked() {
+        assertThat(tokenProvider.revokeToken(createTokenWithDifferentSignature())).isFalse();
+    }
+
     @Test
     void testKeyIsSetFromSecretWhenSecretIsNotEmpty() {
         final String secret = "NwskoUmKHZtzGRKJKVjsJF7BtQMMxNWi";
@@ -96,7 +196,7 @@ class TokenProviderTest {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties(), securityMetersService, mock(RevokedTokens.class));
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
@@ -110,7 +210,7 @@ class TokenProviderTest {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties(), securityMetersService, mock(RevokedTokens.class));
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
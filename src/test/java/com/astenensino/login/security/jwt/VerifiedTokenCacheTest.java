@@ -0,0 +1,70 @@
+package com.astenensino.login.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+class VerifiedTokenCacheTest {
+
+    private static final long NOW = 1_000_000L;
+
+    private static final List<GrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    @Test
+    void testEntryIsNotServedOnceExpired() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(16);
+        cache.put("key", "user", AUTHORITIES, "id", NOW + 1000);
+
+        VerifiedTokenCache.Entry entry = cache.get("key", NOW + 999);
+        assertThat(entry.getSubject()).isEqualTo("user");
+        assertThat(entry.getAuthorities()).isSameAs(AUTHORITIES);
+        assertThat(cache.get("key", NOW + 1000)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(16);
+        for (int i = 0; i < 1000; i++) {
+            cache.put("key-" + i, "user", AUTHORITIES, "id-" + i, NOW + 1000);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(16);
+        assertThat(cache.get("key-999", NOW)).isNotNull();
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        // Two entries per stripe, and three keys falling into the same one
+        VerifiedTokenCache cache = new VerifiedTokenCache(32);
+        List<String> keys = keysOfOneStripe(3);
+        cache.put(keys.get(0), "user", AUTHORITIES, "id-0", NOW + 1000);
+        cache.put(keys.get(1), "user", AUTHORITIES, "id-1", NOW + 1000);
+        assertThat(cache.get(keys.get(0), NOW)).isNotNull();
+        cache.put(keys.get(2), "user", AUTHORITIES, "id-2", NOW + 1000);
+
+        assertThat(cache.get(keys.get(0), NOW)).isNotNull();
+        assertThat(cache.get(keys.get(1), NOW)).isNull();
+        assertThat(cache.get(keys.get(2), NOW)).isNotNull();
+    }
+
+    @Test
+    void testKeyIsADigestOfTheToken() {
+        assertThat(VerifiedTokenCache.keyOf("a.b.c")).isEqualTo(VerifiedTokenCache.keyOf("a.b.c")).isNotEqualTo(VerifiedTokenCache.keyOf("a.b.d"));
+    }
+
+    private static List<String> keysOfOneStripe(int count) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; keys.size() < count; i++) {
+            String key = "key-" + i;
+            if (VerifiedTokenCache.stripeIndexOf(key) == VerifiedTokenCache.stripeIndexOf("key-0")) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,111 @@
+package com.astenensino.login.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.astenensino.login.web.filter.AdaptiveConcurrencyLimit.Priority;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = 1_000_000;
+
+    private static final long SLOW = 50_000_000;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testRequestsBeyondTheLimitAreRejected() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 4, 100, meterRegistry);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limit.tryAcquire(Priority.READ)).isEqualTo(i + 1);
+        }
+
+        assertThat(limit.tryAcquire(Priority.READ)).isNegative();
+        assertThat(limit.getInFlight()).isEqualTo(10);
+        assertThat(meterRegistry.get(AdaptiveConcurrencyLimit.SHED_METER_NAME).tag("priority", "read").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void testLowerPrioritiesAreShedFirst() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 4, 100, meterRegistry);
+        for (int i = 0; i < 5; i++) {
+            limit.tryAcquire(Priority.READ);
+        }
+
+        assertThat(limit.tryAcquire(Priority.BULK)).isNegative();
+        assertThat(limit.tryAcquire(Priority.WRITE)).isEqualTo(6);
+        assertThat(limit.tryAcquire(Priority.WRITE)).isEqualTo(7);
+        assertThat(limit.tryAcquire(Priority.WRITE)).isEqualTo(8);
+        assertThat(limit.tryAcquire(Priority.WRITE)).isNegative();
+        assertThat(limit.tryAcquire(Priority.READ)).isEqualTo(9);
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyIsSteady() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 4, 100, meterRegistry);
+
+        runAtLimit(limit, FAST, 20);
+
+        assertThat(limit.getLimit()).isGreaterThan(10);
+        assertThat(meterRegistry.get(AdaptiveConcurrencyLimit.LIMIT_METER_NAME).gauge().value()).isEqualTo(limit.getLimit());
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyRises() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 4, 100, meterRegistry);
+        runAtLimit(limit, FAST, 5);
+        int steady = limit.getLimit();
+
+        runAtLimit(limit, SLOW, 5);
+
+        assertThat(limit.getLimit()).isLessThan(steady);
+        assertThat(limit.getLimit()).isGreaterThanOrEqualTo(4);
+    }
+
+    @Test
+    void testLimitIsKeptWhileUnderused() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 4, 100, meterRegistry);
+
+        for (int i = 0; i < 100; i++) {
+            limit.release(limit.tryAcquire(Priority.READ), FAST);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(10);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    @Test
+    void testLimitStaysWithinItsBounds() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 4, 12, meterRegistry);
+
+        runAtLimit(limit, FAST, 50);
+
+        assertThat(limit.getLimit()).isEqualTo(12);
+    }
+
+    /**
+     * Fills the limit, then releases all the requests with the given latency, as many times.
+     */
+    private static void runAtLimit(AdaptiveConcurrencyLimit limit, long rttNanos, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            List<Integer> admitted = new ArrayList<>();
+            int inFlight;
+            while ((inFlight = limit.tryAcquire(Priority.READ)) > 0) {
+                admitted.add(inFlight);
+            }
+            admitted.forEach(value -> limit.release(value, rttNanos));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.astenensino.login.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.astenensino.login.web.filter.AdaptiveConcurrencyLimit.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ConcurrencyLimitFilterTest {
+
+    private AdaptiveConcurrencyLimit limit;
+
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    @BeforeEach
+    public void setup() {
+        limit = new AdaptiveConcurrencyLimit(4, 4, 4, new SimpleMeterRegistry());
+        concurrencyLimitFilter = new ConcurrencyLimitFilter(limit);
+    }
+
+    @Test
+    void testAdmittedRequestIsReleased() throws Exception {
+        MockHttpServletResponse response = filter("GET", "/api/usuarios");
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    @Test
+    void testRequestBeyondTheLimitIsRejected() throws Exception {
+        fill();
+
+        MockHttpServletResponse response = filter("GET", "/api/usuarios");
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo(ConcurrencyLimitFilter.RETRY_AFTER_SECONDS);
+    }
+
+    @Test
+    void testManagementRequestIsNeverLimited() throws Exception {
+        fill();
+
+        MockHttpServletResponse response = filter("GET", "/management/health");
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void testAsynchronousRequestIsReleasedOnceComplete() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api/usuarios");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        concurrencyLimitFilter.doFilter(request, response, (req, res) -> req.startAsync());
+
+        assertThat(limit.getInFlight()).isEqualTo(1);
+        request.getAsyncContext().complete();
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    @Test
+    void testEventStreamIsNeverLimited() throws Exception {
+        fill();
+
+        MockHttpServletResponse response = filter("GET", "/api/asten-ensino-kafka/register");
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void testPriorities() {
+        assertThat(ConcurrencyLimitFilter.priorityOf(request("GET", "/api/usuarios"))).isEqualTo(Priority.READ);
+        assertThat(ConcurrencyLimitFilter.priorityOf(request("POST", "/api/usuarios"))).isEqualTo(Priority.WRITE);
+        assertThat(ConcurrencyLimitFilter.priorityOf(request("POST", "/api/usuarios/_bulk"))).isEqualTo(Priority.BULK);
+        assertThat(ConcurrencyLimitFilter.priorityOf(request("GET", "/api/usuarios/_export"))).isEqualTo(Priority.BULK);
+    }
+
+    private void fill() {
+        while (limit.tryAcquire(Priority.READ) > 0) {
+            // Held until the end of the test
+        }
+    }
+
+    private MockHttpServletResponse filter(String method, String uri) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        concurrencyLimitFilter.doFilter(request(method, uri), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setServletPath(uri);
+        return request;
+    }
+}
@@ -0,0 +1,54 @@
+package com.astenensino.login.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.astenensino.login.deadline.RequestDeadline;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class RequestDeadlineFilterTest {
+
+    private final RequestDeadlineFilter requestDeadlineFilter = new RequestDeadlineFilter();
+
+    @Test
+    void testDeadlineIsBoundWhileProcessing() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/usuarios");
+        request.addHeader(RequestDeadline.HEADER, "5000");
+        AtomicReference<Optional<RequestDeadline>> deadline = new AtomicReference<>();
+
+        requestDeadlineFilter.doFilter(request, new MockHttpServletResponse(), (req, res) -> deadline.set(RequestDeadline.current()));
+
+        assertThat(deadline.get()).hasValueSatisfying(value -> assertThat(value.remainingMillis()).isBetween(1L, 5_000L));
+        assertThat(RequestDeadline.current()).isEmpty();
+    }
+
+    @Test
+    void testRequestWithoutDeadlineHasNone() throws Exception {
+        AtomicReference<Optional<RequestDeadline>> deadline = new AtomicReference<>();
+
+        requestDeadlineFilter.doFilter(
+            new MockHttpServletRequest("GET", "/api/usuarios"),
+            new MockHttpServletResponse(),
+            (req, res) -> deadline.set(RequestDeadline.current())
+        );
+
+        assertThat(deadline.get()).isEmpty();
+    }
+
+    @Test
+    void testRequestPastItsDeadlineIsNotProcessed() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/usuarios");
+        request.addHeader(RequestDeadline.HEADER, "0");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<Boolean> processed = new AtomicReference<>(false);
+
+        requestDeadlineFilter.doFilter(request, response, (req, res) -> processed.set(true));
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT.value());
+        assertThat(processed.get()).isFalse();
+    }
+}
@@ -10,6 +10,7 @@ import com.astenensino.login.IntegrationTest;
 import com.astenensino.login.config.EmbeddedKafka;
 import com.astenensino.login.config.KafkaSseConsumer;
 import com.astenensino.login.config.KafkaSseProducer;
+import com.astenensino.login.web.sse.SseEvent;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
@@ -18,6 +19,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.cloud.stream.test.binder.MessageCollector;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHeaders;
@@ -49,12 +52,56 @@ class AstenEnsinoKafkaResourceIT {
 
     @Test
     void producesMessages() throws Exception {
-        restMockMvc.perform(post("/api/asten-ensino-kafka/publish?message=value-produce")).andExpect(status().isOk());
+        restMockMvc.perform(post("/api/asten-ensino-kafka/publish?message=value-produce")).andExpect(status().isAccepted());
         BlockingQueue<Message<?>> messages = collector.forChannel(output);
         GenericMessage<String> payload = (GenericMessage<String>) messages.take();
         assertThat(payload.getPayload()).isEqualTo("value-produce");
     }
 
+    @Test
+    void producesBulkMessagesInOrder() throws Exception {
+        restMockMvc
+            .perform(
+                post("/api/asten-ensino-kafka/publish/_bulk")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("[{\"message\":\"value-bulk-1\"},{\"message\":\"value-bulk-2\",\"channel\":\"test-channel\"}]")
+            )
+            .andExpect(status().isAccepted());
+        BlockingQueue<Message<?>> messages = collector.forChannel(output);
+        Message<?> first = messages.take();
+        Message<?> second = messages.take();
+        assertThat(first.getPayload()).isEqualTo("value-bulk-1");
+        assertThat(second.getPayload()).isEqualTo("value-bulk-2");
+        assertThat(second.getHeaders()).containsEntry(SseEvent.CHANNEL_HEADER, "test-channel");
+    }
+
+    @Test
+    void producesNdjsonBulkMessages() throws Exception {
+        restMockMvc
+            .perform(
+                post("/api/asten-ensino-kafka/publish/_bulk")
+                    .contentType("application/x-ndjson")
+                    .content("{\"message\":\"value-ndjson-1\"}\n{\"message\":\"value-ndjson-2\"}\n")
+            )
+            .andExpect(status().isAccepted());
+        BlockingQueue<Message<?>> messages = collector.forChannel(output);
+        assertThat(messages.take().getPayload()).isEqualTo("value-ndjson-1");
+        assertThat(messages.take().getPayload()).isEqualTo("value-ndjson-2");
+    }
+
+    @Test
+    void rejectsBulkMessagesWithoutMessage() throws Exception {
+        collector.forChannel(output).clear();
+        restMockMvc
+            .perform(
+                post("/api/asten-ensino-kafka/publish/_bulk")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("[{\"message\":\"value-bulk\"},{\"channel\":\"test-channel\"}]")
+            )
+            .andExpect(status().isBadRequest());
+        assertThat(collector.forChannel(output)).isEmpty();
+    }
+
     @Test
     void consumesMessages() throws Exception {
         Map<String, Object> map = new HashMap<>();
@@ -77,4 +124,56 @@ class AstenEnsinoKafkaResourceIT {
         }
         fail("Expected content data:value-consume not received");
     }
+
+    @Test
+    void consumesMessagesWithTheIdOfTheirRecord() throws Exception {
+        Map<String, Object> map = new HashMap<>();
+        map.put(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.TEXT_PLAIN_VALUE);
+        map.put(KafkaHeaders.RECEIVED_PARTITION_ID, 0);
+        map.put(KafkaHeaders.OFFSET, 41L);
+        Message<String> testMessage = new GenericMessage<>("value-offset", new MessageHeaders(map));
+        MvcResult mvcResult = restMockMvc
+            .perform(get("/api/asten-ensino-kafka/register"))
+            .andExpect(status().isOk())
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        for (int i = 0; i < 100; i++) {
+            input.send(testMessage);
+            Thread.sleep(100);
+            String content = mvcResult.getResponse().getContentAsString();
+            if (content.contains("data:value-offset")) {
+                assertThat(content).contains("id:42");
+                restMockMvc.perform(get("/api/asten-ensino-kafka/unregister"));
+                return;
+            }
+        }
+        fail("Expected content data:value-offset not received");
+    }
+
+    @Test
+    void consumesMessagesOfSubscribedChannelsOnly() throws Exception {
+        Map<String, Object> map = new HashMap<>();
+        map.put(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.TEXT_PLAIN_VALUE);
+        map.put(SseEvent.CHANNEL_HEADER, "other-channel");
+        Message<String> otherMessage = new GenericMessage<>("value-other", new MessageHeaders(map));
+        map.put(SseEvent.CHANNEL_HEADER, "test-channel");
+        Message<String> testMessage = new GenericMessage<>("value-channel", new MessageHeaders(map));
+        MvcResult mvcResult = restMockMvc
+            .perform(get("/api/asten-ensino-kafka/register?channel=test-channel"))
+            .andExpect(status().isOk())
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        for (int i = 0; i < 100; i++) {
+            input.send(otherMessage);
+            input.send(testMessage);
+            Thread.sleep(100);
+            String content = mvcResult.getResponse().getContentAsString();
+            if (content.contains("data:value-channel")) {
+                assertThat(content).doesNotContain("value-other");
+                restMockMvc.perform(get("/api/asten-ensino-kafka/unregister"));
+                return;
+            }
+        }
+        fail("Expected content data:value-channel not received");
+    }
 }
@@ -0,0 +1,103 @@
+package com.astenensino.login.web.rest;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.astenensino.login.IntegrationTest;
+import com.astenensino.login.security.AuthoritiesConstants;
+import com.astenensino.login.security.jwt.JWTFilter;
+import com.astenensino.login.security.jwt.TokenProvider;
+import com.astenensino.login.web.rest.vm.IntrospectTokensVM;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the {@link TokenResource} REST controller.
+ */
+@AutoConfigureMockMvc
+@IntegrationTest
+class TokenResourceIT {
+
+    @Autowired
+    private TokenProvider tokenProvider;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testRevokedTokenIsRejected() throws Exception {
+        String token = tokenProvider.createToken(
+            new UsernamePasswordAuthenticationToken("revoked", "", List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER))),
+            false
+        );
+        String authorization = "Bearer " + token;
+        mockMvc.perform(get("/api/usuarios").header(JWTFilter.AUTHORIZATION_HEADER, authorization)).andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/token/_revoke").header(JWTFilter.AUTHORIZATION_HEADER, authorization)).andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/usuarios").header(JWTFilter.AUTHORIZATION_HEADER, authorization)).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testRevokeWithoutToken() throws Exception {
+        mockMvc.perform(post("/api/token/_revoke")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testIntrospectTokens() throws Exception {
+        String token = tokenProvider.createToken(
+            new UsernamePasswordAuthenticationToken("introspected", "", List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER))),
+            false
+        );
+        String revoked = tokenProvider.createToken(
+            new UsernamePasswordAuthenticationToken("revoked", "", List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER))),
+            false
+        );
+        tokenProvider.revokeToken(revoked);
+        IntrospectTokensVM introspectTokensVM = new IntrospectTokensVM();
+        introspectTokensVM.setTokens(List.of(token, "not-a-token", revoked, token));
+
+        mockMvc
+            .perform(
+                post("/api/token/_introspect")
+                    .header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + token)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(introspectTokensVM))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(4))
+            .andExpect(jsonPath("$[0].active").value(true))
+            .andExpect(jsonPath("$[0].sub").value("introspected"))
+            .andExpect(jsonPath("$[0].authorities").value(AuthoritiesConstants.USER))
+            .andExpect(jsonPath("$[0].exp").isNumber())
+            .andExpect(jsonPath("$[1].active").value(false))
+            .andExpect(jsonPath("$[1].sub").doesNotExist())
+            .andExpect(jsonPath("$[2].active").value(false))
+            .andExpect(jsonPath("$[3].sub").value("introspected"));
+    }
+
+    @Test
+    @WithMockUser
+    void testIntrospectTooManyTokens() throws Exception {
+        IntrospectTokensVM introspectTokensVM = new IntrospectTokensVM();
+        introspectTokensVM.setTokens(Collections.nCopies(IntrospectTokensVM.MAX_TOKENS + 1, "token"));
+
+        mockMvc
+            .perform(
+                post("/api/token/_introspect")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(introspectTokensVM))
+            )
+            .andExpect(status().isBadRequest());
+    }
+}
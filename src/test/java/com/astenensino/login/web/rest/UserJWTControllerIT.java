@@ -0,0 +1,148 @@
+package com.astenensino.login.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.emptyString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.astenensino.login.IntegrationTest;
+import com.astenensino.login.config.ApplicationProperties;
+import com.astenensino.login.domain.Usuarios;
+import com.astenensino.login.repository.UsuariosRepository;
+import com.astenensino.login.web.rest.vm.LoginVM;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+/**
+ * Integration tests for the {@link UserJWTController} REST controller.
+ * <p>
+ * The passwords are verified on another thread, so the usuarios are committed rather than rolled back.
+ */
+@AutoConfigureMockMvc
+@IntegrationTest
+class UserJWTControllerIT {
+
+    private static final String EMAIL = "user-jwt-controller@example.com";
+
+    private static final String PASSWORD = "test";
+
+    @Autowired
+    private UsuariosRepository usuariosRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    public void cleanup() {
+        usuariosRepository.findByEmail(EMAIL).ifPresent(usuariosRepository::delete);
+    }
+
+    @Test
+    void testAuthorize() throws Exception {
+        usuariosRepository.saveAndFlush(new Usuarios().email(EMAIL).password(passwordEncoder.encode(PASSWORD)));
+
+        authorize(EMAIL.toUpperCase(), PASSWORD, false)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id_token").isString())
+            .andExpect(jsonPath("$.id_token").isNotEmpty())
+            .andExpect(header().string("Authorization", not(emptyString())));
+    }
+
+    @Test
+    void testAuthorizeWithRememberMe() throws Exception {
+        usuariosRepository.saveAndFlush(new Usuarios().email(EMAIL).password(passwordEncoder.encode(PASSWORD)));
+
+        authorize(EMAIL, PASSWORD, true)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id_token").isString())
+            .andExpect(jsonPath("$.id_token").isNotEmpty())
+            .andExpect(header().string("Authorization", not(emptyString())));
+    }
+
+    @Test
+    void testAuthorizeUpgradesPlainTextPassword() throws Exception {
+        Usuarios usuarios = usuariosRepository.saveAndFlush(new Usuarios().email(EMAIL).password(PASSWORD));
+
+        authorize(EMAIL, PASSWORD, false).andExpect(status().isOk());
+
+        Usuarios upgraded = usuariosRepository.findById(usuarios.getId()).orElseThrow();
+        assertThat(upgraded.getPassword()).startsWith("{bcrypt}");
+        assertThat(passwordEncoder.matches(PASSWORD, upgraded.getPassword())).isTrue();
+        assertThat(upgraded.getVersion()).isEqualTo(usuarios.getVersion() + 1);
+    }
+
+    @Test
+    void testAuthorizeFails() throws Exception {
+        usuariosRepository.saveAndFlush(new Usuarios().email(EMAIL).password(passwordEncoder.encode(PASSWORD)));
+
+        authorize(EMAIL, "wrong password", false)
+            .andExpect(status().isUnauthorized())
+            .andExpect(jsonPath("$.id_token").doesNotExist())
+            .andExpect(header().doesNotExist("Authorization"));
+
+        authorize("unknown@example.com", PASSWORD, false).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testAuthorizeIsThrottledPerEmail() throws Exception {
+        LoginVM login = new LoginVM();
+        login.setUsername("throttled@example.com");
+        login.setPassword("wrong password");
+        int capacity = applicationProperties.getLoginThrottling().getEmail().getCapacity();
+        for (int i = 0; i < capacity; i++) {
+            MvcResult mvcResult = mockMvc
+                .perform(
+                    post("/api/authenticate")
+                        .with(request -> {
+                            request.setRemoteAddr("192.0.2.1");
+                            return request;
+                        })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(login))
+                )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            mockMvc.perform(asyncDispatch(mvcResult)).andExpect(status().isUnauthorized());
+        }
+
+        mockMvc
+            .perform(
+                post("/api/authenticate")
+                    .with(request -> {
+                        request.setRemoteAddr("192.0.2.2");
+                        return request;
+                    })
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(login))
+            )
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "60"));
+    }
+
+    private ResultActions authorize(String username, String password, boolean rememberMe) throws Exception {
+        LoginVM login = new LoginVM();
+        login.setUsername(username);
+        login.setPassword(password);
+        login.setRememberMe(rememberMe);
+        MvcResult mvcResult = mockMvc
+            .perform(post("/api/authenticate").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(login)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        return mockMvc.perform(asyncDispatch(mvcResult));
+    }
+}
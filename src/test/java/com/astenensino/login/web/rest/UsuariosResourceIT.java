@@ -1,24 +1,45 @@
 package com.astenensino.login.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.astenensino.login.IntegrationTest;
 import com.astenensino.login.domain.Usuarios;
+import com.astenensino.login.repository.KeysetCursor;
+import com.astenensino.login.repository.UsuariosEmailProjection;
 import com.astenensino.login.repository.UsuariosRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -47,9 +68,18 @@ class UsuariosResourceIT {
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @Autowired
     private MockMvc restUsuariosMockMvc;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
     private Usuarios usuarios;
 
     /**
@@ -79,13 +109,18 @@ class UsuariosResourceIT {
         usuarios = createEntity(em);
     }
 
+    @AfterEach
+    public void stopCountingStatements() {
+        entityManagerFactory.unwrap(SessionFactory.class).getStatistics().setStatisticsEnabled(false);
+    }
+
     @Test
     @Transactional
     void createUsuarios() throws Exception {
         int databaseSizeBeforeCreate = usuariosRepository.findAll().size();
         // Create the Usuarios
         restUsuariosMockMvc
-            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(usuarios)))
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(toJsonBytes(usuarios)))
             .andExpect(status().isCreated());
 
         // Validate the Usuarios in the database
@@ -93,7 +128,93 @@ class UsuariosResourceIT {
         assertThat(usuariosList).hasSize(databaseSizeBeforeCreate + 1);
         Usuarios testUsuarios = usuariosList.get(usuariosList.size() - 1);
         assertThat(testUsuarios.getEmail()).isEqualTo(DEFAULT_EMAIL);
-        assertThat(testUsuarios.getPassword()).isEqualTo(DEFAULT_PASSWORD);
+        assertThat(testUsuarios.getPassword()).startsWith("{bcrypt}");
+        assertThat(passwordEncoder.matches(DEFAULT_PASSWORD, testUsuarios.getPassword())).isTrue();
+    }
+
+    @Test
+    void bulkCreateUsuarios() throws Exception {
+        // Each chunk of a bulk save is committed in its own transaction, so the created rows have to be deleted
+        String body =
+            "[{\"email\":\"bulk-1@example.com\",\"password\":\"" +
+            DEFAULT_PASSWORD +
+            "\"},{\"id\":1,\"email\":\"bulk-2@example.com\"},{\"email\":\"bulk-3@example.com\"}]";
+        try {
+            restUsuariosMockMvc
+                .perform(post(ENTITY_API_URL + "/_bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].index").value(contains(0, 1, 2)))
+                .andExpect(jsonPath("$.[*].status").value(contains("CREATED", "FAILED", "CREATED")));
+
+            List<String> emails = List.of("bulk-1@example.com", "bulk-2@example.com", "bulk-3@example.com");
+            assertThat(usuariosRepository.findAllByLowerCaseEmailIn(emails))
+                .extracting(Usuarios::getEmail)
+                .containsExactlyInAnyOrder("bulk-1@example.com", "bulk-3@example.com");
+            assertThat(usuariosRepository.findByEmail("bulk-1@example.com"))
+                .get()
+                .extracting(Usuarios::getPassword)
+                .matches(password -> passwordEncoder.matches(DEFAULT_PASSWORD, password));
+        } finally {
+            usuariosRepository.deleteAll(usuariosRepository.findAllByLowerCaseEmailIn(List.of("bulk-1@example.com", "bulk-3@example.com")));
+        }
+    }
+
+    @Test
+    void bulkCreateUsuariosRetriesTheChunkOneByOne() throws Exception {
+        // Each chunk of a bulk save is committed in its own transaction, so the created rows have to be deleted
+        Usuarios existing = usuariosRepository.saveAndFlush(createEntity(em).email("bulk-retry-taken@example.com"));
+        String body =
+            "[{\"email\":\"bulk-retry-1@example.com\",\"password\":\"" +
+            DEFAULT_PASSWORD +
+            "\"},{\"email\":\"BULK-RETRY-TAKEN@example.com\",\"password\":\"" +
+            DEFAULT_PASSWORD +
+            "\"},{\"email\":\"bulk-retry-2@example.com\",\"password\":\"" +
+            DEFAULT_PASSWORD +
+            "\"}]";
+        List<String> emails = List.of("bulk-retry-taken@example.com", "bulk-retry-1@example.com", "bulk-retry-2@example.com");
+        try {
+            restUsuariosMockMvc
+                .perform(post(ENTITY_API_URL + "/_bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].status").value(contains("CREATED", "FAILED", "CREATED")))
+                .andExpect(jsonPath("$.[0].id").isNumber())
+                .andExpect(jsonPath("$.[2].id").isNumber());
+
+            assertThat(usuariosRepository.findAllByLowerCaseEmailIn(emails))
+                .extracting(Usuarios::getEmail)
+                .containsExactlyInAnyOrder("bulk-retry-taken@example.com", "bulk-retry-1@example.com", "bulk-retry-2@example.com");
+            assertThat(usuariosRepository.findById(existing.getId())).get().extracting(Usuarios::getEmail).isEqualTo(existing.getEmail());
+        } finally {
+            usuariosRepository.deleteAll(usuariosRepository.findAllByLowerCaseEmailIn(emails));
+        }
+    }
+
+    @Test
+    void bulkUpsertUsuarios() throws Exception {
+        // Each chunk of a bulk save is committed in its own transaction, so the created rows have to be deleted
+        Usuarios existing = usuariosRepository.saveAndFlush(createEntity(em).email("bulk-upsert-1@example.com"));
+        String body =
+            "{\"email\":\"bulk-upsert-1@example.com\",\"password\":\"" +
+            UPDATED_PASSWORD +
+            "\"}\n{\"email\":\"bulk-upsert-2@example.com\",\"password\":\"first\"}\n" +
+            "{\"email\":\"bulk-upsert-2@example.com\",\"password\":\"" +
+            UPDATED_PASSWORD +
+            "\"}\n";
+        try {
+            restUsuariosMockMvc
+                .perform(post(ENTITY_API_URL + "/_bulk?upsert=true").contentType("application/x-ndjson").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].status").value(contains("UPDATED", "SKIPPED", "CREATED")))
+                .andExpect(jsonPath("$.[0].id").value(existing.getId().intValue()));
+
+            assertThat(usuariosRepository.findAllByLowerCaseEmailIn(List.of("bulk-upsert-1@example.com", "bulk-upsert-2@example.com")))
+                .extracting(Usuarios::getPassword)
+                .hasSize(2)
+                .allMatch(password -> passwordEncoder.matches(UPDATED_PASSWORD, password));
+        } finally {
+            List<String> emails = List.of("bulk-upsert-1@example.com", "bulk-upsert-2@example.com");
+            usuariosRepository.deleteAll(usuariosRepository.findAllByLowerCaseEmailIn(emails));
+        }
     }
 
     @Test
@@ -106,7 +227,7 @@ class UsuariosResourceIT {
 
         // An entity with an existing ID cannot be created, so this API call must fail
         restUsuariosMockMvc
-            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(usuarios)))
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(toJsonBytes(usuarios)))
             .andExpect(status().isBadRequest());
 
         // Validate the Usuarios in the database
@@ -127,7 +248,175 @@ class UsuariosResourceIT {
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(usuarios.getId().intValue())))
             .andExpect(jsonPath("$.[*].email").value(hasItem(DEFAULT_EMAIL)))
-            .andExpect(jsonPath("$.[*].password").value(hasItem(DEFAULT_PASSWORD)));
+            .andExpect(jsonPath("$.[*].password").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getAllUsuariosWithFields() throws Exception {
+        // Initialize the database
+        usuariosRepository.saveAndFlush(usuarios);
+
+        // Get all the usuariosList, with the id and email only
+        restUsuariosMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&fields=id,email"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().exists("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(usuarios.getId().intValue())))
+            .andExpect(jsonPath("$.[*].email").value(hasItem(DEFAULT_EMAIL)))
+            .andExpect(jsonPath("$.[*].password").doesNotExist())
+            .andExpect(jsonPath("$.[*].version").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getAllUsuariosByKeysetWithFields() throws Exception {
+        // Initialize the database
+        Usuarios first = usuariosRepository.saveAndFlush(createEntity(em).email("keyset-1@example.com"));
+        Usuarios second = usuariosRepository.saveAndFlush(createEntity(em).email("keyset-2@example.com"));
+        usuariosRepository.saveAndFlush(createEntity(em).email("keyset-3@example.com"));
+        String start = new KeysetCursor("email", first.getId() - 1, "keyset-0@example.com").encode();
+
+        // The cursors are built from the id and email even though they are not requested
+        restUsuariosMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=email,asc&size=2&fields=version&after=" + start))
+            .andExpect(status().isOk())
+            .andExpect(
+                header().string(HttpHeaders.LINK, containsString("after=" + new KeysetCursor("email", second.getId(), "keyset-2@example.com").encode()))
+            )
+            .andExpect(jsonPath("$.[*].version").value(contains(0, 0)))
+            .andExpect(jsonPath("$.[*].id").doesNotExist())
+            .andExpect(jsonPath("$.[*].email").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getAllUsuariosWithInvalidFields() throws Exception {
+        restUsuariosMockMvc.perform(get(ENTITY_API_URL + "?fields=id,password")).andExpect(status().isBadRequest());
+        restUsuariosMockMvc.perform(get(ENTITY_API_URL + "?fields=")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllUsuariosByKeyset() throws Exception {
+        // Initialize the database
+        Usuarios first = usuariosRepository.saveAndFlush(createEntity(em).email("keyset-1@example.com"));
+        Usuarios second = usuariosRepository.saveAndFlush(createEntity(em).email("keyset-2@example.com"));
+        Usuarios third = usuariosRepository.saveAndFlush(createEntity(em).email("keyset-3@example.com"));
+        String start = new KeysetCursor("id", first.getId() - 1, null).encode();
+
+        // Get the first slice, seeking past the rows that may already exist
+        restUsuariosMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,asc&size=2&after=" + start))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("after=" + new KeysetCursor("id", second.getId(), null).encode())))
+            .andExpect(jsonPath("$.[*].id").value(contains(first.getId().intValue(), second.getId().intValue())));
+
+        // Get the next slice
+        restUsuariosMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,asc&size=2&after=" + new KeysetCursor("id", second.getId(), null).encode()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(third.getId().intValue())));
+
+        // Go back to the previous slice
+        restUsuariosMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,asc&size=2&before=" + new KeysetCursor("id", third.getId(), null).encode()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(first.getId().intValue(), second.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllUsuariosByKeysetOnEmail() throws Exception {
+        // Initialize the database
+        Usuarios second = usuariosRepository.saveAndFlush(createEntity(em).email("keyset-b@example.com"));
+        Usuarios first = usuariosRepository.saveAndFlush(createEntity(em).email("Keyset-A@example.com"));
+        Usuarios withoutEmail = usuariosRepository.saveAndFlush(createEntity(em).email(null));
+        String start = new KeysetCursor("email", 0L, "keyset-").encode();
+
+        // The emails are ordered ignoring case
+        restUsuariosMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=email,asc&size=2&after=" + start))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(first.getId().intValue(), second.getId().intValue())));
+
+        // The usuarios without email come last, ordered by id
+        String withoutEmailStart = new KeysetCursor("email", withoutEmail.getId() - 1, null).encode();
+        restUsuariosMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=email,asc&size=1&after=" + withoutEmailStart))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(withoutEmail.getId().intValue())));
+
+        // In descending order, the emails follow the usuarios without email
+        String lastEmail = new KeysetCursor("email", Long.MIN_VALUE, null).encode();
+        restUsuariosMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=email,desc&size=1&after=" + lastEmail))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].email").value(contains(notNullValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllUsuariosByKeysetWithInvalidCursor() throws Exception {
+        restUsuariosMockMvc.perform(get(ENTITY_API_URL + "?after=not-a-cursor")).andExpect(status().isBadRequest());
+
+        // A cursor built for another sort cannot be used
+        String cursor = new KeysetCursor("id", 1L, null).encode();
+        restUsuariosMockMvc.perform(get(ENTITY_API_URL + "?sort=email,asc&after=" + cursor)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllUsuariosByKeysetWithUnsupportedSort() throws Exception {
+        restUsuariosMockMvc.perform(get(ENTITY_API_URL + "?sort=password,asc&after=")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportUsuariosAsNdjson() throws Exception {
+        // The export runs on an async thread in its own transaction, so the row has to be committed
+        usuariosRepository.saveAndFlush(usuarios);
+        String expectedLine = "{\"id\":" + usuarios.getId() + ",\"email\":\"" + DEFAULT_EMAIL + "\"}\n";
+        try {
+            MvcResult mvcResult = restUsuariosMockMvc
+                .perform(get(ENTITY_API_URL + "/_export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restUsuariosMockMvc
+                .perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string(containsString(expectedLine)))
+                .andExpect(content().string(not(containsString("password"))));
+        } finally {
+            usuariosRepository.deleteById(usuarios.getId());
+        }
+    }
+
+    @Test
+    void exportUsuariosAsCsv() throws Exception {
+        // The export runs on an async thread in its own transaction, so the row has to be committed
+        usuariosRepository.saveAndFlush(usuarios.email("a,\"b\""));
+        try {
+            MvcResult mvcResult = restUsuariosMockMvc
+                .perform(get(ENTITY_API_URL + "/_export?format=csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restUsuariosMockMvc
+                .perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string(startsWith("id,email\n")))
+                .andExpect(content().string(containsString(usuarios.getId() + ",\"a,\"\"b\"\"\"\n")));
+        } finally {
+            usuariosRepository.deleteById(usuarios.getId());
+        }
+    }
+
+    @Test
+    void exportUsuariosWithUnsupportedFormat() throws Exception {
+        restUsuariosMockMvc.perform(get(ENTITY_API_URL + "/_export?format=xml")).andExpect(status().isBadRequest());
     }
 
     @Test
@@ -141,9 +430,173 @@ class UsuariosResourceIT {
             .perform(get(ENTITY_API_URL_ID, usuarios.getId()))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
             .andExpect(jsonPath("$.id").value(usuarios.getId().intValue()))
             .andExpect(jsonPath("$.email").value(DEFAULT_EMAIL))
-            .andExpect(jsonPath("$.password").value(DEFAULT_PASSWORD));
+            .andExpect(jsonPath("$.password").doesNotExist())
+            .andExpect(jsonPath("$.version").value(0));
+    }
+
+    @Test
+    @Transactional
+    void getUsuariosWithFields() throws Exception {
+        // Initialize the database
+        usuariosRepository.saveAndFlush(usuarios);
+
+        // Get the email of the usuarios, still tagged with its version
+        restUsuariosMockMvc
+            .perform(get(ENTITY_API_URL_ID, usuarios.getId()).param("fields", "email"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+            .andExpect(content().json("{\"email\":\"" + DEFAULT_EMAIL + "\"}", true));
+
+        restUsuariosMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE).param("fields", "email")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void getNotModifiedUsuarios() throws Exception {
+        // Initialize the database
+        usuariosRepository.saveAndFlush(usuarios);
+
+        // Get the usuarios with its current entity tag
+        restUsuariosMockMvc
+            .perform(get(ENTITY_API_URL_ID, usuarios.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+            .andExpect(content().string(""));
+
+        // Get the usuarios with an outdated entity tag
+        restUsuariosMockMvc
+            .perform(get(ENTITY_API_URL_ID, usuarios.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(usuarios.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getUsuariosByEmail() throws Exception {
+        // Initialize the database
+        usuariosRepository.saveAndFlush(usuarios.email("john.doe@example.com"));
+
+        // Get the usuarios by email, ignoring case
+        restUsuariosMockMvc
+            .perform(get(ENTITY_API_URL + "/_by-email").param("email", "John.Doe@Example.com"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.id").value(usuarios.getId().intValue()))
+            .andExpect(jsonPath("$.email").value("john.doe@example.com"))
+            .andExpect(jsonPath("$.password").doesNotExist());
+    }
+
+    @Test
+    void getUsuariosWithOutdatedEntityTagAfterUpdate() throws Exception {
+        // Cache puts and evictions happen after commit, so the usuarios has to be committed and deleted
+        usuariosRepository.saveAndFlush(usuarios.email("etag@example.com"));
+        Cache byId = cacheManager.getCache(UsuariosRepository.USUARIOS_BY_ID_CACHE);
+        try {
+            restUsuariosMockMvc
+                .perform(get(ENTITY_API_URL_ID, usuarios.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified());
+
+            Usuarios updatedUsuarios = new Usuarios().id(usuarios.getId()).email(UPDATED_EMAIL).password(UPDATED_PASSWORD);
+            restUsuariosMockMvc
+                .perform(
+                    put(ENTITY_API_URL_ID, usuarios.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonBytes(updatedUsuarios))
+                )
+                .andExpect(status().isOk());
+            // A read racing the update caches the usuarios as it was
+            byId.put(usuarios.getId(), new Usuarios().id(usuarios.getId()).email("etag@example.com").version(0L));
+
+            restUsuariosMockMvc
+                .perform(get(ENTITY_API_URL_ID, usuarios.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.email").value(UPDATED_EMAIL));
+        } finally {
+            usuariosRepository.deleteById(usuarios.getId());
+            byId.evict(usuarios.getId());
+        }
+    }
+
+    @Test
+    void getUsuariosIsCachedUntilUpdated() throws Exception {
+        // Cache puts and evictions happen after commit, so the usuarios has to be committed and deleted
+        usuariosRepository.saveAndFlush(usuarios.email("cached@example.com"));
+        Cache byId = cacheManager.getCache(UsuariosRepository.USUARIOS_BY_ID_CACHE);
+        try {
+            restUsuariosMockMvc.perform(get(ENTITY_API_URL_ID, usuarios.getId())).andExpect(status().isOk());
+            assertThat(byId.get(usuarios.getId())).isNotNull();
+
+            Usuarios updatedUsuarios = new Usuarios().id(usuarios.getId()).email(UPDATED_EMAIL).password(UPDATED_PASSWORD);
+            restUsuariosMockMvc
+                .perform(
+                    put(ENTITY_API_URL_ID, usuarios.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJsonBytes(updatedUsuarios))
+                )
+                .andExpect(status().isOk());
+            assertThat(byId.get(usuarios.getId())).isNull();
+
+            restUsuariosMockMvc
+                .perform(get(ENTITY_API_URL_ID, usuarios.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value(UPDATED_EMAIL));
+        } finally {
+            usuariosRepository.deleteById(usuarios.getId());
+            byId.evict(usuarios.getId());
+        }
+    }
+
+    @Test
+    void getUsuariosByEmailIsCachedUntilUpdated() throws Exception {
+        // Cache puts and evictions happen after commit, so the usuarios has to be committed and deleted
+        usuariosRepository.saveAndFlush(usuarios.email("Cached@example.com"));
+        Cache byEmail = cacheManager.getCache(UsuariosRepository.USUARIOS_BY_EMAIL_CACHE);
+        try {
+            restUsuariosMockMvc.perform(get(ENTITY_API_URL + "/_by-email").param("email", "CACHED@example.com")).andExpect(status().isOk());
+            assertThat(byEmail.get("cached@example.com", UsuariosEmailProjection.class))
+                .isEqualTo(new UsuariosEmailProjection(usuarios.getId(), "Cached@example.com"));
+
+            Usuarios partialUpdatedUsuarios = new Usuarios().id(usuarios.getId()).email("renamed@example.com");
+            restUsuariosMockMvc
+                .perform(
+                    patch(ENTITY_API_URL_ID, usuarios.getId())
+                        .contentType("application/merge-patch+json")
+                        .content(toJsonBytes(partialUpdatedUsuarios))
+                )
+                .andExpect(status().isOk());
+            assertThat(byEmail.get("cached@example.com")).isNull();
+
+            restUsuariosMockMvc
+                .perform(get(ENTITY_API_URL + "/_by-email").param("email", "cached@example.com"))
+                .andExpect(status().isNotFound());
+        } finally {
+            usuariosRepository.deleteById(usuarios.getId());
+            byEmail.evict("renamed@example.com");
+        }
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingUsuariosByEmail() throws Exception {
+        restUsuariosMockMvc
+            .perform(get(ENTITY_API_URL + "/_by-email").param("email", "nobody@example.com"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void checkEmailIsUniqueIgnoringCase() throws Exception {
+        // Initialize the database
+        usuariosRepository.saveAndFlush(usuarios.email("john.doe@example.com"));
+        assertThat(usuariosRepository.existsByEmail("JOHN.DOE@example.com")).isTrue();
+
+        Usuarios duplicate = createEntity(em).email("John.Doe@example.com");
+        assertThatThrownBy(() -> usuariosRepository.saveAndFlush(duplicate)).isInstanceOf(DataIntegrityViolationException.class);
     }
 
     @Test
@@ -167,20 +620,94 @@ class UsuariosResourceIT {
         em.detach(updatedUsuarios);
         updatedUsuarios.email(UPDATED_EMAIL).password(UPDATED_PASSWORD);
 
+        Statistics statistics = startCountingStatements();
         restUsuariosMockMvc
             .perform(
                 put(ENTITY_API_URL_ID, updatedUsuarios.getId())
                     .contentType(MediaType.APPLICATION_JSON)
-                    .content(TestUtil.convertObjectToJsonBytes(updatedUsuarios))
+                    .content(toJsonBytes(updatedUsuarios))
             )
-            .andExpect(status().isOk());
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.password").doesNotExist());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
 
         // Validate the Usuarios in the database
         List<Usuarios> usuariosList = usuariosRepository.findAll();
         assertThat(usuariosList).hasSize(databaseSizeBeforeUpdate);
         Usuarios testUsuarios = usuariosList.get(usuariosList.size() - 1);
         assertThat(testUsuarios.getEmail()).isEqualTo(UPDATED_EMAIL);
-        assertThat(testUsuarios.getPassword()).isEqualTo(UPDATED_PASSWORD);
+        assertThat(passwordEncoder.matches(UPDATED_PASSWORD, testUsuarios.getPassword())).isTrue();
+    }
+
+    @Test
+    @Transactional
+    void putUsuariosWithIfMatch() throws Exception {
+        // Initialize the database
+        usuariosRepository.saveAndFlush(usuarios);
+
+        Usuarios updatedUsuarios = new Usuarios().id(usuarios.getId()).email(UPDATED_EMAIL).password(UPDATED_PASSWORD);
+
+        // A stale entity tag is rejected, and the usuarios is left unchanged
+        restUsuariosMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, usuarios.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"3\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(toJsonBytes(updatedUsuarios))
+            )
+            .andExpect(status().isPreconditionFailed());
+        assertThat(usuariosRepository.findById(usuarios.getId())).get().extracting(Usuarios::getEmail).isEqualTo(DEFAULT_EMAIL);
+
+        // The current entity tag is accepted, and the version incremented
+        restUsuariosMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, usuarios.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(toJsonBytes(updatedUsuarios))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+            .andExpect(jsonPath("$.version").value(1));
+        assertThat(usuariosRepository.findById(usuarios.getId())).get().extracting(Usuarios::getEmail).isEqualTo(UPDATED_EMAIL);
+    }
+
+    @Test
+    @Transactional
+    void putUsuariosWithoutPassword() throws Exception {
+        // Initialize the database
+        usuariosRepository.saveAndFlush(usuarios.password(passwordEncoder.encode(DEFAULT_PASSWORD)));
+
+        // The password is never returned, so a usuarios sent back without one keeps it
+        Usuarios updatedUsuarios = new Usuarios().id(usuarios.getId()).email(UPDATED_EMAIL);
+        restUsuariosMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, usuarios.getId()).contentType(MediaType.APPLICATION_JSON).content(toJsonBytes(updatedUsuarios))
+            )
+            .andExpect(status().isOk());
+
+        Usuarios testUsuarios = usuariosRepository.findById(usuarios.getId()).get();
+        assertThat(testUsuarios.getEmail()).isEqualTo(UPDATED_EMAIL);
+        assertThat(passwordEncoder.matches(DEFAULT_PASSWORD, testUsuarios.getPassword())).isTrue();
+    }
+
+    @Test
+    @Transactional
+    void patchUsuariosWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        usuariosRepository.saveAndFlush(usuarios);
+
+        Usuarios partialUpdatedUsuarios = new Usuarios().id(usuarios.getId()).password(UPDATED_PASSWORD);
+
+        restUsuariosMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, usuarios.getId())
+                    .header(HttpHeaders.IF_MATCH, "W/\"0\"")
+                    .contentType("application/merge-patch+json")
+                    .content(toJsonBytes(partialUpdatedUsuarios))
+            )
+            .andExpect(status().isPreconditionFailed());
+        assertThat(usuariosRepository.findById(usuarios.getId())).get().extracting(Usuarios::getPassword).isEqualTo(DEFAULT_PASSWORD);
     }
 
     @Test
@@ -194,7 +721,7 @@ class UsuariosResourceIT {
             .perform(
                 put(ENTITY_API_URL_ID, usuarios.getId())
                     .contentType(MediaType.APPLICATION_JSON)
-                    .content(TestUtil.convertObjectToJsonBytes(usuarios))
+                    .content(toJsonBytes(usuarios))
             )
             .andExpect(status().isBadRequest());
 
@@ -214,7 +741,7 @@ class UsuariosResourceIT {
             .perform(
                 put(ENTITY_API_URL_ID, count.incrementAndGet())
                     .contentType(MediaType.APPLICATION_JSON)
-                    .content(TestUtil.convertObjectToJsonBytes(usuarios))
+                    .content(toJsonBytes(usuarios))
             )
             .andExpect(status().isBadRequest());
 
@@ -231,7 +758,7 @@ class UsuariosResourceIT {
 
         // If url ID doesn't match entity ID, it will throw BadRequestAlertException
         restUsuariosMockMvc
-            .perform(put(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(usuarios)))
+            .perform(put(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(toJsonBytes(usuarios)))
             .andExpect(status().isMethodNotAllowed());
 
         // Validate the Usuarios in the database
@@ -255,7 +782,7 @@ class UsuariosResourceIT {
             .perform(
                 patch(ENTITY_API_URL_ID, partialUpdatedUsuarios.getId())
                     .contentType("application/merge-patch+json")
-                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedUsuarios))
+                    .content(toJsonBytes(partialUpdatedUsuarios))
             )
             .andExpect(status().isOk());
 
@@ -281,20 +808,23 @@ class UsuariosResourceIT {
 
         partialUpdatedUsuarios.email(UPDATED_EMAIL).password(UPDATED_PASSWORD);
 
+        Statistics statistics = startCountingStatements();
         restUsuariosMockMvc
             .perform(
                 patch(ENTITY_API_URL_ID, partialUpdatedUsuarios.getId())
                     .contentType("application/merge-patch+json")
-                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedUsuarios))
+                    .content(toJsonBytes(partialUpdatedUsuarios))
             )
-            .andExpect(status().isOk());
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.password").doesNotExist());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
 
         // Validate the Usuarios in the database
         List<Usuarios> usuariosList = usuariosRepository.findAll();
         assertThat(usuariosList).hasSize(databaseSizeBeforeUpdate);
         Usuarios testUsuarios = usuariosList.get(usuariosList.size() - 1);
         assertThat(testUsuarios.getEmail()).isEqualTo(UPDATED_EMAIL);
-        assertThat(testUsuarios.getPassword()).isEqualTo(UPDATED_PASSWORD);
+        assertThat(passwordEncoder.matches(UPDATED_PASSWORD, testUsuarios.getPassword())).isTrue();
     }
 
     @Test
@@ -308,7 +838,7 @@ class UsuariosResourceIT {
             .perform(
                 patch(ENTITY_API_URL_ID, usuarios.getId())
                     .contentType("application/merge-patch+json")
-                    .content(TestUtil.convertObjectToJsonBytes(usuarios))
+                    .content(toJsonBytes(usuarios))
             )
             .andExpect(status().isBadRequest());
 
@@ -328,7 +858,7 @@ class UsuariosResourceIT {
             .perform(
                 patch(ENTITY_API_URL_ID, count.incrementAndGet())
                     .contentType("application/merge-patch+json")
-                    .content(TestUtil.convertObjectToJsonBytes(usuarios))
+                    .content(toJsonBytes(usuarios))
             )
             .andExpect(status().isBadRequest());
 
@@ -345,7 +875,7 @@ class UsuariosResourceIT {
 
         // If url ID doesn't match entity ID, it will throw BadRequestAlertException
         restUsuariosMockMvc
-            .perform(patch(ENTITY_API_URL).contentType("application/merge-patch+json").content(TestUtil.convertObjectToJsonBytes(usuarios)))
+            .perform(patch(ENTITY_API_URL).contentType("application/merge-patch+json").content(toJsonBytes(usuarios)))
             .andExpect(status().isMethodNotAllowed());
 
         // Validate the Usuarios in the database
@@ -362,12 +892,46 @@ class UsuariosResourceIT {
         int databaseSizeBeforeDelete = usuariosRepository.findAll().size();
 
         // Delete the usuarios
+        Statistics statistics = startCountingStatements();
         restUsuariosMockMvc
             .perform(delete(ENTITY_API_URL_ID, usuarios.getId()).accept(MediaType.APPLICATION_JSON))
             .andExpect(status().isNoContent());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
 
         // Validate the database contains one less item
         List<Usuarios> usuariosList = usuariosRepository.findAll();
         assertThat(usuariosList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    @Transactional
+    void deleteNonExistingUsuarios() throws Exception {
+        Statistics statistics = startCountingStatements();
+        restUsuariosMockMvc
+            .perform(delete(ENTITY_API_URL_ID, Long.MAX_VALUE).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotFound());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /**
+     * Starts counting the SQL statements prepared by Hibernate, until the end of the test.
+     */
+    /**
+     * Serializes a usuarios as a client sends it: unlike in the responses, with its password.
+     */
+    private static byte[] toJsonBytes(Usuarios usuarios) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode node = mapper.readValue(TestUtil.convertObjectToJsonBytes(usuarios), ObjectNode.class);
+        if (usuarios.getPassword() != null) {
+            node.put("password", usuarios.getPassword());
+        }
+        return mapper.writeValueAsBytes(node);
+    }
+
+    private Statistics startCountingStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        return statistics;
+    }
 }
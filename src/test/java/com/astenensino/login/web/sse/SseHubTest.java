@@ -0,0 +1,215 @@
+package com.astenensino.login.web.sse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.astenensino.login.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SseHubTest {
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    private MeterRegistry meterRegistry;
+
+    private SseHub sseHub;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties.Sse properties = new ApplicationProperties.Sse();
+        properties.setMaxConnectionsPerPrincipal(2);
+        properties.setMaxQueuedEvents(2);
+        meterRegistry = new SimpleMeterRegistry();
+        sseHub = new SseHub(properties, tasks::add, Runnable::run, meterRegistry);
+    }
+
+    @Test
+    void testPrincipalCanHaveSeveralConnections() {
+        sseHub.connect("user", Set.of(), null);
+        sseHub.connect("user", Set.of(), null);
+        sseHub.connect("other", Set.of(), null);
+
+        assertThat(connections()).isEqualTo(3);
+    }
+
+    @Test
+    void testOldestConnectionIsReplacedBeyondTheLimit() {
+        sseHub.connect("user", Set.of(), null);
+        sseHub.connect("user", Set.of(), null);
+        sseHub.connect("user", Set.of(), null);
+
+        assertThat(connections()).isEqualTo(2);
+        assertThat(evicted("replaced")).isEqualTo(1);
+    }
+
+    @Test
+    void testDisconnectClosesAllTheConnectionsOfThePrincipal() {
+        sseHub.connect("user", Set.of(), null);
+        sseHub.connect("user", Set.of(), null);
+        sseHub.connect("other", Set.of(), null);
+
+        sseHub.disconnect("user");
+
+        assertThat(connections()).isEqualTo(1);
+    }
+
+    @Test
+    void testBroadcastSchedulesOneSendingPerConnection() {
+        sseHub.connect("user", Set.of(), null);
+        sseHub.connect("other", Set.of(), null);
+
+        sseHub.publish(new SseEvent("first"));
+        sseHub.publish(new SseEvent("second"));
+
+        assertThat(tasks).hasSize(2);
+    }
+
+    @Test
+    void testSlowConnectionIsEvicted() {
+        sseHub.connect("slow", Set.of(), null);
+
+        for (int i = 0; i < 3; i++) {
+            sseHub.publish(new SseEvent("event-" + i));
+        }
+
+        assertThat(connections()).isZero();
+        assertThat(evicted("slow")).isEqualTo(1);
+    }
+
+    @Test
+    void testQueuedEventsAreSent() {
+        sseHub.connect("user", Set.of(), null);
+        sseHub.publish(new SseEvent("first"));
+        sseHub.publish(new SseEvent("second"));
+
+        tasks.poll().run();
+        sseHub.publish(new SseEvent("third"));
+        sseHub.publish(new SseEvent("fourth"));
+
+        assertThat(connections()).isEqualTo(1);
+        assertThat(tasks).hasSize(1);
+    }
+
+    @Test
+    void testChannelEventOnlyGoesToItsSubscribers() {
+        sseHub.connect("user", Set.of("news"), null);
+        sseHub.connect("other", Set.of("sports"), null);
+        sseHub.connect("third", Set.of(), null);
+
+        sseHub.publish(new SseEvent("event", "news", null));
+
+        assertThat(tasks).hasSize(1);
+    }
+
+    @Test
+    void testUserEventOnlyGoesToTheirConnections() {
+        sseHub.connect("user", Set.of(), null);
+        sseHub.connect("user", Set.of("news"), null);
+        sseHub.connect("other", Set.of("news"), null);
+
+        sseHub.publish(new SseEvent("event", null, "user"));
+
+        assertThat(tasks).hasSize(2);
+    }
+
+    @Test
+    void testUserChannelEventOnlyGoesToTheirSubscribedConnections() {
+        sseHub.connect("user", Set.of(), null);
+        sseHub.connect("user", Set.of("news"), null);
+        sseHub.connect("other", Set.of("news"), null);
+
+        sseHub.publish(new SseEvent("event", "news", "user"));
+
+        assertThat(tasks).hasSize(1);
+    }
+
+    @Test
+    void testClosedConnectionIsRemovedFromItsChannels() {
+        sseHub.connect("user", Set.of("news"), null);
+
+        sseHub.disconnect("user");
+        sseHub.publish(new SseEvent("event", "news", null));
+
+        assertThat(tasks).isEmpty();
+    }
+
+    @Test
+    void testEventIdsIncrease() {
+        long first = sseHub.publish(new SseEvent("first")).getId();
+        long second = sseHub.publish(new SseEvent("second")).getId();
+
+        assertThat(second).isGreaterThan(first);
+    }
+
+    @Test
+    void testGivenEventIdIsKept() {
+        assertThat(sseHub.publish(new SseEvent(42, "given", null, null)).getId()).isEqualTo(42);
+        assertThat(sseHub.publish(new SseEvent("next")).getId()).isEqualTo(43);
+    }
+
+    @Test
+    void testReopenedConnectionResumesAfterTheGivenEventId() {
+        sseHub.publish(new SseEvent(1, "seen", "news", null));
+        sseHub.publish(new SseEvent(2, "missed", "news", null));
+
+        sseHub.connect("user", Set.of("news"), 1L);
+
+        assertThat(tasks).hasSize(1);
+    }
+
+    @Test
+    void testReopenedConnectionGetsTheMissedEvents() {
+        long lastEventId = sseHub.publish(new SseEvent("seen", "news", null)).getId();
+        sseHub.publish(new SseEvent("missed", "news", null));
+
+        sseHub.connect("user", Set.of("news"), lastEventId);
+
+        assertThat(tasks).hasSize(1);
+    }
+
+    @Test
+    void testNewConnectionGetsNoPastEvents() {
+        sseHub.publish(new SseEvent("past", "news", null));
+
+        sseHub.connect("user", Set.of("news"), null);
+
+        assertThat(tasks).isEmpty();
+    }
+
+    @Test
+    void testEventIsDroppedWhenTheDispatchingIsTooFarBehind() {
+        ApplicationProperties.Sse properties = new ApplicationProperties.Sse();
+        properties.setMaxPendingDispatches(1);
+        properties.setDispatchTimeout(Duration.ofMillis(1));
+        Queue<Runnable> dispatches = new ArrayDeque<>();
+        sseHub = new SseHub(properties, tasks::add, dispatches::add, meterRegistry);
+
+        sseHub.publish(new SseEvent("first"));
+        sseHub.publish(new SseEvent("second"));
+
+        assertThat(dispatches).hasSize(1);
+        assertThat(meterRegistry.get(SseHub.DROPPED_METER_NAME).counter().count()).isEqualTo(1);
+        assertThatThrownBy(() -> sseHub.connect("user", Set.of(), null)).isInstanceOf(RejectedExecutionException.class);
+
+        // Room is made once the pending event is dispatched
+        dispatches.poll().run();
+        sseHub.publish(new SseEvent("third"));
+        assertThat(dispatches).hasSize(1);
+    }
+
+    private double connections() {
+        return meterRegistry.get(SseHub.CONNECTIONS_METER_NAME).gauge().value();
+    }
+
+    private double evicted(String reason) {
+        return meterRegistry.get(SseHub.EVICTED_METER_NAME).tag(SseHub.EVICTED_METER_REASON_DIMENSION, reason).counter().count();
+    }
+}
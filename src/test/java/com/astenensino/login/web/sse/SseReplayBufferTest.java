@@ -0,0 +1,64 @@
+package com.astenensino.login.web.sse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class SseReplayBufferTest {
+
+    private static final long NOW = 1_000_000;
+
+    private final SseReplayBuffer replayBuffer = new SseReplayBuffer(3, 60_000, 10);
+
+    @Test
+    void testEventsAfterTheLastOneAreReplayedInOrder() {
+        replayBuffer.add(event(1, null, null), NOW);
+        replayBuffer.add(event(2, "news", null), NOW);
+        replayBuffer.add(event(3, null, null), NOW);
+        replayBuffer.add(event(4, "news", null), NOW);
+
+        assertThat(replayBuffer.eventsAfter(1, "user", Set.of("news"), 10, NOW)).extracting(SseEvent::getId).containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    void testOnlyTheEventsOfTheStreamAreReplayed() {
+        replayBuffer.add(event(1, "news", null), NOW);
+        replayBuffer.add(event(2, "sports", null), NOW);
+        replayBuffer.add(event(3, null, "user"), NOW);
+        replayBuffer.add(event(4, null, "other"), NOW);
+        replayBuffer.add(event(5, "sports", "user"), NOW);
+
+        assertThat(replayBuffer.eventsAfter(0, "user", Set.of("news"), 10, NOW)).extracting(SseEvent::getId).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void testRingsAreBoundedInSize() {
+        for (int id = 1; id <= 5; id++) {
+            replayBuffer.add(event(id, null, null), NOW);
+        }
+
+        assertThat(replayBuffer.eventsAfter(0, "user", Set.of(), 10, NOW)).extracting(SseEvent::getId).containsExactly(3L, 4L, 5L);
+    }
+
+    @Test
+    void testRingsAreBoundedInAge() {
+        replayBuffer.add(event(1, null, null), NOW);
+        replayBuffer.add(event(2, null, null), NOW + 30_000);
+
+        assertThat(replayBuffer.eventsAfter(0, "user", Set.of(), 10, NOW + 70_000)).extracting(SseEvent::getId).containsExactly(2L);
+    }
+
+    @Test
+    void testOnlyTheLatestEventsAreReplayedBeyondTheLimit() {
+        replayBuffer.add(event(1, null, null), NOW);
+        replayBuffer.add(event(2, "news", null), NOW);
+        replayBuffer.add(event(3, null, "user"), NOW);
+
+        assertThat(replayBuffer.eventsAfter(0, "user", Set.of("news"), 2, NOW)).extracting(SseEvent::getId).containsExactly(2L, 3L);
+    }
+
+    private static SseEvent event(long id, String channel, String user) {
+        return new SseEvent("data", channel, user).withId(id);
+    }
+}